@@ -25,9 +25,9 @@ public enum AsterismLoader implements StarCatalogue.Loader {
      */
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        Map<Integer, Star> map = new HashMap<>();
-        for (Star s : builder.stars()) {
-            map.put(s.hipparcosId(), s);
+        Map<Integer, Integer> map = new HashMap<>(); //Index of the star for each hipparcos number
+        for (int i = 0; i < builder.starCount(); i++) {
+            map.put(builder.hipparcosId(i), i);
         }
 
         try (BufferedReader stream = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
@@ -37,7 +37,8 @@ public enum AsterismLoader implements StarCatalogue.Loader {
                 stars = new ArrayList<>();
                 String[] tab = d.split(",");
                 for (String s : tab) {
-                    stars.add(map.get(Integer.parseInt(s)));
+                    Integer index = map.get(Integer.parseInt(s));
+                    stars.add(index == null ? null : builder.star(index)); //Only the stars of the asterisms are created
                 }
                 builder.addAsterism(new Asterism(stars));
             }
@@ -0,0 +1,52 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Program converting a HYG database (CSV) and an asterism file to a binary catalogue,
+ * which can then be loaded by the BinaryCatalogueLoader.
+ * <p>Arguments : the path of the binary catalogue to write, optionally followed by the paths
+ * of the HYG database and of the asterism file (the ones of the resources by default).</p>
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ * @see BinaryCatalogueLoader
+ */
+public final class BinaryCatalogueConverter {
+
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+    private static final String ASTERISM_CATALOGUE_NAME = "/asterisms.txt";
+
+    private BinaryCatalogueConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage : BinaryCatalogueConverter <output> [<hyg database> <asterisms>]");
+            System.exit(1);
+        }
+
+        StarCatalogue catalogue;
+        try (InputStream hygStream = args.length == 3
+                ? Files.newInputStream(Path.of(args[1]))
+                : BinaryCatalogueConverter.class.getResourceAsStream(HYG_CATALOGUE_NAME);
+             InputStream asterismStream = args.length == 3
+                     ? Files.newInputStream(Path.of(args[2]))
+                     : BinaryCatalogueConverter.class.getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+
+        try (OutputStream output = Files.newOutputStream(Path.of(args[0]))) {
+            BinaryCatalogueLoader.INSTANCE.write(catalogue, output);
+        }
+        System.out.printf("%d stars and %d asterisms written to %s%n",
+                catalogue.starCount(), catalogue.asterisms().size(), args[0]);
+    }
+}
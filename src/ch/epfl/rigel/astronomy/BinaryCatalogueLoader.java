@@ -0,0 +1,198 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loader that puts in the catalogue the stars and asterisms of a binary catalogue,
+ * and writer of such catalogues.
+ * <p>A binary catalogue contains, in big-endian order: a magic number and the version of the format,
+ * the number of stars, the number of bytes of the names, the number of asterisms and the total number
+ * of stars of the asterisms, then the columns of the stars (hipparcos numbers, right ascensions,
+ * declinations, magnitudes, color indices, offsets and bytes of the names) and finally, for each
+ * asterism, its number of stars followed by the indexes of its stars in the file.</p>
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+public enum BinaryCatalogueLoader implements StarCatalogue.Loader {
+    INSTANCE;
+
+    private static final int MAGIC = 0x52474C43; //"RGLC"
+    private static final int VERSION = 1;
+    //Number of bytes of the columns of a star: hipparcos number, right ascension, declination, magnitude,
+    //color index and offset of its name
+    private static final int STAR_BYTES = Integer.BYTES + 2 * Double.BYTES + 2 * Float.BYTES + Integer.BYTES;
+
+    /**
+     * Reads the whole binary catalogue of the input stream
+     *
+     * @see StarCatalogue.Loader#load(InputStream inputStream, StarCatalogue.Builder builder)
+     */
+    @Override
+    public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        load(ByteBuffer.wrap(inputStream.readAllBytes()), builder);
+    }
+
+    /**
+     * Loads the binary catalogue of the given file, which is mapped in memory, and adds its stars
+     * and asterisms to the catalogue that is being built by the builder
+     *
+     * @param path    the path of the binary catalogue
+     * @param builder the builder that constructs the star catalogue
+     * @throws IOException in case of an input/output exception or if the file is not a valid binary catalogue
+     */
+    public void load(Path path, StarCatalogue.Builder builder) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), builder);
+        }
+    }
+
+    private void load(ByteBuffer buffer, StarCatalogue.Builder builder) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("Not a binary catalogue");
+            if (buffer.getInt() != VERSION)
+                throw new IOException("Unsupported version of binary catalogue");
+
+            int starCount = buffer.getInt();
+            int namesLength = buffer.getInt();
+            int asterismCount = buffer.getInt();
+            int asterismStarCount = buffer.getInt();
+            if (starCount < 0 || namesLength < 0 || asterismCount < 0 || asterismStarCount < 0)
+                throw new IOException("Invalid binary catalogue header");
+            //The counts are checked against the size of the file before any array is allocated
+            if (buffer.remaining() != (long) STAR_BYTES * starCount + Integer.BYTES + namesLength
+                    + (long) Integer.BYTES * ((long) asterismCount + asterismStarCount))
+                throw new IOException("Invalid binary catalogue size");
+
+            int[] hipparcosIds = new int[starCount];
+            buffer.asIntBuffer().get(hipparcosIds);
+            buffer.position(buffer.position() + Integer.BYTES * starCount);
+            double[] rightAscensions = new double[starCount];
+            buffer.asDoubleBuffer().get(rightAscensions);
+            buffer.position(buffer.position() + Double.BYTES * starCount);
+            double[] declinations = new double[starCount];
+            buffer.asDoubleBuffer().get(declinations);
+            buffer.position(buffer.position() + Double.BYTES * starCount);
+            float[] magnitudes = new float[starCount];
+            buffer.asFloatBuffer().get(magnitudes);
+            buffer.position(buffer.position() + Float.BYTES * starCount);
+            float[] colorIndices = new float[starCount];
+            buffer.asFloatBuffer().get(colorIndices);
+            buffer.position(buffer.position() + Float.BYTES * starCount);
+            int[] nameOffsets = new int[starCount + 1];
+            buffer.asIntBuffer().get(nameOffsets);
+            buffer.position(buffer.position() + Integer.BYTES * (starCount + 1));
+            byte[] names = new byte[namesLength];
+            buffer.get(names);
+            if (nameOffsets[0] != 0 || nameOffsets[starCount] != namesLength)
+                throw new IOException("Invalid name offsets in binary catalogue");
+            for (int i = 0; i < starCount; i++) {
+                if (nameOffsets[i] > nameOffsets[i + 1])
+                    throw new IOException("Invalid name offsets in binary catalogue");
+            }
+
+            int firstStar = builder.starCount();
+            builder.addStars(StarColumns.of(hipparcosIds, rightAscensions, declinations,
+                    magnitudes, colorIndices, names, nameOffsets));
+
+            //Only the stars of the asterisms are created
+            int remainingAsterismStars = asterismStarCount;
+            for (int a = 0; a < asterismCount; a++) {
+                int size = buffer.getInt();
+                if (size < 0 || size > remainingAsterismStars)
+                    throw new IOException("Invalid asterism size in binary catalogue");
+                remainingAsterismStars -= size;
+                List<Star> stars = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    int index = buffer.getInt();
+                    if (index < 0 || index >= starCount)
+                        throw new IOException("Invalid star index in binary catalogue");
+                    stars.add(builder.star(firstStar + index));
+                }
+                builder.addAsterism(new Asterism(stars));
+            }
+            if (remainingAsterismStars != 0)
+                throw new IOException("Invalid number of asterism stars in binary catalogue");
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Invalid binary catalogue", e);
+        }
+    }
+
+    /**
+     * Writes the stars and asterisms of the given catalogue as a binary catalogue
+     * (the asterisms are written in the order of the indexes of their stars)
+     *
+     * @param catalogue    the catalogue to be written
+     * @param outputStream the output stream in which the binary catalogue is written
+     * @throws IOException in case of an input/output exception
+     */
+    public void write(StarCatalogue catalogue, OutputStream outputStream) throws IOException {
+        StarColumns columns = catalogue.columns();
+        int starCount = columns.size();
+
+        byte[][] names = new byte[starCount][];
+        int namesLength = 0;
+        for (int i = 0; i < starCount; i++) {
+            names[i] = columns.name(i).getBytes(UTF_8);
+            namesLength += names[i].length;
+        }
+
+        List<int[]> asterisms = new ArrayList<>();
+        int asterismStarCount = 0;
+        for (Asterism asterism : catalogue.asterisms()) {
+            int[] indices = catalogue.asterismIndices(asterism).stream().mapToInt(Integer::intValue).toArray();
+            asterisms.add(indices);
+            asterismStarCount += indices.length;
+        }
+        asterisms.sort(Arrays::compare);
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(starCount);
+        output.writeInt(namesLength);
+        output.writeInt(asterisms.size());
+        output.writeInt(asterismStarCount);
+
+        for (int i = 0; i < starCount; i++)
+            output.writeInt(columns.hipparcosId(i));
+        for (int i = 0; i < starCount; i++)
+            output.writeDouble(columns.rightAscension(i));
+        for (int i = 0; i < starCount; i++)
+            output.writeDouble(columns.declination(i));
+        for (int i = 0; i < starCount; i++)
+            output.writeFloat(columns.magnitude(i));
+        for (int i = 0; i < starCount; i++)
+            output.writeFloat(columns.colorIndex(i));
+        int offset = 0;
+        output.writeInt(offset);
+        for (byte[] name : names) {
+            offset += name.length;
+            output.writeInt(offset);
+        }
+        for (byte[] name : names)
+            output.write(name);
+
+        for (int[] indices : asterisms) {
+            output.writeInt(indices.length);
+            for (int index : indices)
+                output.writeInt(index);
+        }
+        output.flush();
+    }
+}
@@ -1,5 +1,6 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 
 /**
@@ -12,6 +13,13 @@ import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
  */
 public interface CelestialObjectModel<O> {
 
+    /**
+     * Number of values of the ephemeris of an object at an instant, written in the arrays of ephemerides in
+     * this order: its right ascension (in radians), its declination (in radians), its angular size (in radians),
+     * its magnitude and its phase (the illuminated fraction of its disk, between 0 and 1)
+     */
+    public static final int EPHEMERIS_LENGTH = 5;
+
     /**
      * Returns the modeled object for the given number of days after epoch
      * J2010 (may be negative) and, using the given coordinate conversion
@@ -24,4 +32,94 @@ public interface CelestialObjectModel<O> {
      */
     public abstract O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion);
 
+    /**
+     * Returns the modeled object at the instant of the given state of the solar system,
+     * reusing the values of the state instead of computing them again
+     *
+     * @param state the state of the solar system at the instant
+     * @return the modeled object
+     */
+    public default O at(SolarSystemState state) {
+        return at(state.daysSinceJ2010(), state.eclipticToEquatorialConversion());
+    }
+
+    /**
+     * Computes the ephemeris of the modeled object at the instant of the given state of the solar system,
+     * and writes its values from ephemerides[EPHEMERIS_LENGTH * index], without creating any object.
+     * The values are the same as the ones of the object returned by at(state) (which rounds its angular
+     * size, its magnitude and its phase to floats).
+     *
+     * @param state       the state of the solar system at the instant
+     * @param ephemerides the array in which the ephemeris is written
+     * @param index       the index of the instant in the array
+     * @see #EPHEMERIS_LENGTH
+     */
+    public abstract void at(SolarSystemState state, double[] ephemerides, int index);
+
+    /**
+     * Computes the ephemerides of the modeled object at the given instants, from index from (inclusive)
+     * to index to (exclusive), the ephemeris at the instant epochMillis[i] being written from
+     * ephemerides[EPHEMERIS_LENGTH * i]
+     *
+     * @param epochMillis the instants, in milliseconds since 1970-01-01T00:00Z
+     * @param ephemerides the array in which the ephemerides are written
+     * @param from        the index of the first instant
+     * @param to          the index after the last instant
+     * @see Epoch#epochMillis(java.time.ZonedDateTime)
+     */
+    public default void at(long[] epochMillis, double[] ephemerides, int from, int to) {
+        for (int i = from; i < to; i++) {
+            at(new SolarSystemState(epochMillis[i]), ephemerides, i);
+        }
+    }
+
+    /**
+     * Computes the ephemerides of the modeled object at the instants separated by the given step, from index
+     * from (inclusive) to index to (exclusive), the ephemeris at the instant startEpochMillis + i * stepMillis
+     * being written from ephemerides[EPHEMERIS_LENGTH * i]
+     *
+     * @param startEpochMillis the first instant (of index 0), in milliseconds since 1970-01-01T00:00Z
+     * @param stepMillis       the number of milliseconds between two instants (may be negative)
+     * @param ephemerides      the array in which the ephemerides are written
+     * @param from             the index of the first instant
+     * @param to               the index after the last instant
+     */
+    public default void at(long startEpochMillis, long stepMillis, double[] ephemerides, int from, int to) {
+        for (int i = from; i < to; i++) {
+            at(new SolarSystemState(startEpochMillis + i * stepMillis), ephemerides, i);
+        }
+    }
+
+    /**
+     * Computes the ephemerides of the modeled object at all the given instants, in chunks of instants
+     * computed in parallel if there are enough instants (each chunk writing into its own part of the array,
+     * the ephemerides are the same as the ones computed sequentially)
+     *
+     * @param epochMillis the instants, in milliseconds since 1970-01-01T00:00Z
+     * @param ephemerides the array in which the ephemerides are written
+     * @throws IllegalArgumentException if the length of ephemerides is not EPHEMERIS_LENGTH times
+     *                                  the number of instants
+     */
+    public default void parallelAt(long[] epochMillis, double[] ephemerides) {
+        Preconditions.checkArgument(ephemerides.length == EPHEMERIS_LENGTH * epochMillis.length);
+        ParallelChunks.run(epochMillis.length, ParallelChunks.INSTANTS_PER_CHUNK, ParallelChunks.INSTANTS_PARALLEL_THRESHOLD,
+                (from, to) -> at(epochMillis, ephemerides, from, to));
+    }
+
+    /**
+     * Computes the ephemerides of the modeled object at the instants separated by the given step, as many as
+     * the array can hold, in chunks of instants computed in parallel if there are enough instants (each chunk
+     * writing into its own part of the array, the ephemerides are the same as the ones computed sequentially)
+     *
+     * @param startEpochMillis the first instant, in milliseconds since 1970-01-01T00:00Z
+     * @param stepMillis       the number of milliseconds between two instants (may be negative)
+     * @param ephemerides      the array in which the ephemerides are written
+     * @throws IllegalArgumentException if the length of ephemerides is not a multiple of EPHEMERIS_LENGTH
+     */
+    public default void parallelAt(long startEpochMillis, long stepMillis, double[] ephemerides) {
+        Preconditions.checkArgument(ephemerides.length % EPHEMERIS_LENGTH == 0);
+        ParallelChunks.run(ephemerides.length / EPHEMERIS_LENGTH, ParallelChunks.INSTANTS_PER_CHUNK,
+                ParallelChunks.INSTANTS_PARALLEL_THRESHOLD, (from, to) -> at(startEpochMillis, stepMillis, ephemerides, from, to));
+    }
+
 }
@@ -1,7 +1,6 @@
 package ch.epfl.rigel.astronomy;
 
 import java.time.*;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Enumeration that represents astronomical epochs and their tools
@@ -26,10 +25,10 @@ public enum Epoch {
     private static final double MILLIS_PER_DAY = 1000 * 60 * 60 * 24; //Number of milliseconds in a day
     private static final double MILLIS_PER_JULIAN_CENTURIES = 1000 * 60 * 60 * 24 * 365.25 * 100; //Number of milliseconds in a Julian century
 
-    private final ZonedDateTime epochDate;
+    private final long epochMillis; //The number of milliseconds from 1970-01-01T00:00Z to the epoch
 
     Epoch(ZonedDateTime epochDate) {
-        this.epochDate = epochDate;
+        this.epochMillis = epochDate.toInstant().toEpochMilli();
     }
 
     /**
@@ -40,7 +39,20 @@ public enum Epoch {
      * @return the number of days between when and the epoch
      */
     public double daysUntil(ZonedDateTime when) {
-        return epochDate.until(when, ChronoUnit.MILLIS) / MILLIS_PER_DAY;
+        return daysUntil(epochMillis(when));
+    }
+
+    /**
+     * Computes the number of days between the selected epoch (J2000 or J2010)
+     * and the given instant, without creating any object
+     *
+     * @param epochMillis the instant to which the number of days is wanted,
+     *                    in milliseconds since 1970-01-01T00:00Z
+     * @return the number of days between the instant and the epoch
+     * @see #epochMillis(ZonedDateTime)
+     */
+    public double daysUntil(long epochMillis) {
+        return (epochMillis - this.epochMillis) / MILLIS_PER_DAY;
     }
 
     /**
@@ -52,6 +64,31 @@ public enum Epoch {
      * @return the number of days between when and the epoch
      */
     public double julianCenturiesUntil(ZonedDateTime when) {
-        return epochDate.until(when, ChronoUnit.MILLIS) / MILLIS_PER_JULIAN_CENTURIES;
+        return julianCenturiesUntil(epochMillis(when));
+    }
+
+    /**
+     * Computes the number of Julian centuries between the selected epoch (J2000 or J2010)
+     * and the given instant, without creating any object
+     *
+     * @param epochMillis the instant to which the number of Julian centuries is wanted,
+     *                    in milliseconds since 1970-01-01T00:00Z
+     * @return the number of Julian centuries between the instant and the epoch
+     * @see #epochMillis(ZonedDateTime)
+     */
+    public double julianCenturiesUntil(long epochMillis) {
+        return (epochMillis - this.epochMillis) / MILLIS_PER_JULIAN_CENTURIES;
+    }
+
+    /**
+     * Gets the instant of the given date, in milliseconds since 1970-01-01T00:00Z (the precision of
+     * all the computations on the time, the fractions of milliseconds being dropped towards the past),
+     * which is the primitive form of the time taken by the computations of the sky
+     *
+     * @param when the date (ZonedDateTime)
+     * @return the number of milliseconds between 1970-01-01T00:00Z and the date
+     */
+    public static long epochMillis(ZonedDateTime when) {
+        return when.toInstant().toEpochMilli();
     }
 }
@@ -0,0 +1,155 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.math.Angle;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index of the stars of a catalogue over the celestial sphere, used to find the stars
+ * which may be in a cone of view without considering all of them.<br>
+ * The sphere is divided into bands of declination of equal height, each band being divided
+ * into cells of right ascension of about the same width on the sphere (fewer cells near the poles).
+ * The stars of a cell are stored in increasing order of their index.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class EquatorialSkyGrid {
+
+    private static final int STARS_PER_BAND_AND_CELL = 4; //The grid has about starCount / 4 cells
+    private static final int MAX_BANDS = 360;
+
+    private final int bandCount;
+    private final double bandHeight;
+    private final int[] bandFirstCells; //The cells of the band b are the cells [bandFirstCells[b], bandFirstCells[b + 1][
+    private final int[] cellStarts; //The stars of the cell c are at the indexes [cellStarts[c], cellStarts[c + 1][
+    private final int[] starIndices;
+
+    /**
+     * Builds the grid containing the stars at the given equatorial coordinates
+     *
+     * @param rightAscensions the right ascensions of the stars (in radians)
+     * @param declinations    the declinations of the stars (in radians)
+     * @param starCount       the number of stars (the arrays may be longer)
+     */
+    EquatorialSkyGrid(double[] rightAscensions, double[] declinations, int starCount) {
+        //About square cells, each band containing about 2 * bandCount cells at the equator
+        bandCount = Math.max(1, Math.min(MAX_BANDS, (int) Math.sqrt(starCount / (2.0 * STARS_PER_BAND_AND_CELL))));
+        bandHeight = Math.PI / bandCount;
+
+        bandFirstCells = new int[bandCount + 1];
+        for (int b = 0; b < bandCount; b++) {
+            double middleDec = -Math.PI / 2 + (b + 0.5) * bandHeight;
+            bandFirstCells[b + 1] = bandFirstCells[b] + Math.max(1, (int) Math.round(2 * bandCount * Math.cos(middleDec)));
+        }
+
+        //Counting sort of the stars by cell, which keeps the order of the stars in each cell
+        int[] cells = new int[starCount];
+        cellStarts = new int[bandFirstCells[bandCount] + 1];
+        for (int i = 0; i < starCount; i++) {
+            int band = band(declinations[i]);
+            cells[i] = bandFirstCells[band] + cellInBand(band, Math.floor(rightAscensions[i] / Angle.TAU * cellCount(band)));
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int c = 0; c < bandFirstCells[bandCount]; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+
+        starIndices = new int[starCount];
+        int[] next = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+        for (int i = 0; i < starCount; i++) {
+            starIndices[next[cells[i]]++] = i;
+        }
+    }
+
+    /**
+     * Gets the indexes of the stars of the cells intersecting the cone of given center and radius,
+     * only considering the stars whose index is less than indexLimit. All the stars in the cone are
+     * returned, as well as some stars close to it.
+     *
+     * @param ra         the right ascension of the center of the cone (in radians)
+     * @param dec        the declination of the center of the cone (in radians)
+     * @param radius     the angular radius of the cone (in radians)
+     * @param indexLimit the index after the last star to consider
+     * @return the indexes of the stars which may be in the cone (in increasing order in each cell)
+     */
+    int[] starsInCone(double ra, double dec, double radius, int indexLimit) {
+        int firstBand = band(Math.max(-Math.PI / 2, dec - radius));
+        int lastBand = band(Math.min(Math.PI / 2, dec + radius));
+
+        double halfWidth = halfWidth(dec, radius);
+
+        int[] indices = new int[16];
+        int count = 0;
+        for (int band = firstBand; band <= lastBand; band++) {
+            int cellCount = cellCount(band);
+            int firstCell = (int) Math.floor((ra - halfWidth) / Angle.TAU * cellCount);
+            int lastCell = (int) Math.floor((ra + halfWidth) / Angle.TAU * cellCount);
+            if (lastCell - firstCell + 1 >= cellCount) {
+                firstCell = 0;
+                lastCell = cellCount - 1;
+            }
+
+            for (int c = firstCell; c <= lastCell; c++) {
+                int cell = bandFirstCells[band] + Math.floorMod(c, cellCount);
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1] && starIndices[i] < indexLimit; i++) {
+                    if (count == indices.length)
+                        indices = Arrays.copyOf(indices, 2 * count);
+                    indices[count++] = starIndices[i];
+                }
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Checks whether the cones of the given radius centered at the two given right ascensions and at the given
+     * declination intersect the same cells (in which case starsInCone gives the same stars for both cones)
+     *
+     * @param ra1    the right ascension of the center of the first cone (in radians)
+     * @param ra2    the right ascension of the center of the second cone (in radians)
+     * @param dec    the declination of the centers of the cones (in radians)
+     * @param radius the angular radius of the cones (in radians)
+     * @return true if both cones intersect the same cells
+     */
+    boolean coversSameCells(double ra1, double ra2, double dec, double radius) {
+        int firstBand = band(Math.max(-Math.PI / 2, dec - radius));
+        int lastBand = band(Math.min(Math.PI / 2, dec + radius));
+        double halfWidth = halfWidth(dec, radius);
+
+        for (int band = firstBand; band <= lastBand; band++) {
+            int cellCount = cellCount(band);
+            int firstCell1 = (int) Math.floor((ra1 - halfWidth) / Angle.TAU * cellCount);
+            int lastCell1 = (int) Math.floor((ra1 + halfWidth) / Angle.TAU * cellCount);
+            int firstCell2 = (int) Math.floor((ra2 - halfWidth) / Angle.TAU * cellCount);
+            int lastCell2 = (int) Math.floor((ra2 + halfWidth) / Angle.TAU * cellCount);
+
+            boolean allCells1 = lastCell1 - firstCell1 + 1 >= cellCount;
+            boolean allCells2 = lastCell2 - firstCell2 + 1 >= cellCount;
+            if (allCells1 != allCells2)
+                return false;
+            if (!allCells1 && (lastCell1 - firstCell1 != lastCell2 - firstCell2
+                    || Math.floorMod(firstCell1, cellCount) != Math.floorMod(firstCell2, cellCount)))
+                return false;
+        }
+        return true;
+    }
+
+    //Half width in right ascension of the cone, which contains a pole if its radius is not less than PI / 2 - |dec|
+    private static double halfWidth(double dec, double radius) {
+        boolean containsPole = radius >= Math.PI / 2 - Math.abs(dec);
+        return containsPole ? Math.PI : Math.asin(Math.sin(radius) / Math.cos(dec));
+    }
+
+    private int band(double dec) {
+        return Math.max(0, Math.min(bandCount - 1, (int) ((dec + Math.PI / 2) / bandHeight)));
+    }
+
+    private int cellCount(int band) {
+        return bandFirstCells[band + 1] - bandFirstCells[band];
+    }
+
+    private int cellInBand(int band, double cell) {
+        return Math.max(0, Math.min(cellCount(band) - 1, (int) cell));
+    }
+}
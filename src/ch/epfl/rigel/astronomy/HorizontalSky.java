@@ -0,0 +1,289 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sky observed at a given time and place, before its projection: the sun, the moon and the planets with
+ * their horizontal coordinates, and the horizontal coordinates of the stars, stored in a primitive array.
+ * It only depends on the time, the position, the catalogue and the parameters, so the observed skies only
+ * differing by their projection (e.g. while the sky is panned) share it and only project it again.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class HorizontalSky {
+
+    private final ZonedDateTime time;
+    private final GeographicCoordinates observerCoordinates;
+    private final StarCatalogue catalogue;
+    private final ObservedSky.Parameters parameters;
+    private final EquatorialToHorizontalConversion conversion;
+
+    private final Sun sun;
+    private final Moon moon;
+    private final List<Planet> planets;
+
+    private final HorizontalCoordinates sunHorizontalCoordinates;
+    private final HorizontalCoordinates moonHorizontalCoordinates;
+    private final List<HorizontalCoordinates> planetsHorizontalCoordinates;
+
+    private final int projectedStarCount;
+    /*The horizontal coordinates of the projected stars, [az, cos(alt), sin(alt), ...] or with the sidereal rotation
+    [cos(alt) cos(az), cos(alt) sin(az), sin(alt), ...] (created on demand)*/
+    private double[] starCoordinates;
+
+    /**
+     * Computes the sun, the moon and the planets observed at the given time and place. The horizontal
+     * coordinates of the stars are only converted when they are first needed.
+     *
+     * @param time        the zoned date/time to observe the sky
+     * @param coordinates the position to observe the sky
+     * @param catalogue   the catalogue containing all the stars and asterisms to show
+     * @param parameters  the parameters of the computation of the sky
+     */
+    HorizontalSky(ZonedDateTime time, GeographicCoordinates coordinates, StarCatalogue catalogue,
+                  ObservedSky.Parameters parameters) {
+        this.time = time;
+        this.observerCoordinates = coordinates;
+        this.catalogue = catalogue;
+        this.parameters = parameters;
+
+        //The orbits of the Sun and the Earth are computed once for the sun, the moon and all the planets
+        long epochMillis = Epoch.epochMillis(time);
+        SolarSystemState solarSystem = new SolarSystemState(epochMillis);
+        conversion = new EquatorialToHorizontalConversion(epochMillis, coordinates);
+
+        sun = SunModel.SUN.at(solarSystem);
+        moon = MoonModel.MOON.at(solarSystem);
+
+        sunHorizontalCoordinates = conversion.apply(sun.equatorialPos());
+        moonHorizontalCoordinates = conversion.apply(moon.equatorialPos());
+
+        List<Planet> planets = new ArrayList<>();
+        List<HorizontalCoordinates> planetsHorizontalCoordinates = new ArrayList<>();
+        for (PlanetModel planet : PlanetModel.ALL) {
+            if (planet != PlanetModel.EARTH) {
+                Planet newPlanet = planet.at(solarSystem);
+                planets.add(newPlanet);
+                planetsHorizontalCoordinates.add(conversion.apply(newPlanet.equatorialPos()));
+            }
+        }
+        this.planets = List.copyOf(planets);
+        this.planetsHorizontalCoordinates = List.copyOf(planetsHorizontalCoordinates);
+
+        projectedStarCount = projectedStarCount(catalogue, parameters.limitingMagnitude());
+    }
+
+    /**
+     * Gets the number of first stars of the catalogue to be projected: for a catalogue sorted by magnitude,
+     * the stars up to the limiting magnitude and the stars of the asterisms (so that they stay complete),
+     * and all the stars otherwise
+     *
+     * @param catalogue         the catalogue of the stars
+     * @param limitingMagnitude the magnitude of the faintest stars to be projected
+     * @return the number of stars to be projected
+     */
+    private static int projectedStarCount(StarCatalogue catalogue, double limitingMagnitude) {
+        if (!catalogue.isSortedByMagnitude() || limitingMagnitude == Double.POSITIVE_INFINITY)
+            return catalogue.starCount();
+        return Math.max(catalogue.starCountUpToMagnitude(limitingMagnitude), catalogue.asterismStarsEnd());
+    }
+
+    /**
+     * Runs the given task on the stars from 0 to count, at once if there are less than parallelThreshold
+     * stars, and otherwise in chunks run in parallel (each chunk writing into its own part of the arrays,
+     * the results are the same as sequentially)
+     *
+     * @param count             the number of stars
+     * @param parallelThreshold the minimum number of stars for which the task is run in parallel
+     * @param task              the task to run on the stars
+     */
+    private static void inChunks(int count, int parallelThreshold, ParallelChunks.Task task) {
+        ParallelChunks.run(count, ParallelChunks.STARS_PER_CHUNK, parallelThreshold, task);
+    }
+
+    /**
+     * Checks whether the horizontal coordinates of the stars have already been converted
+     *
+     * @return true if the horizontal coordinates of the stars are available
+     */
+    synchronized boolean hasStarCoordinates() {
+        return starCoordinates != null;
+    }
+
+    /**
+     * Gets the horizontal coordinates of the projected stars, converting them on the first call
+     *
+     * @return the horizontal coordinates of the stars
+     */
+    private synchronized double[] starCoordinates() {
+        if (starCoordinates == null) {
+            double[] coordinates = new double[3 * projectedStarCount];
+            if (parameters.siderealRotation()) {
+                double[] unitVectors = catalogue.unitVectors();
+                inChunks(projectedStarCount, parameters.parallelThreshold(),
+                        (from, to) -> conversion.applyToVectors(unitVectors, coordinates, from, to));
+            } else {
+                double[] ra = catalogue.rightAscensions();
+                double[] dec = catalogue.declinations();
+                inChunks(projectedStarCount, parameters.parallelThreshold(),
+                        (from, to) -> conversion.applyToArrays(ra, dec, coordinates, from, to));
+            }
+            starCoordinates = coordinates;
+        }
+        return starCoordinates;
+    }
+
+    /**
+     * Projects the stars from their horizontal coordinates (converted on the first projection)
+     *
+     * @param projection the projection to use
+     * @param indices    the indexes of the stars to project (null to project all the projected stars)
+     * @param xy         the array in which the positions are written, whose length is twice the number of stars
+     */
+    void projectStars(StereographicProjection projection, int[] indices, double[] xy) {
+        double[] coordinates = starCoordinates();
+        inChunks(xy.length / 2, parameters.parallelThreshold(), (from, to) -> {
+            if (parameters.siderealRotation())
+                projection.applyToHorizontalVectors(coordinates, indices, xy, from, to);
+            else
+                projection.applyToHorizontal(coordinates, indices, xy, from, to);
+        });
+    }
+
+    /**
+     * Converts and projects the given stars in one pass, without converting the other stars nor keeping their
+     * horizontal coordinates (for a sky projected once, whose stars are culled). The coordinates of the stars
+     * are gathered in contiguous arrays (shared by the skies with the same visible stars), so that they are
+     * projected like all the stars would be, and the positions are exactly the same as the ones given by projectStars.
+     *
+     * @param projection the projection to use
+     * @param stars      the stars to project
+     * @param xy         the array in which the positions are written, whose length is twice the number of stars
+     */
+    void convertAndProjectStars(StereographicProjection projection, VisibleStars stars, double[] xy) {
+        int count = stars.indices().length;
+        if (parameters.siderealRotation()) {
+            double[] unitVectors = stars.unitVectors();
+            inChunks(count, parameters.parallelThreshold(),
+                    (from, to) -> projection.applyToEquatorialVectors(conversion, unitVectors, xy, from, to));
+        } else {
+            double[] ra = stars.rightAscensions();
+            double[] dec = stars.declinations();
+            inChunks(count, parameters.parallelThreshold(),
+                    (from, to) -> projection.applyToEquatorial(conversion, ra, dec, xy, from, to));
+        }
+    }
+
+    /**
+     * Gets the zoned date/time at which the sky is observed
+     *
+     * @return the time of the observation
+     */
+    ZonedDateTime time() {
+        return time;
+    }
+
+    /**
+     * Gets the position from which the sky is observed
+     *
+     * @return the position of the observer
+     */
+    GeographicCoordinates observerCoordinates() {
+        return observerCoordinates;
+    }
+
+    /**
+     * Gets the catalogue containing the stars and asterisms of the sky
+     *
+     * @return the catalogue of the sky
+     */
+    StarCatalogue catalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Gets the parameters used to compute the sky
+     *
+     * @return the parameters of the sky
+     */
+    ObservedSky.Parameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * Gets the conversion from equatorial to horizontal coordinates at that time and place
+     *
+     * @return the conversion of the sky
+     */
+    EquatorialToHorizontalConversion conversion() {
+        return conversion;
+    }
+
+    /**
+     * Gets the number of first stars of the catalogue which are projected
+     *
+     * @return the number of projected stars (before the culling of the stars outside the cone of view)
+     */
+    int projectedStarCount() {
+        return projectedStarCount;
+    }
+
+    /**
+     * Gets the sun computed at that time and seen from that position
+     *
+     * @return the sun
+     */
+    Sun sun() {
+        return sun;
+    }
+
+    /**
+     * Gets the moon computed at that time and seen from that position
+     *
+     * @return the moon
+     */
+    Moon moon() {
+        return moon;
+    }
+
+    /**
+     * Gets the planets (excepted the Earth) computed at that time and seen from that position
+     *
+     * @return the unmodifiable list of the planets, from Mercury
+     */
+    List<Planet> planets() {
+        return planets;
+    }
+
+    /**
+     * Gets sun's horizontal coordinates
+     *
+     * @return sun's horizontal coordinates
+     */
+    HorizontalCoordinates sunHorizontalCoordinates() {
+        return sunHorizontalCoordinates;
+    }
+
+    /**
+     * Gets moon's horizontal coordinates
+     *
+     * @return moon's horizontal coordinates
+     */
+    HorizontalCoordinates moonHorizontalCoordinates() {
+        return moonHorizontalCoordinates;
+    }
+
+    /**
+     * Gets the horizontal coordinates of the planets (excepted the Earth)
+     *
+     * @return the unmodifiable list of the horizontal coordinates of the planets, in the order of planets()
+     */
+    List<HorizontalCoordinates> planetsHorizontalCoordinates() {
+        return planetsHorizontalCoordinates;
+    }
+}
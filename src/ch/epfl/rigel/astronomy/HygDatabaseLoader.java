@@ -1,16 +1,15 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EquatorialCoordinates;
-
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
- * Loader that puts all the stars in the catalogue
+ * Loader that puts all the stars in the catalogue.
+ * The CSV file is read byte by byte and only the needed columns are parsed,
+ * directly into primitive values, without splitting the lines into strings.
  *
  * @author Ozan Güven (297076)
  * @author Robin Goumaz (301420)
@@ -18,41 +17,433 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 public enum HygDatabaseLoader implements StarCatalogue.Loader {
     INSTANCE;
 
+    private static final int LAST_NEEDED_COLUMN = Column.CON.ordinal();
+    private static final byte[] UNKNOWN_BAYER = {'?'};
+    private static final byte[] SPACE = {' '};
+    private static final byte[] REPLACEMENT_CHARACTER = {(byte) 0xEF, (byte) 0xBF, (byte) 0xBD}; //U+FFFD in UTF-8
+
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    private static final int MAX_EXACT_DOUBLE_EXPONENT = 22; //10^22 is the greatest power of ten exactly stored in a double
+    private static final int MAX_EXACT_FLOAT_EXPONENT = 10; //10^10 is the greatest power of ten exactly stored in a float
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[MAX_EXACT_DOUBLE_EXPONENT + 1];
+    private static final float[] FLOAT_POWERS_OF_TEN = new float[MAX_EXACT_FLOAT_EXPONENT + 1];
+
+    private static final int MAX_CORRECTED_EXPONENT = 27; //5^27 is the greatest power of five stored in a long
+    private static final long[] POWERS_OF_FIVE = new long[MAX_CORRECTED_EXPONENT + 1];
+
+    /*A decimal number [+-]digits[.digits][(e|E)[+-]digits] is packed in a long: the mantissa
+    (below 2^57, so 17 digits) in the lowest bits, the power of ten (biased, in [-31, 31]) in the next
+    6 bits and the sign in the highest bit. Numbers that do not fit (or that are not of that form) are INVALID*/
+    private static final long INVALID = -1;
+    private static final int MANTISSA_BITS = 57;
+    private static final int EXPONENT_BIAS = 31;
+    private static final long MAX_MANTISSA = (1L << MANTISSA_BITS) - 1;
+
+    static {
+        DOUBLE_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = DOUBLE_POWERS_OF_TEN[i - 1] * 10;
+        }
+        POWERS_OF_FIVE[0] = 1;
+        for (int i = 1; i < POWERS_OF_FIVE.length; i++) {
+            POWERS_OF_FIVE[i] = POWERS_OF_FIVE[i - 1] * 5;
+        }
+        FLOAT_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < FLOAT_POWERS_OF_TEN.length; i++) {
+            FLOAT_POWERS_OF_TEN[i] = FLOAT_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
     /**
      * @see StarCatalogue.Loader#load(InputStream inputStream, StarCatalogue.Builder builder)
      */
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        try (BufferedReader stream = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
-            stream.readLine();
-            String s;
-            while ((s = stream.readLine()) != null) {
-                String[] tab = s.split(",");
+        LineReader reader = new LineReader(inputStream);
+        int[] starts = new int[LAST_NEEDED_COLUMN + 1];
+        int[] ends = new int[LAST_NEEDED_COLUMN + 1];
+        NameBuilder name = new NameBuilder();
+
+        reader.nextLine(); //Skips the header
+        while (reader.nextLine()) {
+            byte[] line = reader.buffer();
+            splitFields(line, reader.lineStart(), reader.lineEnd(), starts, ends);
 
-                int hypID = !tab[Column.HIP.ordinal()].isBlank() ? Integer.parseInt(tab[Column.HIP.ordinal()]) : 0;
+            int hip = Column.HIP.ordinal();
+            int hypID = !isBlank(line, starts[hip], ends[hip]) ? parseInt(line, starts[hip], ends[hip]) : 0;
 
-                StringBuilder strBuilder = new StringBuilder();
-                if (!tab[Column.PROPER.ordinal()].isBlank()) {
-                    strBuilder.append(tab[Column.PROPER.ordinal()]);
+            name.clear();
+            int proper = Column.PROPER.ordinal();
+            if (!isBlank(line, starts[proper], ends[proper])) {
+                name.append(line, starts[proper], ends[proper]);
+            } else {
+                int bayer = Column.BAYER.ordinal();
+                if (!isBlank(line, starts[bayer], ends[bayer])) {
+                    name.append(line, starts[bayer], ends[bayer]);
                 } else {
-                    if (!tab[Column.BAYER.ordinal()].isBlank()) {
-                        strBuilder.append(tab[Column.BAYER.ordinal()]);
-                    } else {
-                        strBuilder.append("?");
-                    }
-                    strBuilder.append(" ");
-                    strBuilder.append(tab[Column.CON.ordinal()]);
+                    name.append(UNKNOWN_BAYER, 0, UNKNOWN_BAYER.length);
+                }
+                name.append(SPACE, 0, SPACE.length);
+                name.append(line, starts[Column.CON.ordinal()], ends[Column.CON.ordinal()]);
+            }
+
+            double ra = parseDouble(line, starts[Column.RARAD.ordinal()], ends[Column.RARAD.ordinal()]);
+            double dec = parseDouble(line, starts[Column.DECRAD.ordinal()], ends[Column.DECRAD.ordinal()]);
+
+            int mag = Column.MAG.ordinal();
+            float magnitude = !isBlank(line, starts[mag], ends[mag]) ? parseFloat(line, starts[mag], ends[mag]) : 0;
+
+            int ci = Column.CI.ordinal();
+            float color = !isBlank(line, starts[ci], ends[ci]) ? parseFloat(line, starts[ci], ends[ci]) : 0;
+
+            builder.addStar(hypID, name.bytes(), name.length(), ra, dec, magnitude, color);
+        }
+    }
+
+    /**
+     * Finds the bounds of the columns of the line until the last needed column
+     * (the missing columns are empty)
+     */
+    private static void splitFields(byte[] line, int from, int to, int[] starts, int[] ends) {
+        int column = 0;
+        starts[0] = from;
+        for (int i = from; i < to; i++) {
+            if (line[i] == ',') {
+                ends[column++] = i;
+                if (column > LAST_NEEDED_COLUMN)
+                    return;
+                starts[column] = i + 1;
+            }
+        }
+        ends[column] = to;
+        for (int c = column + 1; c <= LAST_NEEDED_COLUMN; c++) {
+            starts[c] = to;
+            ends[c] = to;
+        }
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the integer written in ASCII in the bytes [from, to[ (surrounding spaces are ignored)
+     *
+     * @throws NumberFormatException if the bytes are not an integer
+     */
+    static int parseInt(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] <= ' ') from++;
+        while (to > from && bytes[to - 1] <= ' ') to--;
+
+        int i = from;
+        boolean negative = i < to && bytes[i] == '-';
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+'))
+            i++;
+        if (i == to || to - i > 9) //The longest integers are parsed by the JDK (which checks the overflow)
+            return Integer.parseInt(new String(bytes, from, to - from, US_ASCII));
+
+        int value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new NumberFormatException(new String(bytes, from, to - from, US_ASCII));
+            value = 10 * value + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the double written in ASCII in the bytes [from, to[, with the same result as Double.parseDouble.
+     * The decimal numbers whose mantissa and power of ten are exactly stored in doubles are computed with
+     * one multiplication or division (correctly rounded, as shown by Clinger). The numbers with a longer
+     * mantissa and a negative power of ten are approximated by a division, then corrected by comparing
+     * them exactly to the midpoints between doubles. The other ones are parsed by the JDK.
+     *
+     * @throws NumberFormatException if the bytes are not a number
+     */
+    static double parseDouble(byte[] bytes, int from, int to) {
+        long decimal = parseDecimal(bytes, from, to);
+        if (decimal != INVALID) {
+            long mantissa = mantissaOf(decimal);
+            int exponent = exponentOf(decimal);
+            double value = Double.NaN;
+            if (mantissa <= MAX_EXACT_DOUBLE_MANTISSA && Math.abs(exponent) <= MAX_EXACT_DOUBLE_EXPONENT) {
+                value = exponent >= 0
+                        ? mantissa * DOUBLE_POWERS_OF_TEN[exponent]
+                        : mantissa / DOUBLE_POWERS_OF_TEN[-exponent];
+            } else if (exponent < 0 && -exponent <= MAX_CORRECTED_EXPONENT) {
+                value = correctlyRoundedQuotient(mantissa, -exponent);
+            }
+            if (!Double.isNaN(value))
+                return isNegative(decimal) ? -value : value;
+        }
+        return Double.parseDouble(new String(bytes, from, to - from, US_ASCII));
+    }
+
+    /**
+     * Gets the double nearest to mantissa / 10^k (ties to even), or NaN if it cannot be found
+     * without the JDK (values which are not normal doubles)
+     */
+    private static double correctlyRoundedQuotient(long mantissa, int k) {
+        if (mantissa == 0)
+            return 0;
+
+        double value = mantissa / Math.pow(10, k); //At most a few ulps from the exact quotient
+        for (int step = 0; step < 4; step++) {
+            long bits = Double.doubleToRawLongBits(value);
+            int biasedExponent = (int) (bits >>> 52);
+            if (biasedExponent == 0 || biasedExponent == 0x7FF)
+                return Double.NaN;
+            long significand = (bits & ((1L << 52) - 1)) | (1L << 52);
+            int binaryExponent = biasedExponent - 1075; //value = significand * 2^binaryExponent
+
+            //The midpoints between the value and its neighbours (the lower one is closer for powers of two)
+            int upper = compareQuotient(mantissa, k, 2 * significand + 1, binaryExponent - 1);
+            int lower = significand == 1L << 52
+                    ? compareQuotient(mantissa, k, 4 * significand - 1, binaryExponent - 2)
+                    : compareQuotient(mantissa, k, 2 * significand - 1, binaryExponent - 1);
+
+            if (upper > 0 || (upper == 0 && (significand & 1) != 0))
+                value = Math.nextUp(value);
+            else if (lower < 0 || (lower == 0 && (significand & 1) != 0))
+                value = Math.nextDown(value);
+            else
+                return value;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Compares exactly mantissa / 10^k and x * 2^e (x < 2^55), with 128 bits integers
+     *
+     * @return a negative integer, zero, or a positive integer as the quotient is less than, equal to,
+     * or greater than x * 2^e
+     */
+    private static int compareQuotient(long mantissa, int k, long x, int e) {
+        //mantissa / (5^k 2^k) compared to x 2^e, i.e. mantissa 2^(-e - k) compared to x 5^k (below 2^118)
+        long leftHigh = 0, leftLow = mantissa;
+        long rightHigh = Math.multiplyHigh(x, POWERS_OF_FIVE[k]), rightLow = x * POWERS_OF_FIVE[k];
+
+        int shift = e + k;
+        if (shift < 0) {
+            if (-shift >= 64 + Long.numberOfLeadingZeros(mantissa))
+                return 1; //The left side is at least 2^128
+            leftHigh = -shift >= 64 ? mantissa << (-shift - 64) : mantissa >>> (64 + shift);
+            leftLow = -shift >= 64 ? 0 : mantissa << -shift;
+        } else if (shift > 0) {
+            if (shift >= Long.numberOfLeadingZeros(rightHigh))
+                return -1; //The right side is at least 2^128
+            rightHigh = (rightHigh << shift) | (rightLow >>> (64 - shift));
+            rightLow = rightLow << shift;
+        }
+
+        int high = Long.compareUnsigned(leftHigh, rightHigh);
+        return high != 0 ? high : Long.compareUnsigned(leftLow, rightLow);
+    }
+
+    /**
+     * Parses the float written in ASCII in the bytes [from, to[, with the same result as Float.parseFloat
+     *
+     * @throws NumberFormatException if the bytes are not a number
+     * @see #parseDouble(byte[], int, int)
+     */
+    static float parseFloat(byte[] bytes, int from, int to) {
+        long decimal = parseDecimal(bytes, from, to);
+        if (decimal != INVALID) {
+            long mantissa = mantissaOf(decimal);
+            int exponent = exponentOf(decimal);
+            if (mantissa <= MAX_EXACT_FLOAT_MANTISSA && Math.abs(exponent) <= MAX_EXACT_FLOAT_EXPONENT) {
+                float value = exponent >= 0
+                        ? mantissa * FLOAT_POWERS_OF_TEN[exponent]
+                        : mantissa / FLOAT_POWERS_OF_TEN[-exponent];
+                return isNegative(decimal) ? -value : value;
+            }
+        }
+        return Float.parseFloat(new String(bytes, from, to - from, US_ASCII));
+    }
+
+    private static long mantissaOf(long decimal) {
+        return decimal & MAX_MANTISSA;
+    }
+
+    private static int exponentOf(long decimal) {
+        return (int) ((decimal >>> MANTISSA_BITS) & 0x3F) - EXPONENT_BIAS;
+    }
+
+    private static boolean isNegative(long decimal) {
+        return decimal < 0;
+    }
+
+    private static long parseDecimal(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] <= ' ') from++;
+        while (to > from && bytes[to - 1] <= ' ') to--;
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+'))
+            negative = bytes[i++] == '-';
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        for (; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++, digits++) {
+            mantissa = 10 * mantissa + (bytes[i] - '0');
+            if (mantissa > MAX_MANTISSA)
+                return INVALID;
+        }
+        if (i < to && bytes[i] == '.') {
+            for (i++; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++, digits++) {
+                mantissa = 10 * mantissa + (bytes[i] - '0');
+                exponent--;
+                if (mantissa > MAX_MANTISSA)
+                    return INVALID;
+            }
+        }
+        if (digits == 0)
+            return INVALID;
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+'))
+                negativeExponent = bytes[i++] == '-';
+            int exponentDigits = 0;
+            int writtenExponent = 0;
+            for (; i < to && bytes[i] >= '0' && bytes[i] <= '9' && exponentDigits < 4; i++, exponentDigits++) {
+                writtenExponent = 10 * writtenExponent + (bytes[i] - '0');
+            }
+            if (exponentDigits == 0)
+                return INVALID;
+            exponent += negativeExponent ? -writtenExponent : writtenExponent;
+        }
+        if (i != to || Math.abs(exponent) > EXPONENT_BIAS)
+            return INVALID;
+
+        return (negative ? Long.MIN_VALUE : 0) | ((long) (exponent + EXPONENT_BIAS) << MANTISSA_BITS) | mantissa;
+    }
+
+    /**
+     * Name of a star being built from bytes of the file. The non ASCII bytes are replaced
+     * by the replacement character (as the ASCII decoder does), the name being encoded in UTF-8
+     */
+    private static final class NameBuilder {
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        void clear() {
+            length = 0;
+        }
+
+        void append(byte[] source, int from, int to) {
+            if (length + REPLACEMENT_CHARACTER.length * (to - from) > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + REPLACEMENT_CHARACTER.length * (to - from)));
+
+            for (int i = from; i < to; i++) {
+                if (source[i] >= 0) {
+                    bytes[length++] = source[i];
+                } else {
+                    System.arraycopy(REPLACEMENT_CHARACTER, 0, bytes, length, REPLACEMENT_CHARACTER.length);
+                    length += REPLACEMENT_CHARACTER.length;
                 }
+            }
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
 
-                EquatorialCoordinates coord = EquatorialCoordinates.of(Double.parseDouble(tab[Column.RARAD.ordinal()]), Double.parseDouble(tab[Column.DECRAD.ordinal()]));
+        int length() {
+            return length;
+        }
+    }
 
-                float magnitude = !tab[Column.MAG.ordinal()].isBlank() ? Float.parseFloat(tab[Column.MAG.ordinal()]) : 0;
+    /**
+     * Reader of the lines of an input stream, directly in a byte array
+     * (the lines are delimited by '\n', a final '\r' being ignored)
+     */
+    private static final class LineReader {
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final InputStream inputStream;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int limit; //The bytes [0, limit[ of the buffer have been read
+        private int position; //The start of the next line
+        private int lineStart;
+        private int lineEnd;
+        private boolean endOfStream;
 
-                float color = !tab[Column.CI.ordinal()].isBlank() ? Float.parseFloat(tab[Column.CI.ordinal()]) : 0;
+        LineReader(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
 
-                builder.addStar(new Star(hypID, strBuilder.toString(), coord, magnitude, color));
+        /**
+         * Reads the next line
+         *
+         * @return false if there is no more line
+         * @throws IOException in case of an input/output exception
+         */
+        boolean nextLine() throws IOException {
+            int searchFrom = position;
+            while (true) {
+                for (int i = searchFrom; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        setLine(position, i);
+                        position = i + 1;
+                        return true;
+                    }
+                }
+                if (endOfStream) {
+                    if (position == limit)
+                        return false;
+                    setLine(position, limit);
+                    position = limit;
+                    return true;
+                }
+                searchFrom = limit - position;
+                fill();
             }
         }
+
+        private void setLine(int start, int end) {
+            lineStart = start;
+            lineEnd = end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+        }
+
+        /**
+         * Moves the beginning of the current line to the start of the buffer (enlarged if it is full)
+         * and reads more bytes
+         */
+        private void fill() throws IOException {
+            int remaining = limit - position;
+            if (remaining == buffer.length)
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            else
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            position = 0;
+            limit = remaining;
+
+            int read = inputStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0)
+                endOfStream = true;
+            else
+                limit += read;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int lineStart() {
+            return lineStart;
+        }
+
+        int lineEnd() {
+            return lineEnd;
+        }
     }
 
     private enum Column {
@@ -1,6 +1,5 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
@@ -44,9 +43,30 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
      */
     @Override
     public Moon at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
-        Sun sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
-        double lonSun = sun.eclipticPos().lon();
-        double sinSunAno = Math.sin(sun.meanAnomaly());
+        return at(new SolarSystemState(daysSinceJ2010, eclipticToEquatorialConversion));
+    }
+
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState)
+     */
+    @Override
+    public Moon at(SolarSystemState state) {
+        double[] ephemeris = new double[EPHEMERIS_LENGTH];
+        at(state, ephemeris, 0);
+
+        return new Moon(EquatorialCoordinates.of(ephemeris[0], ephemeris[1]), (float) ephemeris[2], (float) ephemeris[3],
+                (float) ephemeris[4]);
+    }
+
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState, double[], int)
+     */
+    @Override
+    public void at(SolarSystemState state, double[] ephemerides, int index) {
+        double daysSinceJ2010 = state.daysSinceJ2010();
+        double lonSun = state.sunEclipticLongitude();
+        //The mean anomaly of the sun is rounded like the one of the Sun object
+        double sinSunAno = Math.sin((float) state.sunMeanAnomaly());
 
         // Calculations for the true orbital longitude
         double avgLonOrb = MEAN_ORB_LON * daysSinceJ2010 + AVG_LON;
@@ -80,11 +100,11 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
         double earthMoonDistance = EXC_SQUARED / (1 + EX_ORB * Math.cos(trueAno + corrEC));
         double angularSize = THETA_NOT / earthMoonDistance;
 
-        // Transformation of the coordinates
-        EquatorialCoordinates coord = eclipticToEquatorialConversion.apply(
-                EclipticCoordinates.of(Angle.normalizePositive(eclLon), eclLat));
-
-        // Return of the moon
-        return new Moon(coord, (float) angularSize, 0, (float) phase);
+        // Transformation of the coordinates and ephemeris of the moon
+        int offset = EPHEMERIS_LENGTH * index;
+        state.eclipticToEquatorialConversion().apply(Angle.normalizePositive(eclLon), eclLat, ephemerides, offset);
+        ephemerides[offset + 2] = angularSize;
+        ephemerides[offset + 3] = 0;
+        ephemerides[offset + 4] = phase;
     }
 }
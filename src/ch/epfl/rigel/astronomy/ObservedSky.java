@@ -1,98 +1,229 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.*;
 import ch.epfl.rigel.math.ClosedInterval;
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Class representing a set of celestial objects projected
- * onto a plan with a stereographic projection
+ * onto a plan with a stereographic projection.<br>
+ * The sky is computed in two stages: what only depends on the time and the position (the sun, the moon,
+ * the planets and the horizontal coordinates of the stars), shared by the skies only differing by their
+ * projection (see withProjection), then the projection, which is the only stage computed again when
+ * the sky is panned.
  *
  * @author Robin Goumaz (301420)
  * @author Ozan Güven (297076)
  */
 public final class ObservedSky {
 
-    private final StarCatalogue catalogue;
-
-    private final Sun sun;
-    private final Moon moon;
-    private final ArrayList<Planet> planets;
-    private final List<Star> stars;
-
-    private final HorizontalCoordinates sunHorizontalCoordinates;
-    private final HorizontalCoordinates moonHorizontalCoordinates;
-    private final List<HorizontalCoordinates> planetsHorizontalCoordinates;
+    private final HorizontalSky horizontalSky;
+    private final StereographicProjection projection;
 
     private final CartesianCoordinates sunCoordinates;
     private final CartesianCoordinates moonCoordinates;
     private final double[] planetPositions;
-    private final double[] starsPositions;
+    private final VisibleStars visibleStars; //The stars which may be in the cone of view (null if the stars are not culled)
+    private final double[] visibleStarPositions; //The positions of the projected stars, in the order of visibleStarIndices
+    private int[] visibleStarIndices; //The indexes of the projected stars (created on demand if all of them are projected)
+    private double[] starsPositions; //The positions by index of star (created on demand if some stars are culled)
 
-    private Map<CelestialObject, CartesianCoordinates> mapOfAll;
+    private ProjectedSkyGrid grid; //Index of the sun (0), the moon (1), the planets (2 to 8) and the stars (9 and more), built on demand
 
     /**
-     * Constructor of an observable sky at a given time and place
+     * Constructor of an observable sky at a given time and place, with the default parameters
      *
      * @param time        the zoned date/time to observe the sky
      * @param coordinates the position to observe the sky
      * @param projection  the stereographic projection to use
      * @param catalogue   the catalogue containing all the stars and asterisms to show
+     * @see Parameters#DEFAULT
      */
     public ObservedSky(ZonedDateTime time, GeographicCoordinates coordinates,
                        StereographicProjection projection, StarCatalogue catalogue) {
-        this.catalogue = catalogue;
-        this.stars = catalogue.stars();
+        this(time, coordinates, projection, catalogue, Parameters.DEFAULT);
+    }
 
-        double daysUntilJ2010 = Epoch.J2010.daysUntil(time);
-        EclipticToEquatorialConversion conversionToEqu = new EclipticToEquatorialConversion(time);
-        EquatorialToHorizontalConversion conversionToHor = new EquatorialToHorizontalConversion(time, coordinates);
+    /**
+     * Constructor of an observable sky at a given time and place
+     *
+     * @param time        the zoned date/time to observe the sky
+     * @param coordinates the position to observe the sky
+     * @param projection  the stereographic projection to use
+     * @param catalogue   the catalogue containing all the stars and asterisms to show
+     * @param parameters  the parameters of the computation of the sky
+     */
+    public ObservedSky(ZonedDateTime time, GeographicCoordinates coordinates,
+                       StereographicProjection projection, StarCatalogue catalogue, Parameters parameters) {
+        this(new HorizontalSky(time, coordinates, catalogue, parameters), projection, false, null);
+    }
 
-        mapOfAll = new HashMap<>();
+    /**
+     * Constructor of an observable sky projecting the given sky observed at a given time and place
+     *
+     * @param horizontalSky        the sky observed at a given time and place
+     * @param projection           the stereographic projection to use
+     * @param reprojected          true if the sky is projected again (so that its stars are worth keeping in
+     *                             horizontal coordinates even if they are culled)
+     * @param previousVisibleStars the visible stars of a previous sky with the same catalogue, to be reused if they
+     *                             are still the ones in the cone of view (null if there are none)
+     */
+    private ObservedSky(HorizontalSky horizontalSky, StereographicProjection projection, boolean reprojected,
+                        VisibleStars previousVisibleStars) {
+        this.horizontalSky = horizontalSky;
+        this.projection = projection;
 
-        sun = SunModel.SUN.at(daysUntilJ2010, conversionToEqu);
-        moon = MoonModel.MOON.at(daysUntilJ2010, conversionToEqu);
+        sunCoordinates = projection.apply(horizontalSky.sunHorizontalCoordinates());
+        moonCoordinates = projection.apply(horizontalSky.moonHorizontalCoordinates());
 
-        sunHorizontalCoordinates = conversionToHor.apply(sun.equatorialPos());
-        moonHorizontalCoordinates = conversionToHor.apply(moon.equatorialPos());
+        planetPositions = new double[2 * horizontalSky.planetsHorizontalCoordinates().size()];
+        int i = 0;
+        for (HorizontalCoordinates horPos : horizontalSky.planetsHorizontalCoordinates()) {
+            CartesianCoordinates planetProjection = projection.apply(horPos);
+            planetPositions[i++] = planetProjection.x();
+            planetPositions[i++] = planetProjection.y();
+        }
 
-        sunCoordinates = projection.apply(sunHorizontalCoordinates);
-        moonCoordinates = projection.apply(moonHorizontalCoordinates);
+        Parameters parameters = horizontalSky.parameters();
+        if (parameters.viewRadius() < Math.PI) {
+            EquatorialCoordinates viewCenter = horizontalSky.conversion().inverseApply(projection.center());
+            visibleStars = previousVisibleStars == null
+                    ? new VisibleStars(horizontalSky.catalogue(), viewCenter, parameters.viewRadius(), horizontalSky.projectedStarCount())
+                    : previousVisibleStars.inCone(viewCenter, parameters.viewRadius(), horizontalSky.projectedStarCount());
+            visibleStarIndices = visibleStars.indices();
+            visibleStarPositions = new double[2 * visibleStarIndices.length];
+            //The stars outside the cone of a sky projected once are not even converted to horizontal coordinates
+            if (reprojected || horizontalSky.hasStarCoordinates())
+                horizontalSky.projectStars(projection, visibleStarIndices, visibleStarPositions);
+            else
+                horizontalSky.convertAndProjectStars(projection, visibleStars, visibleStarPositions);
+        } else {
+            visibleStars = null;
+            visibleStarPositions = new double[2 * horizontalSky.projectedStarCount()];
+            horizontalSky.projectStars(projection, null, visibleStarPositions);
+            starsPositions = visibleStarPositions;
+        }
+    }
 
-        mapOfAll.put(sun, sunCoordinates);
-        mapOfAll.put(moon, moonCoordinates);
+    /**
+     * Gets the spatial index of the objects of the sky, building it on the first call
+     * (most skies, e.g. the animation frames, are never queried)
+     *
+     * @return the grid containing all the objects of the sky
+     */
+    private synchronized ProjectedSkyGrid grid() {
+        if (grid == null)
+            grid = new ProjectedSkyGrid(allPositions());
+        return grid;
+    }
 
-        planetsHorizontalCoordinates = new ArrayList<>();
-        planetPositions = new double[14];
-        planets = new ArrayList<>();
-        int i = 0;
-        for (PlanetModel planet : PlanetModel.ALL) {
-            if (planet != PlanetModel.EARTH) {
-                Planet newPlanet = planet.at(daysUntilJ2010, conversionToEqu);
-                planets.add(newPlanet);
+    /**
+     * Gets the positions of all the objects of the sky, in the order of their index in the grid
+     *
+     * @return the positions of the sun, the moon, the planets and the stars
+     */
+    private double[] allPositions() {
+        double[] positions = new double[4 + planetPositions.length + visibleStarPositions.length];
+        positions[0] = sunCoordinates.x();
+        positions[1] = sunCoordinates.y();
+        positions[2] = moonCoordinates.x();
+        positions[3] = moonCoordinates.y();
+        System.arraycopy(planetPositions, 0, positions, 4, planetPositions.length);
+        System.arraycopy(visibleStarPositions, 0, positions, 4 + planetPositions.length, visibleStarPositions.length);
+        return positions;
+    }
 
-                HorizontalCoordinates horPos = conversionToHor.apply(newPlanet.equatorialPos());
-                planetsHorizontalCoordinates.add(horPos);
+    /**
+     * Gets the celestial object with the given index in the grid
+     *
+     * @param index the index of the object in the grid
+     * @return the celestial object
+     */
+    private CelestialObject objectAt(int index) {
+        List<Planet> planets = horizontalSky.planets();
+        if (index == 0)
+            return horizontalSky.sun();
+        if (index == 1)
+            return horizontalSky.moon();
+        if (index < 2 + planets.size())
+            return planets.get(index - 2);
+        int visibleIndex = index - 2 - planets.size();
+        return catalogue().star(parameters().viewRadius() < Math.PI ? visibleStarIndices[visibleIndex] : visibleIndex);
+    }
 
-                CartesianCoordinates planetProjection = projection.apply(horPos);
-                planetPositions[i++] = planetProjection.x();
-                planetPositions[i++] = planetProjection.y();
+    /**
+     * Gets the sky observed at the given time, from the same position, with the same projection,
+     * catalogue and parameters, or the sky itself if the given time is the same instant as its own.<br>
+     * The sun, the moon, the planets and the positions of the stars depend on the time and are computed
+     * again. If the stars are culled to a cone of view (see Parameters#withViewRadius), the center of the cone
+     * only moves in right ascension, and as long as it intersects the same cells of the equatorial grid of the
+     * catalogue, the visible stars of this sky and their gathered coordinates are reused instead of being
+     * found and gathered again.<br>
+     * The positions are exactly the same as the ones of a new sky.
+     *
+     * @param time the zoned date/time to observe the sky
+     * @return the sky observed at the given time
+     */
+    public ObservedSky advanceTo(ZonedDateTime time) {
+        return time.toInstant().equals(time().toInstant())
+                ? this
+                : new ObservedSky(new HorizontalSky(time, observerCoordinates(), catalogue(), parameters()),
+                projection, false, visibleStars);
+    }
 
-                mapOfAll.put(newPlanet, planetProjection);
-            }
-        }
+    /**
+     * Gets the sky observed at the same time and from the same position, with the same catalogue and
+     * parameters, but with the given projection. The sun, the moon, the planets and the horizontal
+     * coordinates of the stars are not computed again, they are only projected (the stars are converted
+     * once for all the projections, even if they are culled), and the sky itself is returned if the given
+     * projection is its own.<br>
+     * The positions are exactly the same as the ones of a new sky.
+     *
+     * @param projection the stereographic projection to use
+     * @return the sky projected with the given projection
+     */
+    public ObservedSky withProjection(StereographicProjection projection) {
+        return projection == this.projection ? this : new ObservedSky(horizontalSky, projection, true, visibleStars);
+    }
 
-        starsPositions = new double[stars.size() * 2];
-        i = 0;
-        for (Star star : stars) {
-            CartesianCoordinates starProjection = projection.apply(conversionToHor.apply(star.equatorialPos()));
-            starsPositions[i++] = starProjection.x();
-            starsPositions[i++] = starProjection.y();
+    /**
+     * Gets the zoned date/time at which the sky is observed
+     *
+     * @return the time of the observation
+     */
+    public ZonedDateTime time() {
+        return horizontalSky.time();
+    }
 
-            mapOfAll.put(star, starProjection);
-        }
+    /**
+     * Gets the position from which the sky is observed
+     *
+     * @return the position of the observer
+     */
+    public GeographicCoordinates observerCoordinates() {
+        return horizontalSky.observerCoordinates();
+    }
+
+    /**
+     * Gets the stereographic projection used to project the sky
+     *
+     * @return the projection of the sky
+     */
+    public StereographicProjection projection() {
+        return projection;
+    }
+
+    /**
+     * Gets the parameters used to compute the sky
+     *
+     * @return the parameters of the sky
+     */
+    public Parameters parameters() {
+        return horizontalSky.parameters();
     }
 
     /**
@@ -101,7 +232,7 @@ public final class ObservedSky {
      * @return the sun
      */
     public Sun sun() {
-        return sun;
+        return horizontalSky.sun();
     }
 
     /**
@@ -110,7 +241,7 @@ public final class ObservedSky {
      * @return sun's horizontal coordinates
      */
     public HorizontalCoordinates sunHorizontalCoordinates() {
-        return sunHorizontalCoordinates;
+        return horizontalSky.sunHorizontalCoordinates();
     }
 
     /**
@@ -128,11 +259,11 @@ public final class ObservedSky {
      * @return the moon
      */
     public Moon moon() {
-        return moon;
+        return horizontalSky.moon();
     }
 
     public HorizontalCoordinates moonHorizontalCoordinates() {
-        return moonHorizontalCoordinates;
+        return horizontalSky.moonHorizontalCoordinates();
     }
 
     /**
@@ -151,11 +282,11 @@ public final class ObservedSky {
      * @return a list of the planets (excepted the Earth)
      */
     public List<Planet> planets() {
-        return List.copyOf(planets);
+        return horizontalSky.planets();
     }
 
     public List<HorizontalCoordinates> planetsHorizontalCoordinates() {
-        return Collections.unmodifiableList(planetsHorizontalCoordinates);
+        return horizontalSky.planetsHorizontalCoordinates();
     }
 
     /**
@@ -176,21 +307,70 @@ public final class ObservedSky {
      * @return a list of all the stars in the observed sky
      */
     public List<Star> stars() {
-        return List.copyOf(stars);
+        return catalogue().stars();
+    }
+
+    /**
+     * Gets the catalogue containing the stars and asterisms of the observed sky
+     *
+     * @return the catalogue of the observed sky
+     */
+    public StarCatalogue catalogue() {
+        return horizontalSky.catalogue();
     }
 
     /**
      * Gets an array containing the cartesian coordinate components of each star
      * contained in the catalogue. Starting with the first star of the catalogue.
      * <p>(For example [Star0.x(), Star0.y(), Star1.x(), ..., StarN.x(), StarN.y()])</p>
+     * If the catalogue is sorted by magnitude and the parameters have a finite limiting magnitude,
+     * the array only contains the first stars, up to the limiting magnitude or to the last star
+     * of an asterism. If the parameters have a view radius less than PI, the positions of the stars
+     * which are not in visibleStarIndices() are NaN (the array is then created on the first call).
      *
      * @return an array containing the coordinate components
-     * of all the stars in the catalogue
+     * of all the projected stars of the catalogue
+     * @see Parameters#withLimitingMagnitude(double)
      */
-    public double[] starPositions() {
+    public synchronized double[] starPositions() {
+        if (starsPositions == null) {
+            double[] positions = new double[2 * horizontalSky.projectedStarCount()];
+            Arrays.fill(positions, Double.NaN);
+            for (int i = 0; i < visibleStarIndices.length; i++) {
+                positions[2 * visibleStarIndices[i]] = visibleStarPositions[2 * i];
+                positions[2 * visibleStarIndices[i] + 1] = visibleStarPositions[2 * i + 1];
+            }
+            starsPositions = positions;
+        }
         return starsPositions;
     }
 
+    /**
+     * Gets the indexes of the projected stars (the array must not be modified). If the parameters have
+     * a view radius less than PI, only the stars which may be in the cone of view and the stars of the
+     * asterisms are projected.
+     *
+     * @return the indexes of the projected stars, in increasing order
+     * @see Parameters#withViewRadius(double)
+     */
+    public synchronized int[] visibleStarIndices() {
+        if (visibleStarIndices == null)
+            visibleStarIndices = IntStream.range(0, horizontalSky.projectedStarCount()).toArray();
+        return visibleStarIndices;
+    }
+
+    /**
+     * Gets an array containing the cartesian coordinate components of each projected star, in the order
+     * of visibleStarIndices() (the array must not be modified). Unlike starPositions(), its size only
+     * depends on the number of projected stars.
+     * <p>(For example [x, y of the star visibleStarIndices()[0], x, y of the star visibleStarIndices()[1], ...])</p>
+     *
+     * @return an array containing the coordinate components of the projected stars
+     */
+    public double[] visibleStarPositions() {
+        return visibleStarPositions;
+    }
+
     /**
      * Gets a set containing all the asterisms of the catalogue
      *
@@ -198,7 +378,7 @@ public final class ObservedSky {
      * @see StarCatalogue#asterisms()
      */
     public Set<Asterism> asterisms() {
-        return Set.copyOf(catalogue.asterisms());
+        return catalogue().asterisms();
     }
 
     /**
@@ -210,7 +390,7 @@ public final class ObservedSky {
      * @see StarCatalogue#asterismIndices(Asterism)
      */
     public List<Integer> asterismIndices(Asterism asterism) {
-        return List.copyOf(catalogue.asterismIndices(asterism));
+        return catalogue().asterismIndices(asterism);
     }
 
     /**
@@ -222,26 +402,164 @@ public final class ObservedSky {
      * @return the closest object to the given point
      */
     public Optional<CelestialObject> objectClosestTo(CartesianCoordinates coordinates, double maxDistance) {
-        double currentDistance = coordinates.distanceToSquared(sunCoordinates); //Initialises a first distance
-        double nextDistance;
-        CelestialObject nearestObject = null;
-        CartesianCoordinates coordOfObject;
         ClosedInterval intervalX = ClosedInterval.of(coordinates.x() - maxDistance, coordinates.x() + maxDistance);
         ClosedInterval intervalY = ClosedInterval.of(coordinates.y() - maxDistance, coordinates.y() + maxDistance);
 
-        for (CelestialObject object : mapOfAll.keySet()) {
-            coordOfObject = mapOfAll.get(object);
-            /*In order
-            Checks if the coordinates are in the given square with the two intervals (not to compute the distance all the times)
-            Computes and checks if the distance is in the given maxDistance
-            Checks if the new distance is smaller or equal to the current one*/
-            if (coordOfObject.inPartOfPlane(intervalX, intervalY)
-                    && (nextDistance = coordOfObject.distanceToSquared(coordinates)) <= maxDistance * maxDistance
-                    && (currentDistance >= nextDistance)) {
-                currentDistance = nextDistance;
-                nearestObject = object;
-            }
+        /*Only the objects in the square given by the two intervals and at a distance of at most maxDistance
+        are considered, the closest one is chosen (the last one in case of equality)*/
+        int nearest = grid().closestTo(coordinates.x(), coordinates.y(), intervalX, intervalY, maxDistance * maxDistance);
+
+        return nearest < 0 ? Optional.empty() : Optional.of(objectAt(nearest));
+    }
+
+    /**
+     * Parameters of the computation of an observed sky (immutable)
+     *
+     * @author Robin Goumaz (301420)
+     * @author Ozan Güven (297076)
+     */
+    public static final class Parameters {
+
+        /**
+         * Default minimum number of stars for which the stars are projected in parallel
+         */
+        public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
+
+        /**
+         * Default parameters (exact conversion of all the stars, in parallel from DEFAULT_PARALLEL_THRESHOLD stars)
+         */
+        public static final Parameters DEFAULT = new Parameters(DEFAULT_PARALLEL_THRESHOLD, false, Double.POSITIVE_INFINITY, Math.PI);
+
+        private final int parallelThreshold;
+        private final boolean siderealRotation;
+        private final double limitingMagnitude;
+        private final double viewRadius;
+
+        private Parameters(int parallelThreshold, boolean siderealRotation, double limitingMagnitude, double viewRadius) {
+            Preconditions.checkArgument(parallelThreshold >= 0);
+            Preconditions.checkArgument(!Double.isNaN(limitingMagnitude));
+            Preconditions.checkArgument(viewRadius > 0);
+
+            this.parallelThreshold = parallelThreshold;
+            this.siderealRotation = siderealRotation;
+            this.limitingMagnitude = limitingMagnitude;
+            this.viewRadius = viewRadius;
+        }
+
+        /**
+         * Gets the minimum number of stars for which the stars are projected in parallel
+         *
+         * @return the parallel threshold
+         */
+        public int parallelThreshold() {
+            return parallelThreshold;
+        }
+
+        /**
+         * Checks if the stars are projected by rotating their precomputed unit vectors
+         *
+         * @return true if the sidereal rotation is used to project the stars
+         */
+        public boolean siderealRotation() {
+            return siderealRotation;
+        }
+
+        /**
+         * Gets the magnitude of the faintest stars to be projected
+         *
+         * @return the limiting magnitude (positive infinity if all the stars are projected)
+         */
+        public double limitingMagnitude() {
+            return limitingMagnitude;
+        }
+
+        /**
+         * Gets the angular radius of the cone of view, around the center of the projection
+         *
+         * @return the view radius (in radians, PI or more if all the sky is projected)
+         */
+        public double viewRadius() {
+            return viewRadius;
+        }
+
+        /**
+         * Returns parameters identical to these ones except for the parallel threshold
+         *
+         * @param parallelThreshold the minimum number of stars for which the stars are projected in
+         *                          parallel (0 to always project in parallel, Integer.MAX_VALUE to never do it)
+         * @return the new parameters
+         * @throws IllegalArgumentException if the threshold is negative
+         */
+        public Parameters withParallelThreshold(int parallelThreshold) {
+            return new Parameters(parallelThreshold, siderealRotation, limitingMagnitude, viewRadius);
+        }
+
+        /**
+         * Returns parameters identical to these ones except for the projection of the stars.
+         * With the sidereal rotation, the unit vectors of the stars (computed once per catalogue)
+         * are rotated by the hour angle and the latitude, so no trigonometric function is computed
+         * per star and per sky. The positions are the same as with the exact conversion up to
+         * rounding errors, but not bit for bit.
+         *
+         * @param siderealRotation true to use the sidereal rotation, false to use the exact conversion
+         * @return the new parameters
+         */
+        public Parameters withSiderealRotation(boolean siderealRotation) {
+            return new Parameters(parallelThreshold, siderealRotation, limitingMagnitude, viewRadius);
+        }
+
+        /**
+         * Returns parameters identical to these ones except for the limiting magnitude.
+         * The stars of a catalogue sorted by magnitude are only projected up to the first star
+         * fainter than the limiting magnitude (the stars of the asterisms are always projected),
+         * so the time needed to build a sky depends on the number of visible stars only.
+         * The stars of a catalogue which is not sorted are all projected.
+         *
+         * @param limitingMagnitude the magnitude of the faintest stars to be projected
+         *                          (positive infinity to project all the stars)
+         * @return the new parameters
+         * @throws IllegalArgumentException if the limiting magnitude is NaN
+         * @see StarCatalogue.Builder#sortByMagnitude()
+         */
+        public Parameters withLimitingMagnitude(double limitingMagnitude) {
+            return new Parameters(parallelThreshold, siderealRotation, limitingMagnitude, viewRadius);
+        }
+
+        /**
+         * Returns parameters identical to these ones except for the view radius. With a radius less than PI,
+         * only the stars of the cells of the equatorial grid of the catalogue (built once) intersecting the cone
+         * of view around the center of the projection are projected, as well as the stars of the asterisms,
+         * so the time needed to build a sky depends on the visible area.
+         * The stars below the horizon are not culled if they are in the cone of view.
+         *
+         * @param viewRadius the angular radius of the cone of view (in radians, PI to project all the sky)
+         * @return the new parameters
+         * @throws IllegalArgumentException if the radius is not strictly positive
+         */
+        public Parameters withViewRadius(double viewRadius) {
+            return new Parameters(parallelThreshold, siderealRotation, limitingMagnitude, viewRadius);
+        }
+
+        /**
+         * @see Object#equals(Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Parameters))
+                return false;
+            Parameters that = (Parameters) obj;
+            return parallelThreshold == that.parallelThreshold
+                    && siderealRotation == that.siderealRotation
+                    && Double.compare(limitingMagnitude, that.limitingMagnitude) == 0
+                    && Double.compare(viewRadius, that.viewRadius) == 0;
+        }
+
+        /**
+         * @see Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(parallelThreshold, siderealRotation, limitingMagnitude, viewRadius);
         }
-        return nearestObject == null ? Optional.empty() : Optional.of(nearestObject);
     }
 }
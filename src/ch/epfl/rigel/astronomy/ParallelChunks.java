@@ -0,0 +1,54 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.stream.IntStream;
+
+/**
+ * Tools to run a task on the elements of primitive arrays (stars, instants of ephemerides) in chunks
+ * run in parallel, each chunk writing into its own part of the arrays so that the results are the
+ * same as sequentially
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class ParallelChunks {
+
+    static final int STARS_PER_CHUNK = 4096; //Number of stars converted or projected by each task of the parallel computations
+    static final int INSTANTS_PER_CHUNK = 1024; //Number of instants of ephemerides computed by each task of the parallel computations
+    static final int INSTANTS_PARALLEL_THRESHOLD = 4096; //Minimum number of instants of ephemerides computed in parallel
+
+    private ParallelChunks() {
+    }
+
+    /**
+     * Runs the given task on the elements from 0 to count, at once if there are less than parallelThreshold
+     * elements, and otherwise in chunks of chunkSize elements run in parallel
+     *
+     * @param count             the number of elements
+     * @param chunkSize         the number of elements of each chunk
+     * @param parallelThreshold the minimum number of elements for which the task is run in parallel
+     * @param task              the task to run on the elements
+     */
+    static void run(int count, int chunkSize, int parallelThreshold, Task task) {
+        if (count < parallelThreshold) {
+            task.run(0, count);
+        } else {
+            int chunkCount = (count + chunkSize - 1) / chunkSize;
+            IntStream.range(0, chunkCount).parallel().forEach(chunk ->
+                    task.run(chunk * chunkSize, Math.min(count, (chunk + 1) * chunkSize)));
+        }
+    }
+
+    /**
+     * Task run on a chunk of elements
+     */
+    @FunctionalInterface
+    interface Task {
+        /**
+         * Runs the task on the elements from index from (inclusive) to index to (exclusive)
+         *
+         * @param from the index of the first element
+         * @param to   the index after the last element
+         */
+        void run(int from, int to);
+    }
+}
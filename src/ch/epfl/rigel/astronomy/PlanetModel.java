@@ -1,7 +1,7 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
 
 import java.util.List;
@@ -52,7 +52,8 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
      * List containing all the planets.
      */
     public static List<PlanetModel> ALL = List.of(PlanetModel.values());
-    private static List<PlanetModel> INNER_PLANETS = ALL.subList(0, 2);
+
+    private final boolean inner; //If the orbit of the planet is inside the one of the Earth
 
     private final double sinOrbIncl;
     private final double cosOrbIncl;
@@ -72,6 +73,7 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
                 double orbitalEccentricity, double orbitalSemiMajorAxis, double orbitalInclinationAtEclipticDeg,
                 double lonOfAscendingNodeDeg, double angularSizeArcsec, double magnitude, String color) {
         this.frenchName = frenchName;
+        inner = ordinal() < 2; //Mercury and Venus
         this.orbitalRevolution = orbitalRevolution;
         lonAtJ2010 = Angle.ofDeg(lonAtJ2010Deg);
         lonAtPerigee = Angle.ofDeg(lonAtPerigeeDeg);
@@ -92,12 +94,32 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
      */
     @Override
     public Planet at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return at(new SolarSystemState(daysSinceJ2010, eclipticToEquatorialConversion));
+    }
+
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState)
+     */
+    @Override
+    public Planet at(SolarSystemState state) {
+        double[] ephemeris = new double[EPHEMERIS_LENGTH];
+        at(state, ephemeris, 0);
+
+        return new Planet(frenchName, EquatorialCoordinates.of(ephemeris[0], ephemeris[1]), (float) ephemeris[2],
+                (float) ephemeris[3], color);
+    }
+
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState, double[], int)
+     */
+    @Override
+    public void at(SolarSystemState state, double[] ephemerides, int index) {
 
         //**************** VALUES FOR THE PLANET ********************
-        double nu = trueAnomaly(daysSinceJ2010); //True anomaly
+        double nu = trueAnomaly(state.daysSinceJ2010()); //True anomaly
 
         double radius = radius(nu);
-        double helioLon = nu + lonAtPerigee;
+        double helioLon = heliocentricLongitude(nu);
         double phi = Math.asin(Math.sin(helioLon - lonOfAscendingNode) * sinOrbIncl);
 
 
@@ -106,17 +128,15 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
                 Math.cos(helioLon - lonOfAscendingNode)) + lonOfAscendingNode;
 
         //**************** VALUES FOR THE EARTH *********************
-        double nuE = EARTH.trueAnomaly(daysSinceJ2010); //True anomaly
-
-        double radiusE = EARTH.radius(nuE);
-        double helioLonE = nuE + EARTH.lonAtPerigee;
+        double radiusE = state.earthRadius();
+        double helioLonE = state.earthHeliocentricLongitude();
 
         //**************** ECLIPTIC COORDINATES *********************
         double lambda; //Ecliptic lon
         double beta; //Ecliptic lat
 
         double rSinus = radiusE * Math.sin(eclHelioLon - helioLonE);
-        if (INNER_PLANETS.contains(this)) {
+        if (inner) {
             lambda = Math.PI + helioLonE + Math.atan2(eclRadius * Math.sin(helioLonE - eclHelioLon),
                     radiusE - eclRadius * Math.cos(helioLonE - eclHelioLon));
         } else {
@@ -125,7 +145,8 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
 
         beta = Math.atan(eclRadius * Math.tan(phi) * Math.sin(lambda - eclHelioLon) / rSinus);
 
-        EclipticCoordinates eclipticCoordinates = EclipticCoordinates.of(Angle.normalizePositive(lambda), beta);
+        int offset = EPHEMERIS_LENGTH * index;
+        state.eclipticToEquatorialConversion().apply(Angle.normalizePositive(lambda), beta, ephemerides, offset);
 
         //**************** ANGULAR SIZE *****************************
         double rho = Math.sqrt(radiusE * radiusE + radius * radius
@@ -138,7 +159,9 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
 
         double newMagnitude = magnitude + 5 * Math.log10(radius * rho / Math.sqrt(phase));
 
-        return new Planet(frenchName, eclipticToEquatorialConversion.apply(eclipticCoordinates), (float) newAngularSize, (float) newMagnitude, color);
+        ephemerides[offset + 2] = newAngularSize;
+        ephemerides[offset + 3] = newMagnitude;
+        ephemerides[offset + 4] = phase;
     }
 
     /**
@@ -148,7 +171,7 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
      * @param daysSinceJ2010 the number of days since J2010
      * @return the true anomaly of the planet
      */
-    private double trueAnomaly(double daysSinceJ2010) {
+    double trueAnomaly(double daysSinceJ2010) {
         double meanAnomaly = AVERAGE_ANGULAR_SPEED * (daysSinceJ2010 / orbitalRevolution) + lonAtJ2010 - lonAtPerigee; //Mean anomaly
         return meanAnomaly + 2 * orbitalEccentricity * Math.sin(meanAnomaly); //True anomaly
     }
@@ -159,7 +182,17 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
      * @param trueAnomaly the true anomaly of the planet
      * @return the radius of the planet
      */
-    private double radius(double trueAnomaly) {
+    double radius(double trueAnomaly) {
         return (orbitalSemiMajorAxis * (1 - orbitalEccentricity * orbitalEccentricity)) / (1 + orbitalEccentricity * Math.cos(trueAnomaly));
     }
+
+    /**
+     * Computes the heliocentric longitude of the planet given its true anomaly
+     *
+     * @param trueAnomaly the true anomaly of the planet
+     * @return the heliocentric longitude of the planet (not normalized)
+     */
+    double heliocentricLongitude(double trueAnomaly) {
+        return trueAnomaly + lonAtPerigee;
+    }
 }
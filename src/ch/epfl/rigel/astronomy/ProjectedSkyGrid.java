@@ -0,0 +1,122 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.math.ClosedInterval;
+
+/**
+ * Spatial index (uniform grid) over a set of points of the projection plane,
+ * used to find quickly the point closest to given coordinates.
+ * Each point is identified by its index in the array given at the construction.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class ProjectedSkyGrid {
+
+    private static final double LIMIT = 4; //The grid covers at most [-LIMIT, LIMIT]², farther points are in the border cells
+    private static final int MAX_CELLS_PER_SIDE = 2048;
+
+    private final int cellsPerSide;
+    private final double minX, minY;
+    private final double scaleX, scaleY; //Number of cells per unit of length
+
+    private final int[] cellStarts; //The points of the cell c are at the indexes [cellStarts[c], cellStarts[c + 1][
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    /**
+     * Builds the grid containing the given points
+     *
+     * @param positions the coordinates of the points ([x0, y0, x1, y1, ...])
+     */
+    ProjectedSkyGrid(double[] positions) {
+        int count = positions.length / 2;
+        cellsPerSide = Math.max(1, Math.min(MAX_CELLS_PER_SIDE, (int) Math.sqrt(count)));
+
+        double lowX = LIMIT, highX = -LIMIT, lowY = LIMIT, highY = -LIMIT;
+        for (int i = 0; i < count; i++) {
+            double x = positions[2 * i];
+            double y = positions[2 * i + 1];
+            //NaN values are ignored by the comparisons
+            if (x < lowX) lowX = x;
+            if (x > highX) highX = x;
+            if (y < lowY) lowY = y;
+            if (y > highY) highY = y;
+        }
+        minX = Math.max(-LIMIT, lowX);
+        minY = Math.max(-LIMIT, lowY);
+        scaleX = cellsPerSide / Math.max(Math.min(LIMIT, highX) - minX, Double.MIN_NORMAL);
+        scaleY = cellsPerSide / Math.max(Math.min(LIMIT, highY) - minY, Double.MIN_NORMAL);
+
+        //Counting sort of the points by cell
+        int[] cells = new int[count];
+        cellStarts = new int[cellsPerSide * cellsPerSide + 1];
+        for (int i = 0; i < count; i++) {
+            cells[i] = cellX(positions[2 * i]) + cellsPerSide * cellY(positions[2 * i + 1]);
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int c = 0; c < cellsPerSide * cellsPerSide; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+
+        xs = new double[count];
+        ys = new double[count];
+        ids = new int[count];
+        int[] next = new int[cellsPerSide * cellsPerSide];
+        System.arraycopy(cellStarts, 0, next, 0, next.length);
+        for (int i = 0; i < count; i++) {
+            int index = next[cells[i]]++;
+            xs[index] = positions[2 * i];
+            ys[index] = positions[2 * i + 1];
+            ids[index] = i;
+        }
+    }
+
+    /**
+     * Gets the index of the closest point to the given coordinates, among the points whose
+     * coordinates are in the given intervals and whose squared distance is at most maxDistanceSquared.
+     * In case of equality, the point with the greatest index is chosen.
+     *
+     * @param x                  the x coordinate
+     * @param y                  the y coordinate
+     * @param intervalX          the interval of the x coordinate of the searched points
+     * @param intervalY          the interval of the y coordinate of the searched points
+     * @param maxDistanceSquared the maximum squared distance of the searched point
+     * @return the index of the closest point or -1 if there is none
+     */
+    int closestTo(double x, double y, ClosedInterval intervalX, ClosedInterval intervalY, double maxDistanceSquared) {
+        int fromX = cellX(intervalX.low()), toX = cellX(intervalX.high());
+        int fromY = cellY(intervalY.low()), toY = cellY(intervalY.high());
+
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int bestId = -1;
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int cell = cx + cellsPerSide * cy;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    if (intervalX.contains(xs[i]) && intervalY.contains(ys[i])) {
+                        double distance = (xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y);
+                        if (distance <= maxDistanceSquared
+                                && (distance < bestDistance || (distance == bestDistance && ids[i] > bestId))) {
+                            bestDistance = distance;
+                            bestId = ids[i];
+                        }
+                    }
+                }
+            }
+        }
+        return bestId;
+    }
+
+    private int cellX(double x) {
+        return clampCell((int) ((x - minX) * scaleX));
+    }
+
+    private int cellY(double y) {
+        return clampCell((int) ((y - minY) * scaleY));
+    }
+
+    private int clampCell(int cell) {
+        return Math.max(0, Math.min(cellsPerSide - 1, cell));
+    }
+}
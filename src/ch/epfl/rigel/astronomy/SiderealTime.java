@@ -4,9 +4,7 @@ import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.Polynomial;
 
-import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Tools to compute sidereal time of a given place at a given date/time couple
@@ -17,6 +15,7 @@ import java.time.temporal.ChronoUnit;
 public final class SiderealTime {
 
     private static final double MILLIS_PER_HOUR = 1000.0 * 60.0 * 60.0;
+    private static final long MILLIS_PER_DAY = 1000L * 60 * 60 * 24;
     private static final Polynomial SIDEREAL_POLY = Polynomial.of(0.000025862, 2400.051336, 6.697374558);
     private static final double SIDEREAL_CONSTANT = 1.002737909;
 
@@ -30,11 +29,22 @@ public final class SiderealTime {
      * @return the greenwich sidereal time (in radians) at the date when
      */
     public static double greenwich(ZonedDateTime when) {
-        ZonedDateTime whenInGreenwich = when.withZoneSameInstant(ZoneOffset.UTC); //Converting when to UTC
-        ZonedDateTime whenInGreenwichAtZero = whenInGreenwich.truncatedTo(ChronoUnit.DAYS); //Truncates UTC when at 00:00
+        return greenwich(Epoch.epochMillis(when));
+    }
+
+    /**
+     * Gives the Greenwich sidereal time (in radians) for the given instant, without creating any object
+     *
+     * @param epochMillis the instant for which the Greenwich sidereal time wants to be known,
+     *                    in milliseconds since 1970-01-01T00:00Z
+     * @return the greenwich sidereal time (in radians) at the instant
+     * @see Epoch#epochMillis(ZonedDateTime)
+     */
+    public static double greenwich(long epochMillis) {
+        long epochMillisAtZero = Math.floorDiv(epochMillis, MILLIS_PER_DAY) * MILLIS_PER_DAY; //Truncates the instant at 00:00 UTC
 
-        double julCentToWhenZero = Epoch.J2000.julianCenturiesUntil(whenInGreenwichAtZero);
-        double hrsFromZeroToWhen = whenInGreenwichAtZero.until(whenInGreenwich, ChronoUnit.MILLIS) / MILLIS_PER_HOUR;
+        double julCentToWhenZero = Epoch.J2000.julianCenturiesUntil(epochMillisAtZero);
+        double hrsFromZeroToWhen = (epochMillis - epochMillisAtZero) / MILLIS_PER_HOUR;
 
         double sidereal0 = SIDEREAL_POLY.at(julCentToWhenZero);
         double sidereal1 = SIDEREAL_CONSTANT * hrsFromZeroToWhen;
@@ -50,7 +60,18 @@ public final class SiderealTime {
      * @return the sidereal time (in radians) at the date when for the given place where
      */
     public static double local(ZonedDateTime when, GeographicCoordinates where) {
-        return Angle.normalizePositive(greenwich(when) + where.lon());
+        return local(Epoch.epochMillis(when), where);
+    }
+
+    /**
+     * Gives the sidereal time (in radians) for the given place at the given instant, without creating any object
+     *
+     * @param epochMillis the instant for which the sidereal time is wanted, in milliseconds since 1970-01-01T00:00Z
+     * @param where       the place for which the sidereal time is wanted
+     * @return the sidereal time (in radians) at the instant for the given place where
+     */
+    public static double local(long epochMillis, GeographicCoordinates where) {
+        return Angle.normalizePositive(greenwich(epochMillis) + where.lon());
     }
 
 }
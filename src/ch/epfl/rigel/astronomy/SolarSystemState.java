@@ -0,0 +1,140 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+import java.time.ZonedDateTime;
+
+/**
+ * State of the solar system at a given instant, shared by the models of the sun, the moon and the planets:
+ * the orbit of the Sun around the Earth (its mean anomaly, its true anomaly and its ecliptic longitude),
+ * the orbit of the Earth around the Sun (its true anomaly, its radius and its heliocentric longitude), and
+ * the conversion from ecliptic to equatorial coordinates (with the obliquity of the ecliptic at that instant).
+ * Computing it once per instant avoids computing the same values again for each celestial object.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+public final class SolarSystemState {
+
+    private final double daysSinceJ2010;
+    private final EclipticToEquatorialConversion eclipticToEquatorialConversion;
+
+    private final double sunMeanAnomaly;
+    private final double sunTrueAnomaly;
+    private final double sunEclipticLongitude;
+
+    private final double earthTrueAnomaly;
+    private final double earthRadius;
+    private final double earthHeliocentricLongitude;
+
+    /**
+     * Computes the state of the solar system at the given instant
+     *
+     * @param when the zoned date/time of the instant
+     */
+    public SolarSystemState(ZonedDateTime when) {
+        this(Epoch.epochMillis(when));
+    }
+
+    /**
+     * Computes the state of the solar system at the given instant, without creating any java.time object
+     *
+     * @param epochMillis the instant, in milliseconds since 1970-01-01T00:00Z
+     * @see Epoch#epochMillis(ZonedDateTime)
+     */
+    public SolarSystemState(long epochMillis) {
+        this(Epoch.J2010.daysUntil(epochMillis), new EclipticToEquatorialConversion(epochMillis));
+    }
+
+    /**
+     * Computes the state of the solar system for the given number of days after epoch J2010
+     * (may be negative), with the given conversion
+     *
+     * @param daysSinceJ2010                 the number of days since J2010
+     * @param eclipticToEquatorialConversion the conversion from ecliptic to equatorial coordinates at that instant
+     */
+    public SolarSystemState(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        this.daysSinceJ2010 = daysSinceJ2010;
+        this.eclipticToEquatorialConversion = eclipticToEquatorialConversion;
+
+        sunMeanAnomaly = SunModel.meanAnomaly(daysSinceJ2010);
+        sunTrueAnomaly = SunModel.trueAnomaly(sunMeanAnomaly);
+        sunEclipticLongitude = SunModel.eclipticLongitude(sunTrueAnomaly);
+
+        earthTrueAnomaly = PlanetModel.EARTH.trueAnomaly(daysSinceJ2010);
+        earthRadius = PlanetModel.EARTH.radius(earthTrueAnomaly);
+        earthHeliocentricLongitude = PlanetModel.EARTH.heliocentricLongitude(earthTrueAnomaly);
+    }
+
+    /**
+     * Gets the number of days since J2010 of the instant
+     *
+     * @return the number of days since J2010
+     */
+    public double daysSinceJ2010() {
+        return daysSinceJ2010;
+    }
+
+    /**
+     * Gets the conversion from ecliptic to equatorial coordinates at that instant
+     *
+     * @return the conversion from ecliptic to equatorial coordinates
+     */
+    public EclipticToEquatorialConversion eclipticToEquatorialConversion() {
+        return eclipticToEquatorialConversion;
+    }
+
+    /**
+     * Gets the mean anomaly of the Sun
+     *
+     * @return the mean anomaly of the Sun (in radians)
+     */
+    public double sunMeanAnomaly() {
+        return sunMeanAnomaly;
+    }
+
+    /**
+     * Gets the true anomaly of the Sun
+     *
+     * @return the true anomaly of the Sun (in radians)
+     */
+    public double sunTrueAnomaly() {
+        return sunTrueAnomaly;
+    }
+
+    /**
+     * Gets the ecliptic longitude of the Sun
+     *
+     * @return the ecliptic longitude of the Sun, normalized to [0, TAU[ (in radians)
+     */
+    public double sunEclipticLongitude() {
+        return sunEclipticLongitude;
+    }
+
+    /**
+     * Gets the true anomaly of the Earth
+     *
+     * @return the true anomaly of the Earth (in radians)
+     */
+    public double earthTrueAnomaly() {
+        return earthTrueAnomaly;
+    }
+
+    /**
+     * Gets the distance from the Earth to the Sun
+     *
+     * @return the radius of the orbit of the Earth at that instant (in astronomical units)
+     */
+    public double earthRadius() {
+        return earthRadius;
+    }
+
+    /**
+     * Gets the heliocentric longitude of the Earth
+     *
+     * @return the heliocentric longitude of the Earth (in radians, not normalized)
+     */
+    public double earthHeliocentricLongitude() {
+        return earthHeliocentricLongitude;
+    }
+}
@@ -15,6 +15,7 @@ public final class Star extends CelestialObject {
     private static final ClosedInterval COLOR_INDEX_INTERVAL = ClosedInterval.of(-0.5, 5.5);
 
     private final int hipparcosId;
+    private final float colorIndex;
     private final int colorTemperature;
 
     /**
@@ -33,13 +34,25 @@ public final class Star extends CelestialObject {
     public Star(int hipparcosId, String name, EquatorialCoordinates equatorialPos, float magnitude, float colorIndex) {
         super(name, equatorialPos, 0, magnitude);
 
-        Preconditions.checkInInterval(COLOR_INDEX_INTERVAL, colorIndex);
         Preconditions.checkArgument(hipparcosId >= 0);
 
         this.hipparcosId = hipparcosId;
+        this.colorIndex = colorIndex;
+        colorTemperature = colorTemperatureOf(colorIndex);
+    }
+
+    /**
+     * Computes the color temperature of a star given its color index
+     *
+     * @param colorIndex the color index of the star
+     * @return the color temperature (in Kelvin)
+     * @throws IllegalArgumentException if the colorIndex is not in [-0.5, 5.5]
+     */
+    static int colorTemperatureOf(float colorIndex) {
+        Preconditions.checkInInterval(COLOR_INDEX_INTERVAL, colorIndex);
 
         double colorIndexFactor = 0.92 * colorIndex;
-        colorTemperature = (int) (4600 * (1 / (colorIndexFactor + 1.7) + 1 / (colorIndexFactor + 0.62)));
+        return (int) (4600 * (1 / (colorIndexFactor + 1.7) + 1 / (colorIndexFactor + 0.62)));
     }
 
     /**
@@ -51,6 +64,15 @@ public final class Star extends CelestialObject {
         return hipparcosId;
     }
 
+    /**
+     * Getter for the color index
+     *
+     * @return the color index of the star
+     */
+    float colorIndex() {
+        return colorIndex;
+    }
+
     /**
      * Getter for the color temperature
      *
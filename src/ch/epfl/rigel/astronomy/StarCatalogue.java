@@ -14,9 +14,18 @@ import java.util.*;
  */
 public final class StarCatalogue {
 
-    private final List<Star> stars;
+    private final StarColumns columns;
+    private final Star[] materializedStars; //The stars already created from the columns (null if not yet created)
 
-    private final Map<Asterism, List<Integer>> starIndexMap;
+    private List<Star> stars; //Lazily created by stars()
+    private double[] unitVectors; //Lazily created by unitVectors()
+    private EquatorialSkyGrid equatorialGrid; //Lazily created by equatorialGrid()
+
+    private final Map<Asterism, List<Integer>> starIndexMap; //Unmodifiable lists of indexes
+    private final Set<Asterism> asterisms; //Unmodifiable
+    private final boolean sortedByMagnitude;
+    private final int[] asterismStarIndices; //The indexes of the stars belonging to an asterism, in increasing order
+    private final int[] asterismSegments; //The indexes of the two stars of each segment of the asterisms
 
     /**
      * Constructor of the star and asterism catalogue
@@ -27,41 +36,319 @@ public final class StarCatalogue {
      *                                  has a star that is not in the list of stars
      */
     public StarCatalogue(List<Star> stars, List<Asterism> asterisms) {
-        this.stars = List.copyOf(stars);
-        starIndexMap = new HashMap<>();
-        Map<Star, Integer> indexOfStar = new HashMap<>();
+        this(columnsOf(stars), stars.toArray(new Star[0]), asterisms);
+    }
 
+    /**
+     * Stores the given stars in columns
+     *
+     * @param stars the stars to be stored
+     * @return the columns containing the stars
+     */
+    private static StarColumns columnsOf(List<Star> stars) {
+        StarColumns columns = new StarColumns();
         for (Star star : stars) {
-            indexOfStar.put(star, stars.indexOf(star));
+            columns.add(star);
+        }
+        return columns.trimmedCopy();
+    }
+
+    /**
+     * Constructor of a catalogue whose stars are stored in columns, the star
+     * objects being only created when they are asked for
+     *
+     * @param columns           the columns containing all the stars (not copied)
+     * @param materializedStars the stars already created for some indexes, in particular
+     *                          all the stars of the asterisms (null for the other indexes)
+     * @param asterisms         list containing all the asterisms
+     * @throws IllegalArgumentException if one of the asterisms
+     *                                  has a star that is not in the catalogue
+     */
+    private StarCatalogue(StarColumns columns, Star[] materializedStars, List<Asterism> asterisms) {
+        this.columns = columns;
+        this.materializedStars = materializedStars;
+        starIndexMap = new HashMap<>();
+
+        //Assigns the indexes in one pass, keeping the first index of a star present more than once
+        Map<Star, Integer> indexOfStar = new IdentityHashMap<>();
+        for (int i = 0; i < materializedStars.length; i++) {
+            if (materializedStars[i] != null)
+                indexOfStar.putIfAbsent(materializedStars[i], i);
         }
 
         for (Asterism asterism : asterisms) {
             List<Integer> listOfIndex = new ArrayList<>();
-            Preconditions.checkArgument(stars.containsAll(asterism.stars())); //Checks if all the stars of all the asterisims are in the list of stars
-
             for (Star star : asterism.stars()) {
-                listOfIndex.add(indexOfStar.get(star)); //Adds the index of the current star contained in the list star to the index list
+                Integer index = indexOfStar.get(star);
+                Preconditions.checkArgument(index != null); //Checks if all the stars of the asterism are in the catalogue
+                listOfIndex.add(index);
             }
-            starIndexMap.put(asterism, listOfIndex);
+            starIndexMap.put(asterism, List.copyOf(listOfIndex));
+        }
+        this.asterisms = Collections.unmodifiableSet(starIndexMap.keySet());
+
+        //Compiles the segments joining the consecutive stars of each asterism once, for the drawing of all the frames
+        asterismSegments = new int[2 * starIndexMap.values().stream().mapToInt(list -> list.size() - 1).sum()];
+        int segment = 0;
+        for (List<Integer> listOfIndex : starIndexMap.values()) {
+            for (int i = 0; i < listOfIndex.size() - 1; i++) {
+                asterismSegments[segment++] = listOfIndex.get(i);
+                asterismSegments[segment++] = listOfIndex.get(i + 1);
+            }
+        }
+        asterismStarIndices = starIndexMap.values().stream()
+                .flatMap(List::stream)
+                .mapToInt(Integer::intValue)
+                .sorted().distinct()
+                .toArray();
+
+        boolean sorted = true;
+        float[] magnitudes = columns.magnitudes();
+        for (int i = 1; i < columns.size() && sorted; i++) {
+            sorted = magnitudes[i - 1] <= magnitudes[i];
         }
+        sortedByMagnitude = sorted;
     }
 
     /**
-     * Gets the list of stars
+     * Gets the list of stars.<br>
+     * For a catalogue built with the columnar builder, all the star objects
+     * are created the first time this method is called.
      *
      * @return the list of stars of the catalogue
      */
-    public List<Star> stars() {
+    public synchronized List<Star> stars() {
+        if (stars == null) {
+            for (int i = 0; i < materializedStars.length; i++) {
+                star(i);
+            }
+            stars = List.of(materializedStars);
+        }
         return stars;
     }
 
+    /**
+     * Gets the number of stars of the catalogue
+     *
+     * @return the number of stars
+     */
+    public int starCount() {
+        return columns.size();
+    }
+
+    /**
+     * Gets the star at the given index, creating the star object
+     * the first time it is asked for
+     *
+     * @param index the index of the star in the catalogue
+     * @return the star at the given index
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public synchronized Star star(int index) {
+        Objects.checkIndex(index, materializedStars.length);
+        if (materializedStars[index] == null)
+            materializedStars[index] = columns.materialize(index);
+        return materializedStars[index];
+    }
+
+    /**
+     * Gets the hipparcos number of the star at the given index
+     *
+     * @param index the index of the star in the catalogue
+     * @return the hipparcos number of the star
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public int hipparcosId(int index) {
+        return columns.hipparcosId(index);
+    }
+
+    /**
+     * Gets the right ascension of the star at the given index
+     *
+     * @param index the index of the star in the catalogue
+     * @return the right ascension of the star (in radians)
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public double rightAscension(int index) {
+        return columns.rightAscension(index);
+    }
+
+    /**
+     * Gets the declination of the star at the given index
+     *
+     * @param index the index of the star in the catalogue
+     * @return the declination of the star (in radians)
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public double declination(int index) {
+        return columns.declination(index);
+    }
+
+    /**
+     * Gets the magnitude of the star at the given index
+     *
+     * @param index the index of the star in the catalogue
+     * @return the magnitude of the star
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public double magnitude(int index) {
+        return columns.magnitude(index);
+    }
+
+    /**
+     * Checks if the stars of the catalogue are sorted by increasing magnitude (from the brightest
+     * to the faintest), e.g. because the builder sorted them
+     *
+     * @return true if the stars are sorted by magnitude
+     * @see Builder#sortByMagnitude()
+     */
+    public boolean isSortedByMagnitude() {
+        return sortedByMagnitude;
+    }
+
+    /**
+     * Gets the number of stars whose magnitude is at most the given limiting magnitude.
+     * If the catalogue is sorted by magnitude, these stars are the first ones of the
+     * catalogue and they are counted by a binary search.
+     *
+     * @param limitingMagnitude the magnitude of the faintest stars to count
+     * @return the number of stars not fainter than the limiting magnitude
+     */
+    public int starCountUpToMagnitude(double limitingMagnitude) {
+        float[] magnitudes = columns.magnitudes();
+        if (!sortedByMagnitude) {
+            int count = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                if (magnitudes[i] <= limitingMagnitude)
+                    count++;
+            }
+            return count;
+        }
+
+        //Index of the first star fainter than the limit
+        int low = 0, high = columns.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (magnitudes[middle] <= limitingMagnitude)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the index following the greatest index of a star belonging to an asterism
+     * (0 if there is no asterism)
+     *
+     * @return the number of first stars of the catalogue containing all the stars of the asterisms
+     */
+    int asterismStarsEnd() {
+        return asterismStarIndices.length == 0 ? 0 : asterismStarIndices[asterismStarIndices.length - 1] + 1;
+    }
+
+    /**
+     * Gets the indexes of the stars belonging to at least one asterism (the array must not be modified)
+     *
+     * @return the indexes of the stars of the asterisms, in increasing order and without duplicates
+     */
+    int[] asterismStarIndices() {
+        return asterismStarIndices;
+    }
+
+    /**
+     * Gets the segments joining the consecutive stars of all the asterisms, compiled once when the
+     * catalogue is built (the array must not be modified)
+     * <p>(For example [index of the first star, index of the second star of the first segment, ...])</p>
+     *
+     * @return the indexes of the two stars of each segment of the asterisms
+     */
+    public int[] asterismSegments() {
+        return asterismSegments;
+    }
+
+    /**
+     * Gets the color temperature of the star at the given index
+     *
+     * @param index the index of the star in the catalogue
+     * @return the color temperature of the star (in Kelvin)
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public int colorTemperature(int index) {
+        return columns.colorTemperature(index);
+    }
+
+    /**
+     * Gets the right ascensions of all the stars, in the order of the catalogue
+     * (the array must not be modified)
+     *
+     * @return the right ascensions of the stars
+     */
+    double[] rightAscensions() {
+        return columns.rightAscensions();
+    }
+
+    /**
+     * Gets the declinations of all the stars, in the order of the catalogue
+     * (the array must not be modified)
+     *
+     * @return the declinations of the stars
+     */
+    double[] declinations() {
+        return columns.declinations();
+    }
+
+    /**
+     * Gets the columns containing the characteristics of the stars (must not be modified)
+     *
+     * @return the columns of the stars
+     */
+    StarColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Gets the cartesian coordinates of the unit vectors pointing to the stars in the equatorial
+     * frame, computed the first time they are asked for (the array must not be modified).
+     * The vector of the i-th star is (cos(dec) cos(ra), cos(dec) sin(ra), sin(dec)),
+     * stored at the indexes 3i, 3i + 1 and 3i + 2.
+     *
+     * @return the equatorial unit vectors of the stars
+     */
+    synchronized double[] unitVectors() {
+        if (unitVectors == null) {
+            double[] ra = columns.rightAscensions();
+            double[] dec = columns.declinations();
+            double[] vectors = new double[3 * columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                double cosDec = Math.cos(dec[i]);
+                vectors[3 * i] = cosDec * Math.cos(ra[i]);
+                vectors[3 * i + 1] = cosDec * Math.sin(ra[i]);
+                vectors[3 * i + 2] = Math.sin(dec[i]);
+            }
+            unitVectors = vectors;
+        }
+        return unitVectors;
+    }
+
+    /**
+     * Gets the spatial index of the stars over the celestial sphere, built the first time it is asked for
+     *
+     * @return the equatorial grid of the stars
+     */
+    synchronized EquatorialSkyGrid equatorialGrid() {
+        if (equatorialGrid == null)
+            equatorialGrid = new EquatorialSkyGrid(columns.rightAscensions(), columns.declinations(), columns.size());
+        return equatorialGrid;
+    }
+
     /**
      * Gets a set of asterisms
      *
-     * @return the set containing all the asterisims of the catalogue
+     * @return the unmodifiable set containing all the asterisims of the catalogue
      */
     public Set<Asterism> asterisms() {
-        return new HashSet<>(starIndexMap.keySet());
+        return asterisms;
     }
 
     /**
@@ -69,13 +356,13 @@ public final class StarCatalogue {
      * the catalogue that constitutes the given asterism
      *
      * @param asterism the asterisms for which the star indexes are wanted
-     * @return the list of the star indexes contained in the asterism
+     * @return the unmodifiable list of the star indexes contained in the asterism
      * @throws IllegalArgumentException if the asterism is not in the catalogue
      */
     public List<Integer> asterismIndices(Asterism asterism) {
         Preconditions.checkArgument(starIndexMap.containsKey(asterism)); //Can throw the exception
 
-        return List.copyOf(starIndexMap.get(asterism));
+        return starIndexMap.get(asterism);
     }
 
     /**
@@ -87,14 +374,16 @@ public final class StarCatalogue {
      */
     public static final class Builder {
 
-        private List<Star> starBuild;
+        private StarColumns starBuild;
+        private List<Star> materializedStars;
         private List<Asterism> asterismBuild;
 
         /**
          * Default constructor of the builder that initializes the catalogue
          */
         public Builder() {
-            starBuild = new ArrayList<>();
+            starBuild = new StarColumns();
+            materializedStars = new ArrayList<>();
             asterismBuild = new ArrayList<>();
         }
 
@@ -106,6 +395,88 @@ public final class StarCatalogue {
          */
         public Builder addStar(Star star) {
             starBuild.add(star);
+            materializedStars.add(star);
+            return this;
+        }
+
+        /**
+         * Adds a star to the catalogue without creating the star object,
+         * only its characteristics are stored, and returns the builder
+         *
+         * @param hipparcosId the hipparcos number of the star
+         * @param name        the name of the star
+         * @param ra          the right ascension of the star (in radians)
+         * @param dec         the declination of the star (in radians)
+         * @param magnitude   the magnitude of the star
+         * @param colorIndex  the color index of the star
+         * @return the new builder
+         * @throws IllegalArgumentException if one of the values is not valid for a star
+         * @throws NullPointerException     if the name is null
+         * @see Star#Star(int, String, ch.epfl.rigel.coordinates.EquatorialCoordinates, float, float)
+         */
+        public Builder addStar(int hipparcosId, String name, double ra, double dec, float magnitude, float colorIndex) {
+            starBuild.add(hipparcosId, name, ra, dec, magnitude, colorIndex);
+            materializedStars.add(null);
+            return this;
+        }
+
+        /**
+         * Adds a star whose name is given by its UTF-8 bytes to the catalogue,
+         * without creating the star object
+         *
+         * @param hipparcosId the hipparcos number of the star
+         * @param name        an array whose first nameLength bytes are the name of the star (encoded in UTF-8)
+         * @param nameLength  the number of bytes of the name
+         * @param ra          the right ascension of the star (in radians)
+         * @param dec         the declination of the star (in radians)
+         * @param magnitude   the magnitude of the star
+         * @param colorIndex  the color index of the star
+         * @throws IllegalArgumentException if one of the values is not valid for a star
+         */
+        void addStar(int hipparcosId, byte[] name, int nameLength, double ra, double dec, float magnitude, float colorIndex) {
+            starBuild.add(hipparcosId, name, nameLength, ra, dec, magnitude, colorIndex);
+            materializedStars.add(null);
+        }
+
+        /**
+         * Adds all the stars of the given columns to the catalogue, without creating the star objects
+         *
+         * @param columns the columns containing the stars to be added
+         */
+        void addStars(StarColumns columns) {
+            starBuild.addAll(columns);
+            materializedStars.addAll(Collections.nCopies(columns.size(), null));
+        }
+
+        /**
+         * Sorts the stars added until now by increasing magnitude (from the brightest to the faintest),
+         * the stars of equal magnitude staying in the order in which they were added, and returns
+         * the builder. The asterisms only refer to star objects, so they are not affected.
+         *
+         * @return the new builder
+         * @see StarCatalogue#starCountUpToMagnitude(double)
+         */
+        public Builder sortByMagnitude() {
+            int size = starBuild.size();
+            float[] magnitudes = starBuild.magnitudes();
+
+            //Sorts the (magnitude, index) pairs packed in longs, the magnitudes being mapped to ints of the same order
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                int bits = Float.floatToIntBits(magnitudes[i]);
+                int sortableBits = bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+                keys[i] = ((long) sortableBits << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            int[] order = new int[size];
+            List<Star> sortedStars = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) keys[i];
+                sortedStars.add(materializedStars.get(order[i]));
+            }
+            starBuild = starBuild.permuted(order);
+            materializedStars = sortedStars;
             return this;
         }
 
@@ -116,7 +487,52 @@ public final class StarCatalogue {
          * @return a view of the stars of the catalogue being built
          */
         public List<Star> stars() {
-            return Collections.unmodifiableList(starBuild);
+            return new AbstractList<>() {
+                @Override
+                public Star get(int index) {
+                    return star(index);
+                }
+
+                @Override
+                public int size() {
+                    return starBuild.size();
+                }
+            };
+        }
+
+        /**
+         * Gets the number of stars added until now
+         *
+         * @return the number of stars
+         */
+        int starCount() {
+            return starBuild.size();
+        }
+
+        /**
+         * Gets the hipparcos number of the star at the given index
+         *
+         * @param index the index of the star
+         * @return the hipparcos number of the star
+         */
+        int hipparcosId(int index) {
+            return starBuild.hipparcosId(index);
+        }
+
+        /**
+         * Gets the star at the given index, creating the star object
+         * the first time it is asked for
+         *
+         * @param index the index of the star
+         * @return the star at the given index
+         */
+        Star star(int index) {
+            Star star = materializedStars.get(index);
+            if (star == null) {
+                star = starBuild.materialize(index);
+                materializedStars.set(index, star);
+            }
+            return star;
         }
 
         /**
@@ -163,7 +579,7 @@ public final class StarCatalogue {
          * @return the completed star catalogue
          */
         public StarCatalogue build() {
-            return new StarCatalogue(starBuild, asterismBuild);
+            return new StarCatalogue(starBuild.trimmedCopy(), materializedStars.toArray(new Star[0]), asterismBuild);
         }
 
     }
@@ -0,0 +1,379 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.Interval;
+import ch.epfl.rigel.math.RightOpenInterval;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Columnar (structure of arrays) storage of the characteristics of stars.
+ * The i-th star is described by the i-th element of each array, the names
+ * being stored one after the other as UTF-8 bytes.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class StarColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Interval RA_INTERVAL = RightOpenInterval.of(0, Angle.TAU);
+    private static final Interval DEC_INTERVAL = ClosedInterval.symmetric(Math.PI);
+
+    private int size;
+    private int[] hipparcosIds;
+    private double[] rightAscensions;
+    private double[] declinations;
+    private float[] magnitudes;
+    private float[] colorIndices;
+    private int[] colorTemperatures;
+
+    private byte[] names;
+    private int namesLength;
+    private int[] nameOffsets; //The name of the i-th star is in names[nameOffsets[i], nameOffsets[i + 1][
+
+    /**
+     * Creates empty columns
+     */
+    StarColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private StarColumns(int capacity) {
+        hipparcosIds = new int[capacity];
+        rightAscensions = new double[capacity];
+        declinations = new double[capacity];
+        magnitudes = new float[capacity];
+        colorIndices = new float[capacity];
+        colorTemperatures = new int[capacity];
+        names = new byte[capacity * 8];
+        nameOffsets = new int[capacity + 1];
+    }
+
+    /**
+     * Appends a star to the columns
+     *
+     * @param hipparcosId the hipparcos number of the star
+     * @param name        the name of the star
+     * @param ra          the right ascension of the star (in radians)
+     * @param dec         the declination of the star (in radians)
+     * @param magnitude   the magnitude of the star
+     * @param colorIndex  the color index of the star
+     * @throws IllegalArgumentException if one of the values is not valid for a star
+     * @throws NullPointerException     if the name is null
+     * @see Star#Star(int, String, EquatorialCoordinates, float, float)
+     */
+    void add(int hipparcosId, String name, double ra, double dec, float magnitude, float colorIndex) {
+        byte[] nameBytes = name.getBytes(UTF_8);
+        add(hipparcosId, nameBytes, nameBytes.length, ra, dec, magnitude, colorIndex);
+    }
+
+    /**
+     * Appends a star whose name is given by its UTF-8 bytes to the columns
+     *
+     * @param hipparcosId the hipparcos number of the star
+     * @param name        an array whose first nameLength bytes are the name of the star (encoded in UTF-8)
+     * @param nameLength  the number of bytes of the name
+     * @param ra          the right ascension of the star (in radians)
+     * @param dec         the declination of the star (in radians)
+     * @param magnitude   the magnitude of the star
+     * @param colorIndex  the color index of the star
+     * @throws IllegalArgumentException if one of the values is not valid for a star
+     * @see #add(int, String, double, double, float, float)
+     */
+    void add(int hipparcosId, byte[] name, int nameLength, double ra, double dec, float magnitude, float colorIndex) {
+        Objects.checkFromIndexSize(0, nameLength, name.length);
+        Preconditions.checkArgument(hipparcosId >= 0);
+        Preconditions.checkInInterval(RA_INTERVAL, ra);
+        Preconditions.checkInInterval(DEC_INTERVAL, dec);
+        int colorTemperature = Star.colorTemperatureOf(colorIndex); //Also checks the color index
+
+        if (size == hipparcosIds.length)
+            grow();
+
+        if (namesLength + nameLength > names.length)
+            names = Arrays.copyOf(names, Math.max(2 * names.length, namesLength + nameLength));
+        System.arraycopy(name, 0, names, namesLength, nameLength);
+        namesLength += nameLength;
+
+        hipparcosIds[size] = hipparcosId;
+        rightAscensions[size] = ra;
+        declinations[size] = dec;
+        magnitudes[size] = magnitude;
+        colorIndices[size] = colorIndex;
+        colorTemperatures[size] = colorTemperature;
+        nameOffsets[++size] = namesLength;
+    }
+
+    /**
+     * Creates columns containing the stars described by the given arrays (the i-th star
+     * being described by the i-th element of each array), which are used directly
+     *
+     * @param hipparcosIds    the hipparcos numbers of the stars
+     * @param rightAscensions the right ascensions of the stars (in radians)
+     * @param declinations    the declinations of the stars (in radians)
+     * @param magnitudes      the magnitudes of the stars
+     * @param colorIndices    the color indices of the stars
+     * @param names           the names of the stars, as UTF-8 bytes one after the other
+     * @param nameOffsets     the index of the first byte of the name of each star, followed by the length of names
+     * @return the columns containing the stars
+     * @throws IllegalArgumentException if the arrays do not have the same size or if one of the values is not
+     *                                  valid for a star
+     */
+    static StarColumns of(int[] hipparcosIds, double[] rightAscensions, double[] declinations,
+                          float[] magnitudes, float[] colorIndices, byte[] names, int[] nameOffsets) {
+        int size = hipparcosIds.length;
+        Preconditions.checkArgument(rightAscensions.length == size && declinations.length == size
+                && magnitudes.length == size && colorIndices.length == size && nameOffsets.length == size + 1);
+        Preconditions.checkArgument(nameOffsets[0] == 0 && nameOffsets[size] == names.length);
+
+        int[] colorTemperatures = new int[size];
+        for (int i = 0; i < size; i++) {
+            Preconditions.checkArgument(hipparcosIds[i] >= 0 && nameOffsets[i] <= nameOffsets[i + 1]);
+            Preconditions.checkInInterval(RA_INTERVAL, rightAscensions[i]);
+            Preconditions.checkInInterval(DEC_INTERVAL, declinations[i]);
+            colorTemperatures[i] = Star.colorTemperatureOf(colorIndices[i]);
+        }
+
+        StarColumns columns = new StarColumns(0);
+        columns.size = size;
+        columns.hipparcosIds = hipparcosIds;
+        columns.rightAscensions = rightAscensions;
+        columns.declinations = declinations;
+        columns.magnitudes = magnitudes;
+        columns.colorIndices = colorIndices;
+        columns.colorTemperatures = colorTemperatures;
+        columns.names = names;
+        columns.namesLength = names.length;
+        columns.nameOffsets = nameOffsets;
+        return columns;
+    }
+
+    /**
+     * Appends all the stars of the given columns to these columns
+     *
+     * @param other the columns containing the stars to be added
+     */
+    void addAll(StarColumns other) {
+        while (hipparcosIds.length < size + other.size)
+            grow();
+        if (names.length < namesLength + other.namesLength)
+            names = Arrays.copyOf(names, Math.max(2 * names.length, namesLength + other.namesLength));
+
+        System.arraycopy(other.hipparcosIds, 0, hipparcosIds, size, other.size);
+        System.arraycopy(other.rightAscensions, 0, rightAscensions, size, other.size);
+        System.arraycopy(other.declinations, 0, declinations, size, other.size);
+        System.arraycopy(other.magnitudes, 0, magnitudes, size, other.size);
+        System.arraycopy(other.colorIndices, 0, colorIndices, size, other.size);
+        System.arraycopy(other.colorTemperatures, 0, colorTemperatures, size, other.size);
+        System.arraycopy(other.names, 0, names, namesLength, other.namesLength);
+        for (int i = 1; i <= other.size; i++) {
+            nameOffsets[size + i] = namesLength + other.nameOffsets[i];
+        }
+        size += other.size;
+        namesLength += other.namesLength;
+    }
+
+    /**
+     * Appends the given star to the columns
+     *
+     * @param star the star to be added
+     */
+    void add(Star star) {
+        add(star.hipparcosId(), star.name(), star.equatorialPos().ra(), star.equatorialPos().dec(),
+                (float) star.magnitude(), star.colorIndex());
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, 2 * hipparcosIds.length);
+        hipparcosIds = Arrays.copyOf(hipparcosIds, capacity);
+        rightAscensions = Arrays.copyOf(rightAscensions, capacity);
+        declinations = Arrays.copyOf(declinations, capacity);
+        magnitudes = Arrays.copyOf(magnitudes, capacity);
+        colorIndices = Arrays.copyOf(colorIndices, capacity);
+        colorTemperatures = Arrays.copyOf(colorTemperatures, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+    }
+
+    /**
+     * Gets a copy of the columns whose arrays are exactly as long as the number of stars
+     *
+     * @return a trimmed copy of the columns
+     */
+    StarColumns trimmedCopy() {
+        StarColumns copy = new StarColumns(0);
+        copy.size = size;
+        copy.hipparcosIds = Arrays.copyOf(hipparcosIds, size);
+        copy.rightAscensions = Arrays.copyOf(rightAscensions, size);
+        copy.declinations = Arrays.copyOf(declinations, size);
+        copy.magnitudes = Arrays.copyOf(magnitudes, size);
+        copy.colorIndices = Arrays.copyOf(colorIndices, size);
+        copy.colorTemperatures = Arrays.copyOf(colorTemperatures, size);
+        copy.names = Arrays.copyOf(names, namesLength);
+        copy.namesLength = namesLength;
+        copy.nameOffsets = Arrays.copyOf(nameOffsets, size + 1);
+        return copy;
+    }
+
+    /**
+     * Gets a copy of the columns containing the same stars in the given order, the i-th star of the
+     * copy being the star at the index order[i] in these columns
+     *
+     * @param order the indexes of the stars in the new order (a permutation of 0 to size - 1)
+     * @return the reordered copy of the columns
+     */
+    StarColumns permuted(int[] order) {
+        Preconditions.checkArgument(order.length == size);
+        StarColumns copy = new StarColumns(0);
+        copy.size = size;
+        copy.hipparcosIds = new int[size];
+        copy.rightAscensions = new double[size];
+        copy.declinations = new double[size];
+        copy.magnitudes = new float[size];
+        copy.colorIndices = new float[size];
+        copy.colorTemperatures = new int[size];
+        copy.names = new byte[namesLength];
+        copy.namesLength = namesLength;
+        copy.nameOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            copy.hipparcosIds[i] = hipparcosIds[from];
+            copy.rightAscensions[i] = rightAscensions[from];
+            copy.declinations[i] = declinations[from];
+            copy.magnitudes[i] = magnitudes[from];
+            copy.colorIndices[i] = colorIndices[from];
+            copy.colorTemperatures[i] = colorTemperatures[from];
+
+            int nameLength = nameOffsets[from + 1] - nameOffsets[from];
+            System.arraycopy(names, nameOffsets[from], copy.names, copy.nameOffsets[i], nameLength);
+            copy.nameOffsets[i + 1] = copy.nameOffsets[i] + nameLength;
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the star object described by the given index
+     *
+     * @param index the index of the star
+     * @return a new star with the characteristics stored at the given index
+     */
+    Star materialize(int index) {
+        return new Star(hipparcosIds[index], name(index),
+                EquatorialCoordinates.of(rightAscensions[index], declinations[index]),
+                magnitudes[index], colorIndices[index]);
+    }
+
+    /**
+     * Gets the number of stars in the columns
+     *
+     * @return the number of stars
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the hipparcos number of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the hipparcos number of the star
+     */
+    int hipparcosId(int index) {
+        return hipparcosIds[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the name of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the name of the star
+     */
+    String name(int index) {
+        Objects.checkIndex(index, size);
+        return new String(names, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index], UTF_8);
+    }
+
+    /**
+     * Gets the right ascension of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the right ascension of the star (in radians)
+     */
+    double rightAscension(int index) {
+        return rightAscensions[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the declination of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the declination of the star (in radians)
+     */
+    double declination(int index) {
+        return declinations[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the magnitude of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the magnitude of the star
+     */
+    float magnitude(int index) {
+        return magnitudes[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the color index of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the color index of the star
+     */
+    float colorIndex(int index) {
+        return colorIndices[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the color temperature of the star at the given index
+     *
+     * @param index the index of the star
+     * @return the color temperature of the star (in Kelvin)
+     */
+    int colorTemperature(int index) {
+        return colorTemperatures[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the magnitude column (must not be modified, and may be longer than the number of stars)
+     *
+     * @return the magnitudes of the stars
+     */
+    float[] magnitudes() {
+        return magnitudes;
+    }
+
+    /**
+     * Gets the right ascension column (must not be modified)
+     *
+     * @return the right ascensions of the stars
+     */
+    double[] rightAscensions() {
+        return rightAscensions;
+    }
+
+    /**
+     * Gets the declination column (must not be modified)
+     *
+     * @return the declinations of the stars
+     */
+    double[] declinations() {
+        return declinations;
+    }
+}
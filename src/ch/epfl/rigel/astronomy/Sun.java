@@ -14,7 +14,7 @@ import java.util.Objects;
 public final class Sun extends CelestialObject {
 
     private static final String SUN_NAME = "Soleil"; //As the name of the Sun does not change from instances to another
-    private static final float SUN_MAGNITUDE = -26.7f; //As the magnitude of the Sun does not change form instances to another
+    static final float SUN_MAGNITUDE = -26.7f; //As the magnitude of the Sun does not change form instances to another
 
     private final EclipticCoordinates eclipticPos;
     private final float meanAnomaly;
@@ -26,19 +26,72 @@ public enum SunModel implements CelestialObjectModel<Sun> {
      */
     @Override
     public Sun at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return at(new SolarSystemState(daysSinceJ2010, eclipticToEquatorialConversion));
+    }
+
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState)
+     */
+    @Override
+    public Sun at(SolarSystemState state) {
+        double[] ephemeris = new double[EPHEMERIS_LENGTH];
+        at(state, ephemeris, 0);
 
-        double meanAnomaly = (AVERAGE_ANGULAR_SPEED * daysSinceJ2010) + LON_J2010 - LON_PER;
-        double trueAnomaly = meanAnomaly + (2 * EX_SUN_EARTH * Math.sin(meanAnomaly));
+        //The ephemeris does not hold the ecliptic position and the mean anomaly of the Sun, which the state has
+        return new Sun(EclipticCoordinates.of(state.sunEclipticLongitude(), 0), EquatorialCoordinates.of(ephemeris[0], ephemeris[1]),
+                (float) ephemeris[2], (float) state.sunMeanAnomaly());
+    }
 
-        double lonEcliptic = trueAnomaly + LON_PER;
-        double latEcliptic = 0;
+    /**
+     * @see CelestialObjectModel#at(SolarSystemState, double[], int)
+     */
+    @Override
+    public void at(SolarSystemState state, double[] ephemerides, int index) {
+        int offset = EPHEMERIS_LENGTH * index;
+
+        state.eclipticToEquatorialConversion().apply(state.sunEclipticLongitude(), 0, ephemerides, offset);
+        ephemerides[offset + 2] = angularSize(state.sunTrueAnomaly());
+        ephemerides[offset + 3] = Sun.SUN_MAGNITUDE;
+        ephemerides[offset + 4] = 1; //The disk of the Sun is always fully illuminated
+    }
 
-        EclipticCoordinates coord1 = EclipticCoordinates.of(Angle.normalizePositive(lonEcliptic), latEcliptic);
+    /**
+     * Computes the angular size of the Sun given its true anomaly
+     *
+     * @param trueAnomaly the true anomaly of the Sun
+     * @return the angular size of the Sun
+     */
+    private static double angularSize(double trueAnomaly) {
+        return ANGULAR_SIZE_ZERO * ((1 + EX_SUN_EARTH * Math.cos(trueAnomaly)) / EX_SUN_SQUARED);
+    }
 
-        EquatorialCoordinates coord2 = eclipticToEquatorialConversion.apply(coord1);
+    /**
+     * Computes the mean anomaly of the Sun for the given number of days since J2010
+     *
+     * @param daysSinceJ2010 the number of days since J2010
+     * @return the mean anomaly of the Sun
+     */
+    static double meanAnomaly(double daysSinceJ2010) {
+        return (AVERAGE_ANGULAR_SPEED * daysSinceJ2010) + LON_J2010 - LON_PER;
+    }
 
-        double angularSize = ANGULAR_SIZE_ZERO * ((1 + EX_SUN_EARTH * Math.cos(trueAnomaly)) / EX_SUN_SQUARED);
+    /**
+     * Computes the true anomaly of the Sun given its mean anomaly
+     *
+     * @param meanAnomaly the mean anomaly of the Sun
+     * @return the true anomaly of the Sun
+     */
+    static double trueAnomaly(double meanAnomaly) {
+        return meanAnomaly + (2 * EX_SUN_EARTH * Math.sin(meanAnomaly));
+    }
 
-        return new Sun(coord1, coord2, (float) angularSize, (float) meanAnomaly);
+    /**
+     * Computes the ecliptic longitude of the Sun given its true anomaly
+     *
+     * @param trueAnomaly the true anomaly of the Sun
+     * @return the ecliptic longitude of the Sun, normalized to [0, TAU[
+     */
+    static double eclipticLongitude(double trueAnomaly) {
+        return Angle.normalizePositive(trueAnomaly + LON_PER);
     }
 }
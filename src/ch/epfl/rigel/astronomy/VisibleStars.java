@@ -0,0 +1,139 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.util.Arrays;
+
+/**
+ * Stars of a catalogue which may be in a cone of view: the stars of the cells of the equatorial grid of the
+ * catalogue intersecting the cone, and the stars of the asterisms (so that they stay complete), with their
+ * equatorial coordinates gathered in contiguous arrays (created on demand).<br>
+ * When only the time changes, the center of the cone only moves in right ascension, and the stars stay the same
+ * as long as the cone intersects the same cells, so the skies of successive instants share them.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class VisibleStars {
+
+    private final StarCatalogue catalogue;
+    private final double viewCenterRa; //The right ascension of the center of the cone for which the stars were found
+    private final double viewCenterDec;
+    private final double viewRadius;
+    private final int projectedStarCount;
+    private final int[] indices;
+
+    //The coordinates of the stars, in the order of indices (gathered on demand)
+    private double[] rightAscensions;
+    private double[] declinations;
+    private double[] unitVectors;
+
+    /**
+     * Finds the stars which may be in the given cone of view
+     *
+     * @param catalogue          the catalogue of the stars
+     * @param viewCenter         the center of the cone of view
+     * @param viewRadius         the angular radius of the cone of view (in radians)
+     * @param projectedStarCount the number of first stars of the catalogue which can be projected
+     */
+    VisibleStars(StarCatalogue catalogue, EquatorialCoordinates viewCenter, double viewRadius, int projectedStarCount) {
+        this.catalogue = catalogue;
+        this.viewCenterRa = viewCenter.ra();
+        this.viewCenterDec = viewCenter.dec();
+        this.viewRadius = viewRadius;
+        this.projectedStarCount = projectedStarCount;
+
+        int[] inCone = catalogue.equatorialGrid().starsInCone(viewCenterRa, viewCenterDec, viewRadius, projectedStarCount);
+        int[] asterismStars = catalogue.asterismStarIndices();
+
+        int[] indices = Arrays.copyOf(inCone, inCone.length + asterismStars.length);
+        System.arraycopy(asterismStars, 0, indices, inCone.length, asterismStars.length);
+        Arrays.sort(indices);
+
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1])
+                indices[count++] = indices[i];
+        }
+        this.indices = Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Gets the stars which may be in the given cone of view, which are these stars if the cone intersects
+     * the same cells of the equatorial grid as the cone for which they were found (in which case the stars
+     * and their gathered coordinates are shared), and new ones otherwise
+     *
+     * @param viewCenter         the center of the cone of view
+     * @param viewRadius         the angular radius of the cone of view (in radians)
+     * @param projectedStarCount the number of first stars of the catalogue which can be projected
+     * @return the stars which may be in the cone of view
+     */
+    VisibleStars inCone(EquatorialCoordinates viewCenter, double viewRadius, int projectedStarCount) {
+        boolean sameStars = viewRadius == this.viewRadius
+                && projectedStarCount == this.projectedStarCount
+                && viewCenter.dec() == viewCenterDec
+                && catalogue.equatorialGrid().coversSameCells(viewCenterRa, viewCenter.ra(), viewCenterDec, viewRadius);
+        return sameStars ? this : new VisibleStars(catalogue, viewCenter, viewRadius, projectedStarCount);
+    }
+
+    /**
+     * Gets the indexes of the stars (the array must not be modified)
+     *
+     * @return the indexes of the stars, in increasing order
+     */
+    int[] indices() {
+        return indices;
+    }
+
+    /**
+     * Gets the right ascensions of the stars, gathering them on the first call (the array must not be modified)
+     *
+     * @return the right ascensions of the stars, in the order of indices()
+     */
+    synchronized double[] rightAscensions() {
+        if (rightAscensions == null) {
+            double[] catalogueRa = catalogue.rightAscensions();
+            double[] ra = new double[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                ra[i] = catalogueRa[indices[i]];
+            }
+            rightAscensions = ra;
+        }
+        return rightAscensions;
+    }
+
+    /**
+     * Gets the declinations of the stars, gathering them on the first call (the array must not be modified)
+     *
+     * @return the declinations of the stars, in the order of indices()
+     */
+    synchronized double[] declinations() {
+        if (declinations == null) {
+            double[] catalogueDec = catalogue.declinations();
+            double[] dec = new double[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                dec[i] = catalogueDec[indices[i]];
+            }
+            declinations = dec;
+        }
+        return declinations;
+    }
+
+    /**
+     * Gets the equatorial unit vectors of the stars, gathering them on the first call (the array must not be modified)
+     *
+     * @return the unit vectors of the stars, in the order of indices()
+     * @see StarCatalogue#unitVectors()
+     */
+    synchronized double[] unitVectors() {
+        if (unitVectors == null) {
+            double[] catalogueVectors = catalogue.unitVectors();
+            double[] vectors = new double[3 * indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                System.arraycopy(catalogueVectors, 3 * indices[i], vectors, 3 * i, 3);
+            }
+            unitVectors = vectors;
+        }
+        return unitVectors;
+    }
+}
@@ -31,7 +31,18 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
      * @param when the date for which the conversion must hold
      */
     public EclipticToEquatorialConversion(ZonedDateTime when) {
-        double eclipticObliquity = ECL_OBL_POLYNOMIAL.at(Epoch.J2000.julianCenturiesUntil(when));
+        this(Epoch.epochMillis(when));
+    }
+
+    /**
+     * Constructs the conversion system from Ecliptic to Equatorial coordinates
+     * at the given instant
+     *
+     * @param epochMillis the instant for which the conversion must hold, in milliseconds since 1970-01-01T00:00Z
+     * @see Epoch#epochMillis(ZonedDateTime)
+     */
+    public EclipticToEquatorialConversion(long epochMillis) {
+        double eclipticObliquity = ECL_OBL_POLYNOMIAL.at(Epoch.J2000.julianCenturiesUntil(epochMillis));
 
         cosObli = Math.cos(eclipticObliquity);
         sinObli = Math.sin(eclipticObliquity);
@@ -52,6 +63,25 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
         return EquatorialCoordinates.of(Angle.normalizePositive(rightAscension), declination);
     }
 
+    /**
+     * Converts the point of ecliptic longitude lon and ecliptic latitude lat, writing its right ascension
+     * in equatorial[offset] and its declination in equatorial[offset + 1].<br>
+     * Gives exactly the same coordinates as apply, but without creating any object.
+     *
+     * @param lon        the ecliptic longitude of the point (in radians)
+     * @param lat        the ecliptic latitude of the point (in radians)
+     * @param equatorial the array in which the equatorial coordinates are written
+     * @param offset     the index at which the right ascension is written
+     */
+    public void apply(double lon, double lat, double[] equatorial, int offset) {
+        double sinLon = Math.sin(lon);
+        double rightAscension = Math.atan2(sinLon * cosObli - Math.tan(lat) * sinObli, Math.cos(lon));
+        double declination = Math.asin(Math.sin(lat) * cosObli + Math.cos(lat) * sinObli * sinLon);
+
+        equatorial[offset] = Angle.normalizePositive(rightAscension);
+        equatorial[offset + 1] = declination;
+    }
+
     @Override
     public int hashCode() {
         throw new UnsupportedOperationException();
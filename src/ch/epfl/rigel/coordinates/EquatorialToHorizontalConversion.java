@@ -1,5 +1,6 @@
 package ch.epfl.rigel.coordinates;
 
+import ch.epfl.rigel.astronomy.Epoch;
 import ch.epfl.rigel.astronomy.SiderealTime;
 import ch.epfl.rigel.math.Angle;
 
@@ -27,7 +28,19 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
      * @param where the place where the conversion must hold
      */
     public EquatorialToHorizontalConversion(ZonedDateTime when, GeographicCoordinates where) {
-        localSidereal = SiderealTime.local(when, where);
+        this(Epoch.epochMillis(when), where);
+    }
+
+    /**
+     * Constructs the conversion system from Equatorial to Horizontal coordinates
+     * for the given instant and the given place where
+     *
+     * @param epochMillis the instant for which the conversion must hold, in milliseconds since 1970-01-01T00:00Z
+     * @param where       the place where the conversion must hold
+     * @see Epoch#epochMillis(ZonedDateTime)
+     */
+    public EquatorialToHorizontalConversion(long epochMillis, GeographicCoordinates where) {
+        localSidereal = SiderealTime.local(epochMillis, where);
 
         cosLat = Math.cos(where.lat());
         sinLat = Math.sin(where.lat());
@@ -53,6 +66,119 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
         return HorizontalCoordinates.of(Angle.normalizePositive(azimuth), altitude);
     }
 
+    /**
+     * Converts the points whose equatorial coordinates are given by the arrays ra and dec, from index
+     * from (inclusive) to index to (exclusive). The azimuth, the cosine and the sine of the altitude
+     * of the i-th point are written in horizontal[3 * i], horizontal[3 * i + 1] and horizontal[3 * i + 2].<br>
+     * Gives exactly the same azimuths and altitudes as apply, but without creating any object.
+     *
+     * @param ra         the right ascensions of the points (in radians)
+     * @param dec        the declinations of the points (in radians)
+     * @param horizontal the array in which the horizontal coordinates are written
+     * @param from       the index of the first point to convert
+     * @param to         the index after the last point to convert
+     * @see StereographicProjection#applyToHorizontal(double[], int[], double[], int, int)
+     */
+    public void applyToArrays(double[] ra, double[] dec, double[] horizontal, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double hourAngle = localSidereal - ra[i];
+
+            double sinDec = Math.sin(dec[i]);
+            double cosDecCosLat = Math.cos(dec[i]) * cosLat;
+            double sinAltitude = (sinDec * sinLat) + (cosDecCosLat * Math.cos(hourAngle));
+
+            double altitude = Math.asin(sinAltitude);
+            double azimuth = Math.atan2(-cosDecCosLat * Math.sin(hourAngle), sinDec - (sinLat * sinAltitude));
+
+            horizontal[3 * i] = Angle.normalizePositive(azimuth);
+            horizontal[3 * i + 1] = Math.cos(altitude);
+            horizontal[3 * i + 2] = Math.sin(altitude);
+        }
+    }
+
+    /**
+     * Converts the points given by their unit vectors in the equatorial frame
+     * ([cos(dec) cos(ra), cos(dec) sin(ra), sin(dec), ...]), from index from (inclusive) to index
+     * to (exclusive), into their unit vectors in the horizontal frame
+     * ([cos(alt) cos(az), cos(alt) sin(az), sin(alt), ...]).<br>
+     * The vectors are only rotated by the hour angle and the latitude, without any trigonometric
+     * function per point, so the coordinates are the same as the ones of apply up to rounding errors.
+     *
+     * @param unitVectors       the equatorial unit vectors of the points
+     * @param horizontalVectors the array in which the horizontal unit vectors are written
+     * @param from              the index of the first point to convert
+     * @param to                the index after the last point to convert
+     * @see StereographicProjection#applyToHorizontalVectors(double[], int[], double[], int, int)
+     */
+    public void applyToVectors(double[] unitVectors, double[] horizontalVectors, int from, int to) {
+        double cosSidereal = Math.cos(localSidereal);
+        double sinSidereal = Math.sin(localSidereal);
+
+        for (int i = from; i < to; i++) {
+            double cosDecCosRa = unitVectors[3 * i];
+            double cosDecSinRa = unitVectors[3 * i + 1];
+            double sinDec = unitVectors[3 * i + 2];
+
+            //Rotation by the hour angle (H = localSidereal - ra)
+            double cosDecCosH = cosDecCosRa * cosSidereal + cosDecSinRa * sinSidereal;
+            double cosDecSinH = cosDecCosRa * sinSidereal - cosDecSinRa * cosSidereal;
+
+            //Rotation by the latitude
+            horizontalVectors[3 * i] = sinDec * cosLat - cosDecCosH * sinLat;
+            horizontalVectors[3 * i + 1] = -cosDecSinH;
+            horizontalVectors[3 * i + 2] = sinDec * sinLat + cosDecCosH * cosLat;
+        }
+    }
+
+    /**
+     * Converts the Horizontal Coordinates back to Equatorial Coordinates (inverse of apply)
+     *
+     * @param hor the Horizontal Coordinates that needs to be converted
+     * @return the converted coordinates in Equatorial Coordinates
+     */
+    public EquatorialCoordinates inverseApply(HorizontalCoordinates hor) {
+        double sinAlt = Math.sin(hor.alt());
+        double cosAltCosAz = Math.cos(hor.alt()) * Math.cos(hor.az());
+        double cosAltSinAz = Math.cos(hor.alt()) * Math.sin(hor.az());
+
+        //Inverse of the rotation by the latitude
+        double sinDec = sinAlt * sinLat + cosAltCosAz * cosLat;
+        double cosDecCosH = sinAlt * cosLat - cosAltCosAz * sinLat;
+        double cosDecSinH = -cosAltSinAz;
+
+        double hourAngle = Math.atan2(cosDecSinH, cosDecCosH);
+        double declination = Math.asin(Math.max(-1, Math.min(1, sinDec)));
+
+        return EquatorialCoordinates.of(Angle.normalizePositive(localSidereal - hourAngle), declination);
+    }
+
+    /**
+     * Gets the local sidereal time of the conversion system
+     *
+     * @return the local sidereal time (in radians)
+     */
+    double localSidereal() {
+        return localSidereal;
+    }
+
+    /**
+     * Gets the cosine of the latitude of the place of the conversion system
+     *
+     * @return the cosine of the latitude
+     */
+    double cosLat() {
+        return cosLat;
+    }
+
+    /**
+     * Gets the sine of the latitude of the place of the conversion system
+     *
+     * @return the sine of the latitude
+     */
+    double sinLat() {
+        return sinLat;
+    }
+
     @Override
     public int hashCode() {
         throw new UnsupportedOperationException();
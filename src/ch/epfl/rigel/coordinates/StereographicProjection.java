@@ -35,6 +35,15 @@ public final class StereographicProjection implements Function<HorizontalCoordin
         centerCoord = center;
     }
 
+    /**
+     * Gets the center of the projection
+     *
+     * @return the horizontal coordinates of the center of the projection
+     */
+    public HorizontalCoordinates center() {
+        return centerCoord;
+    }
+
     /**
      * Gets the cartesian coordinates of the circle corresponding to the projection
      * of the parallel passing through the point hor (Horizontal Coordinates)
@@ -122,6 +131,171 @@ public final class StereographicProjection implements Function<HorizontalCoordin
         return CartesianCoordinates.of(x, y);
     }
 
+    /**
+     * Converts to horizontal coordinates with the given conversion, then projects, the points
+     * whose equatorial coordinates are given by the arrays ra and dec, from index from (inclusive)
+     * to index to (exclusive). The x and y coordinates of the projection of the i-th point are
+     * written in xy[2 * i] and xy[2 * i + 1].<br>
+     * Gives exactly the same results as {@code apply(conversion.apply(EquatorialCoordinates.of(ra[i], dec[i])))},
+     * but without creating any object.
+     *
+     * @param conversion the conversion from equatorial to horizontal coordinates
+     * @param ra         the right ascensions of the points (in radians)
+     * @param dec        the declinations of the points (in radians)
+     * @param xy         the array in which the projected coordinates are written
+     * @param from       the index of the first point to project
+     * @param to         the index after the last point to project
+     */
+    public void applyToEquatorial(EquatorialToHorizontalConversion conversion, double[] ra, double[] dec,
+                                  double[] xy, int from, int to) {
+        double localSidereal = conversion.localSidereal();
+        double cosLat = conversion.cosLat();
+        double sinLat = conversion.sinLat();
+
+        for (int i = from; i < to; i++) {
+            //Conversion to horizontal coordinates (same computations as the conversion)
+            double hourAngle = localSidereal - ra[i];
+
+            double sinDec = Math.sin(dec[i]);
+            double cosDecCosLat = Math.cos(dec[i]) * cosLat;
+            double sinAltitude = (sinDec * sinLat) + (cosDecCosLat * Math.cos(hourAngle));
+
+            double altitude = Math.asin(sinAltitude);
+            double azimuth = Angle.normalizePositive(
+                    Math.atan2(-cosDecCosLat * Math.sin(hourAngle), sinDec - (sinLat * sinAltitude)));
+
+            //Projection (same computations as apply)
+            double cosPhi = Math.cos(altitude);
+            double sinPhi = Math.sin(altitude);
+
+            double lambdaDelta = azimuth - azCenter;
+
+            double cosPhiCosLambda = cosPhi * Math.cos(lambdaDelta);
+
+            double d = 1.0 / (1.0 + sinPhi * sinPhiCenter + cosPhiCosLambda * cosPhiCenter);
+
+            xy[2 * i] = d * cosPhi * Math.sin(lambdaDelta);
+            xy[2 * i + 1] = d * (sinPhi * cosPhiCenter - cosPhiCosLambda * sinPhiCenter);
+        }
+    }
+
+    /**
+     * Converts to horizontal coordinates with the given conversion, then projects, the points
+     * given by their unit vectors in the equatorial frame ([cos(dec) cos(ra), cos(dec) sin(ra), sin(dec), ...]),
+     * from index from (inclusive) to index to (exclusive). The x and y coordinates of the projection
+     * of the i-th point are written in xy[2 * i] and xy[2 * i + 1].<br>
+     * The vectors are only rotated by the hour angle and the latitude, then projected, without
+     * any trigonometric function per point. The results are the same as the ones of
+     * {@link #applyToEquatorial(EquatorialToHorizontalConversion, double[], double[], double[], int, int)}
+     * up to rounding errors.
+     *
+     * @param conversion  the conversion from equatorial to horizontal coordinates
+     * @param unitVectors the equatorial unit vectors of the points
+     * @param xy          the array in which the projected coordinates are written
+     * @param from        the index of the first point to project
+     * @param to          the index after the last point to project
+     */
+    public void applyToEquatorialVectors(EquatorialToHorizontalConversion conversion, double[] unitVectors,
+                                         double[] xy, int from, int to) {
+        double cosSidereal = Math.cos(conversion.localSidereal());
+        double sinSidereal = Math.sin(conversion.localSidereal());
+        double cosLat = conversion.cosLat();
+        double sinLat = conversion.sinLat();
+        double cosAzCenter = Math.cos(azCenter);
+        double sinAzCenter = Math.sin(azCenter);
+
+        for (int i = from; i < to; i++) {
+            double cosDecCosRa = unitVectors[3 * i];
+            double cosDecSinRa = unitVectors[3 * i + 1];
+            double sinDec = unitVectors[3 * i + 2];
+
+            //Rotation by the hour angle (H = localSidereal - ra)
+            double cosDecCosH = cosDecCosRa * cosSidereal + cosDecSinRa * sinSidereal;
+            double cosDecSinH = cosDecCosRa * sinSidereal - cosDecSinRa * cosSidereal;
+
+            //Rotation by the latitude: horizontal unit vector (cos(alt) cos(az), cos(alt) sin(az), sin(alt))
+            double sinAlt = sinDec * sinLat + cosDecCosH * cosLat;
+            double cosAltCosAz = sinDec * cosLat - cosDecCosH * sinLat;
+            double cosAltSinAz = -cosDecSinH;
+
+            //Projection, with lambdaDelta = az - azCenter
+            double cosPhiCosLambda = cosAltCosAz * cosAzCenter + cosAltSinAz * sinAzCenter;
+            double cosPhiSinLambda = cosAltSinAz * cosAzCenter - cosAltCosAz * sinAzCenter;
+
+            double d = 1.0 / (1.0 + sinAlt * sinPhiCenter + cosPhiCosLambda * cosPhiCenter);
+
+            xy[2 * i] = d * cosPhiSinLambda;
+            xy[2 * i + 1] = d * (sinAlt * cosPhiCenter - cosPhiCosLambda * sinPhiCenter);
+        }
+    }
+
+    /**
+     * Projects the points given by their horizontal coordinates in the layout written by
+     * {@link EquatorialToHorizontalConversion#applyToArrays(double[], double[], double[], int, int)}
+     * ([az, cos(alt), sin(alt), ...]). The x and y coordinates of the projection of the point indices[i]
+     * (or i if indices is null), for i from from (inclusive) to to (exclusive), are written in xy[2 * i]
+     * and xy[2 * i + 1].<br>
+     * Gives exactly the same results as apply, but without creating any object.
+     *
+     * @param horizontal the horizontal coordinates of the points
+     * @param indices    the indexes of the points to project (null to project the points from to to)
+     * @param xy         the array in which the projected coordinates are written
+     * @param from       the index in xy of the first point to project
+     * @param to         the index in xy after the last point to project
+     */
+    public void applyToHorizontal(double[] horizontal, int[] indices, double[] xy, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int point = indices == null ? i : indices[i];
+            double cosPhi = horizontal[3 * point + 1];
+            double sinPhi = horizontal[3 * point + 2];
+
+            double lambdaDelta = horizontal[3 * point] - azCenter;
+
+            double cosPhiCosLambda = cosPhi * Math.cos(lambdaDelta);
+
+            double d = 1.0 / (1.0 + sinPhi * sinPhiCenter + cosPhiCosLambda * cosPhiCenter);
+
+            xy[2 * i] = d * cosPhi * Math.sin(lambdaDelta);
+            xy[2 * i + 1] = d * (sinPhi * cosPhiCenter - cosPhiCosLambda * sinPhiCenter);
+        }
+    }
+
+    /**
+     * Projects the points given by their unit vectors in the horizontal frame, as written by
+     * {@link EquatorialToHorizontalConversion#applyToVectors(double[], double[], int, int)}
+     * ([cos(alt) cos(az), cos(alt) sin(az), sin(alt), ...]). The x and y coordinates of the projection
+     * of the point indices[i] (or i if indices is null), for i from from (inclusive) to to (exclusive),
+     * are written in xy[2 * i] and xy[2 * i + 1].<br>
+     * No trigonometric function is computed per point. The results are exactly the same as the ones of
+     * {@link #applyToEquatorialVectors(EquatorialToHorizontalConversion, double[], double[], int, int)}.
+     *
+     * @param horizontalVectors the horizontal unit vectors of the points
+     * @param indices           the indexes of the points to project (null to project the points from to to)
+     * @param xy                the array in which the projected coordinates are written
+     * @param from              the index in xy of the first point to project
+     * @param to                the index in xy after the last point to project
+     */
+    public void applyToHorizontalVectors(double[] horizontalVectors, int[] indices, double[] xy, int from, int to) {
+        double cosAzCenter = Math.cos(azCenter);
+        double sinAzCenter = Math.sin(azCenter);
+
+        for (int i = from; i < to; i++) {
+            int point = indices == null ? i : indices[i];
+            double cosAltCosAz = horizontalVectors[3 * point];
+            double cosAltSinAz = horizontalVectors[3 * point + 1];
+            double sinAlt = horizontalVectors[3 * point + 2];
+
+            //Projection, with lambdaDelta = az - azCenter
+            double cosPhiCosLambda = cosAltCosAz * cosAzCenter + cosAltSinAz * sinAzCenter;
+            double cosPhiSinLambda = cosAltSinAz * cosAzCenter - cosAltCosAz * sinAzCenter;
+
+            double d = 1.0 / (1.0 + sinAlt * sinPhiCenter + cosPhiCosLambda * cosPhiCenter);
+
+            xy[2 * i] = d * cosPhiSinLambda;
+            xy[2 * i + 1] = d * (sinAlt * cosPhiCenter - cosPhiCosLambda * sinPhiCenter);
+        }
+    }
+
     /**
      * Computes and returns the horizontal coordinates for the point whose
      * projection is given by the cartesian coordinates xy
@@ -8,12 +8,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Class that offers a method to get the color of
- * a black body given its temperature
+ * a black body given its temperature<br>
+ * The colors are stored in a table indexed by the temperature, rounded to the closest
+ * multiple of 100 K, so that the color of a temperature can be found by its index in
+ * the table, as a Color or as a packed ARGB integer (for the renderers writing pixels).
  *
  * @author Robin Goumaz (301420)
  * @author Ozan Güven (297076)
@@ -21,20 +22,25 @@ import java.util.Map;
 public final class BlackBodyColor {
 
     private static final String BBR_COLOR_CATALOGUE_NAME = "/bbr_color.txt";
-    private static final Map<Integer, Color> KELVIN_RGB = initializeMap();
 
-    private static final ClosedInterval INTERVAL = ClosedInterval.of(1000, 40000);
+    private static final int MIN_TEMPERATURE = 1000;
+    private static final int MAX_TEMPERATURE = 40000;
+    private static final int TEMPERATURE_STEP = 100;
+    private static final ClosedInterval INTERVAL = ClosedInterval.of(MIN_TEMPERATURE, MAX_TEMPERATURE);
+
+    private static final int[] ARGB = initializeTable();
+    private static final Color[] COLORS = initializeColors();
 
     private BlackBodyColor() {
     }
 
     /**
-     * Initializes the map
+     * Initializes the table of the colors as packed ARGB integers
      *
-     * @return the map
+     * @return the table, indexed by the color index
      */
-    private static Map<Integer, Color> initializeMap() {
-        HashMap<Integer, Color> kelvinRGB = new HashMap<>();
+    private static int[] initializeTable() {
+        int[] argb = new int[(MAX_TEMPERATURE - MIN_TEMPERATURE) / TEMPERATURE_STEP + 1];
 
         try (BufferedReader stream = new BufferedReader(
                 new InputStreamReader(BlackBodyColor.class.getResourceAsStream(BBR_COLOR_CATALOGUE_NAME)))) {
@@ -42,11 +48,25 @@ public final class BlackBodyColor {
                     .filter(l -> l.charAt(0) != '#') //filters all lines with '#'
                     .map(l -> l.trim().split("\\s+")) //trims the string and "\\s+" takes into account multiple spaces such as "   "
                     .filter(s -> !s[2].equals("2deg")) //filters all lines with 2deg
-                    .forEachOrdered(s -> kelvinRGB.put(Integer.parseInt(s[0]), Color.web(s[s.length - 1])));
+                    .forEachOrdered(s -> argb[(Integer.parseInt(s[0]) - MIN_TEMPERATURE) / TEMPERATURE_STEP] =
+                            0xFF000000 | Integer.parseInt(s[s.length - 1].substring(1), 16)); //"#rrggbb", opaque
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-        return kelvinRGB;
+        return argb;
+    }
+
+    /**
+     * Initializes the table of the colors from the packed ARGB integers
+     *
+     * @return the table, indexed by the color index
+     */
+    private static Color[] initializeColors() {
+        Color[] colors = new Color[ARGB.length];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = Color.rgb((ARGB[i] >> 16) & 0xFF, (ARGB[i] >> 8) & 0xFF, ARGB[i] & 0xFF);
+        }
+        return colors;
     }
 
     /**
@@ -58,27 +78,51 @@ public final class BlackBodyColor {
      * @throws IllegalArgumentException if the temperature is not in [1000 K, 40000 K]
      */
     public static Color colorForTemperature(double temperatureKelvin) {
-        int closestTemp = closestHundredMultiple(Preconditions.checkInInterval(INTERVAL, temperatureKelvin));
+        return COLORS[colorIndex(temperatureKelvin)];
+    }
+
+    /**
+     * Gets the index of the color of a black body given its temperature in Kelvin
+     * (the index of its temperature rounded to the closest multiple of 100 K, from 0 for 1000 K)
+     *
+     * @param temperatureKelvin the temperature in Kelvin
+     * @return the color index, in [0, colorCount()[
+     * @throws IllegalArgumentException if the temperature is not in [1000 K, 40000 K]
+     */
+    public static int colorIndex(double temperatureKelvin) {
+        //The temperature is truncated before being rounded to the closest multiple of 100 (upwards if it ends with 50)
+        int truncated = (int) Math.floor(Preconditions.checkInInterval(INTERVAL, temperatureKelvin));
+        return (truncated - MIN_TEMPERATURE + TEMPERATURE_STEP / 2) / TEMPERATURE_STEP;
+    }
 
-        return KELVIN_RGB.get(closestTemp);
+    /**
+     * Gets the number of colors, the color indexes being in [0, colorCount()[
+     *
+     * @return the number of colors
+     */
+    public static int colorCount() {
+        return COLORS.length;
     }
 
     /**
-     * Gets the closet multiple of 100 for the given number
+     * Gets the color of the given color index
      *
-     * @param number the number to be rounded
-     * @return the closest multiple of 100
+     * @param colorIndex the color index
+     * @return the color of the black body
+     * @throws IndexOutOfBoundsException if the color index is not in [0, colorCount()[
      */
-    private static int closestHundredMultiple(double number) {
-        int numberRound = (int) Math.floor(number);
-        int numberModulo = numberRound % 100;
+    public static Color color(int colorIndex) {
+        return COLORS[colorIndex];
+    }
 
-        if (numberModulo == 0) {
-            return numberRound;
-        } else if (numberModulo >= 50) {
-            return numberRound + (100 - numberModulo);
-        } else {
-            return numberRound - numberModulo;
-        }
+    /**
+     * Gets the color of the given color index as a packed (opaque) ARGB integer
+     *
+     * @param colorIndex the color index
+     * @return the color of the black body, 0xAARRGGBB
+     * @throws IndexOutOfBoundsException if the color index is not in [0, colorCount()[
+     */
+    public static int argb(int colorIndex) {
+        return ARGB[colorIndex];
     }
 }
@@ -1,6 +1,8 @@
 package ch.epfl.rigel.gui;
 
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
 
 import java.time.LocalDate;
@@ -9,7 +11,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 /**
- * A ZonedDateTime bean
+ * A ZonedDateTime bean. The date, the time and the zone can be observed separately,
+ * or all together, with only one change per update, through the zoned date time property.
  *
  * @author Robin Goumaz (301420)
  * @author Ozan Güven (297076)
@@ -18,6 +21,9 @@ public final class DateTimeBean {
     private final ObjectProperty<LocalDate> date = new SimpleObjectProperty<>(null);
     private final ObjectProperty<LocalTime> time = new SimpleObjectProperty<>(null);
     private final ObjectProperty<ZoneId> zone = new SimpleObjectProperty<>(null);
+    private final ReadOnlyObjectWrapper<ZonedDateTime> zonedDateTime = new ReadOnlyObjectWrapper<>(null);
+
+    private boolean updatingAll; //True while setZonedDateTime sets the date, the time and the zone
 
     /**
      * Constructor of DateTimeBean initializing the properties to the default date initialDate
@@ -25,6 +31,7 @@ public final class DateTimeBean {
      * @param initialDate the first date to use
      */
     public DateTimeBean(ZonedDateTime initialDate) {
+        this();
         setZonedDateTime(initialDate);
     }
 
@@ -32,6 +39,19 @@ public final class DateTimeBean {
      * Default constructor of DateTimeBean
      */
     public DateTimeBean() {
+        date.addListener((o, oV, nV) -> updateZonedDateTime());
+        time.addListener((o, oV, nV) -> updateZonedDateTime());
+        zone.addListener((o, oV, nV) -> updateZonedDateTime());
+    }
+
+    /**
+     * Updates the zoned date time after a change of the date, the time or the zone alone
+     */
+    private void updateZonedDateTime() {
+        if (!updatingAll)
+            zonedDateTime.set(getDate() == null || getTime() == null || getZone() == null
+                    ? null
+                    : ZonedDateTime.of(getDate(), getTime(), getZone()));
     }
 
     /**
@@ -121,17 +141,34 @@ public final class DateTimeBean {
      * @return (ZonedDateTime)
      */
     public ZonedDateTime getZonedDateTime() {
-        return ZonedDateTime.of(getDate(), getTime(), getZone());
+        return zonedDateTime.get();
+    }
+
+    /**
+     * Getter for the zoned date time property, which changes only once per update,
+     * even if the date, the time and the zone are all modified
+     *
+     * @return (ReadOnlyObjectProperty < ZonedDateTime >)
+     */
+    public ReadOnlyObjectProperty<ZonedDateTime> zonedDateTimeProperty() {
+        return zonedDateTime.getReadOnlyProperty();
     }
 
     /**
-     * Setter for the zoned date time
+     * Setter for the zoned date time (the date, the time and the zone are updated,
+     * then the zoned date time property is modified once)
      *
      * @param newDate (ZonedDateTime) new zoned date time to be set
      */
     public void setZonedDateTime(ZonedDateTime newDate) {
-        setDate(newDate.toLocalDate());
-        setTime(newDate.toLocalTime());
-        setZone(newDate.getZone());
+        updatingAll = true;
+        try {
+            setDate(newDate.toLocalDate());
+            setTime(newDate.toLocalTime());
+            setZone(newDate.getZone());
+        } finally {
+            updatingAll = false;
+        }
+        zonedDateTime.set(newDate);
     }
 }
@@ -1,6 +1,7 @@
 package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.BinaryCatalogueLoader;
 import ch.epfl.rigel.astronomy.HygDatabaseLoader;
 import ch.epfl.rigel.astronomy.StarCatalogue;
 import ch.epfl.rigel.coordinates.CityCoordinates;
@@ -28,7 +29,9 @@ import javafx.util.converter.NumberStringConverter;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.time.LocalDate;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -73,12 +76,21 @@ public class Main extends Application {
         StarCatalogue catalogue;
         Font fontForButtons;
 
-        try (InputStream hygDataLoader = resourceStream("/hygdata_v3.csv");
-             InputStream astLoader = resourceStream("/asterisms.txt")) {
-            catalogue = new StarCatalogue.Builder()
-                    .loadFrom(hygDataLoader, HygDatabaseLoader.INSTANCE)
-                    .loadFrom(astLoader, AsterismLoader.INSTANCE)
+        //The binary catalogue (see BinaryCatalogueConverter) is used if it is present in the resources
+        URL binaryCatalogue = getClass().getResource("/catalogue.bin");
+        if (binaryCatalogue != null) {
+            catalogue = loadBinaryCatalogue(binaryCatalogue)
+                    .sortByMagnitude()
                     .build();
+        } else {
+            try (InputStream hygDataLoader = resourceStream("/hygdata_v3.csv");
+                 InputStream astLoader = resourceStream("/asterisms.txt")) {
+                catalogue = new StarCatalogue.Builder()
+                        .loadFrom(hygDataLoader, HygDatabaseLoader.INSTANCE)
+                        .loadFrom(astLoader, AsterismLoader.INSTANCE)
+                        .sortByMagnitude() //The faint stars are not projected when the field of view is wide
+                        .build();
+            }
         }
 
         try (InputStream fontStream = resourceStream("/Font Awesome 5 Free-Solid-900.otf")) {
@@ -104,7 +116,8 @@ public class Main extends Application {
                 new SkyCanvasManager(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean);
 
         Canvas sky = canvasManager.canvas();
-        Pane skyPane = new Pane(sky);
+        Pane skyPane = new Pane();
+        skyPane.getChildren().addAll(canvasManager.layers()); //The other layers have the size of the sky canvas
 
         sky.widthProperty().bind(skyPane.widthProperty());
         sky.heightProperty().bind(skyPane.heightProperty());
@@ -248,9 +261,7 @@ public class Main extends Application {
         resetButton.disableProperty().bind(timeAnimator.runningProperty());
 
         resetButton.setOnAction((pressed) -> {
-            dateTimeBean.setDate(LocalDate.now());
-            dateTimeBean.setTime(LocalTime.now());
-            dateTimeBean.setZone(ZoneId.systemDefault());
+            dateTimeBean.setZonedDateTime(ZonedDateTime.now());
         });
 
         Button playPauseButton = new Button(PLAY);
@@ -313,6 +324,30 @@ public class Main extends Application {
         return new BorderPane(closestObject, null, horCoord, null, fieldOfViewText);
     }
 
+    /**
+     * Loads the binary catalogue of the given resource, mapped in memory if the resource is a file
+     * and read from its stream otherwise (e.g. if it is in a JAR)
+     *
+     * @param resource the URL of the binary catalogue
+     * @return the builder containing the stars and asterisms of the catalogue
+     * @throws IOException in case of an input/output exception or if the resource is not a valid binary catalogue
+     */
+    private static StarCatalogue.Builder loadBinaryCatalogue(URL resource) throws IOException {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        if (resource.getProtocol().equals("file")) {
+            try {
+                BinaryCatalogueLoader.INSTANCE.load(Path.of(resource.toURI()), builder);
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        } else {
+            try (InputStream stream = resource.openStream()) {
+                builder.loadFrom(stream, BinaryCatalogueLoader.INSTANCE);
+            }
+        }
+        return builder;
+    }
+
     private InputStream resourceStream(String resourceName) {
         return getClass().getResourceAsStream(resourceName);
     }
@@ -0,0 +1,163 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the observed skies on a background thread, so that the JavaFX application thread
+ * is not blocked by the projection of large catalogues.<br>
+ * The requests are computed one after the other in their order, a request superseded by a newer one
+ * before its computation started is cancelled, and only the latest completed sky is handed to the
+ * application thread (the skies completed in between being dropped).
+ * The requests and the observed sky property must only be used from the application thread.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class ObservedSkyComputer {
+
+    private final StarCatalogue catalogue;
+    private final Executor handoff;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Observed sky computation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadOnlyObjectWrapper<ObservedSky> observedSky;
+    private final AtomicReference<Result> completed = new AtomicReference<>(); //Latest result not handed off yet
+
+    private long lastSequence; //Sequence number of the last request
+    private long publishedSequence; //Sequence number of the published sky
+    private Future<?> pending;
+
+    private ObservedSky lastComputed; //Only used by the worker thread (after the construction)
+
+    /**
+     * Creates a computer handing the skies off to the JavaFX application thread, and computes
+     * synchronously the first sky
+     *
+     * @param when        the first date and time of the observation
+     * @param where       the first position of the observer
+     * @param projection  the first projection
+     * @param catalogue   the catalogue of the stars and asterisms
+     * @param parameters  the first parameters of the computation of the sky
+     */
+    ObservedSkyComputer(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection,
+                        StarCatalogue catalogue, ObservedSky.Parameters parameters) {
+        this(when, where, projection, catalogue, parameters, Platform::runLater);
+    }
+
+    /**
+     * Creates a computer handing the skies off with the given executor, and computes synchronously
+     * the first sky
+     *
+     * @param when        the first date and time of the observation
+     * @param where       the first position of the observer
+     * @param projection  the first projection
+     * @param catalogue   the catalogue of the stars and asterisms
+     * @param parameters  the first parameters of the computation of the sky
+     * @param handoff     the executor running the publication of the skies on the thread using them
+     */
+    ObservedSkyComputer(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection,
+                        StarCatalogue catalogue, ObservedSky.Parameters parameters, Executor handoff) {
+        this.catalogue = catalogue;
+        this.handoff = handoff;
+        observedSky = new ReadOnlyObjectWrapper<>(compute(when, where, projection, parameters));
+    }
+
+    /**
+     * Requests the computation of the sky at the given date and time, position, projection and parameters.
+     * The previous request is cancelled if its computation has not started yet.
+     * If the computation fails, its exception is passed to the uncaught exception handler of the worker thread.
+     *
+     * @param when       the date and time of the observation
+     * @param where      the position of the observer
+     * @param projection the projection
+     * @param parameters the parameters of the computation of the sky
+     */
+    void request(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection,
+                 ObservedSky.Parameters parameters) {
+        long sequence = ++lastSequence;
+        if (pending != null)
+            pending.cancel(false);
+
+        pending = worker.submit(() -> {
+            try {
+                ObservedSky sky = compute(when, where, projection, parameters);
+                //A single handoff is scheduled at a time, it publishes the latest result completed when it runs
+                if (completed.getAndSet(new Result(sequence, sky)) == null)
+                    handoff.execute(this::publish);
+            } catch (RuntimeException e) {
+                //The future only serves to cancel the request, so the failure is reported as an uncaught exception
+                //of the worker (the published sky stays the previous one, and the next requests are still computed)
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        });
+    }
+
+    /**
+     * Gets the property containing the latest computed sky
+     *
+     * @return the observed sky property
+     */
+    ReadOnlyObjectProperty<ObservedSky> observedSkyProperty() {
+        return observedSky.getReadOnlyProperty();
+    }
+
+    /**
+     * Gets the latest computed sky
+     *
+     * @return the observed sky
+     */
+    ObservedSky getObservedSky() {
+        return observedSky.get();
+    }
+
+    private void publish() {
+        Result result = completed.getAndSet(null);
+        if (result != null && result.sequence > publishedSequence) {
+            publishedSequence = result.sequence;
+            observedSky.set(result.sky);
+        }
+    }
+
+    private ObservedSky compute(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection,
+                                ObservedSky.Parameters parameters) {
+        //The coordinates and the projection are the values of bindings, so they are the same objects as long as they do not change
+        if (lastComputed != null
+                && lastComputed.observerCoordinates() == where
+                && lastComputed.parameters().equals(parameters)) {
+            if (lastComputed.projection() == projection)
+                return lastComputed = lastComputed.advanceTo(when);
+            //Panning the sky only changes the projection, the sky at that time and place is only projected again
+            if (lastComputed.time().toInstant().equals(when.toInstant()))
+                return lastComputed = lastComputed.withProjection(projection);
+        }
+
+        return lastComputed = new ObservedSky(when, where, projection, catalogue, parameters);
+    }
+
+    private static final class Result {
+        private final long sequence;
+        private final ObservedSky sky;
+
+        private Result(long sequence, ObservedSky sky) {
+            this.sequence = sequence;
+            this.sky = sky;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import javafx.geometry.Point2D;
+import javafx.scene.transform.Transform;
+
+import java.util.Arrays;
+
+/**
+ * Geometry, on the canvas, of the grid of horizontal coordinates, of the horizon and of the cardinal
+ * and intercardinal points, which only depends on the projection, on the transform from the plane to
+ * the canvas and on the size of the canvas. It is computed once for them, so that the repaints only
+ * changing the time or the colors reuse it.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class OverlayGeometry {
+
+    private static final double TOLERANCE_CONSTANT = 1E12;
+
+    private final StereographicProjection projection;
+    private final Transform planeToCanvas;
+    private final double width;
+    private final double height;
+
+    private final double[] gridOvals; //x, y, width and height of each oval
+    private final double[] gridLines; //x1, y1, x2 and y2 of each line
+    private final double[] horizon; //Oval (x, y, width, height) or line (x1, y1, x2, y2)
+    private final boolean horizonIsLine;
+    private final String[] cardinalNames = new String[8];
+    private final double[] cardinalPositions = new double[2 * 8];
+
+    /**
+     * Computes the geometry of the overlays for the given projection, transform and size of the canvas
+     *
+     * @param projection    the projection used
+     * @param planeToCanvas the affine transformation to transform from
+     *                      cartesian coordinates to the coordinates of the screen
+     * @param width         the width of the canvas
+     * @param height        the height of the canvas
+     */
+    OverlayGeometry(StereographicProjection projection, Transform planeToCanvas, double width, double height) {
+        this.projection = projection;
+        this.planeToCanvas = planeToCanvas;
+        this.width = width;
+        this.height = height;
+
+        double[] ovals = new double[4 * (19 + 36)];
+        double[] lines = new double[4 * (19 + 36)];
+        int ovalCount = 0;
+        int lineCount = 0;
+        //The 19 latitudes, then the 36 longitudes
+        for (int i = 0; i < 19 + 36; i++) {
+            boolean parallel = i < 19;
+            HorizontalCoordinates coordForHorizon = parallel
+                    ? HorizontalCoordinates.ofDeg(0, 10 * (i - 9))
+                    : HorizontalCoordinates.ofDeg(10 * (i - 19), 0);
+            double radius = parallel
+                    ? projection.circleRadiusForParallel(coordForHorizon)
+                    : projection.circleRadiusForMeridian(coordForHorizon);
+            double diameter = planeToCanvas.deltaTransform(radius * 2, 0).getX();
+            if (diameter < TOLERANCE_CONSTANT) {
+                CartesianCoordinates center = parallel
+                        ? projection.circleCenterForParallel(coordForHorizon)
+                        : projection.circleCenterForMeridian(coordForHorizon);
+                Point2D circlePoint = planeToCanvas.transform(center.x(), center.y());
+                ovalCount = put(ovals, ovalCount,
+                        circlePoint.getX() - diameter / 2, circlePoint.getY() - diameter / 2, diameter, diameter);
+            } else {
+                lineCount = put(lines, lineCount, width / 2, 0, width / 2, height);
+            }
+        }
+        gridOvals = Arrays.copyOf(ovals, ovalCount);
+        gridLines = Arrays.copyOf(lines, lineCount);
+
+        HorizontalCoordinates coordForHorizon = HorizontalCoordinates.of(0, 0);
+        double circleRadiusForParallel = projection.circleRadiusForParallel(coordForHorizon);
+        horizon = new double[4];
+        horizonIsLine = circleRadiusForParallel > TOLERANCE_CONSTANT;
+        if (horizonIsLine) {
+            put(horizon, 0, 0, height / 2d, width, height / 2d);
+        } else {
+            double circleRadius = planeToCanvas.deltaTransform(circleRadiusForParallel * 2, 0).getX();
+            CartesianCoordinates circleCenter = projection.circleCenterForParallel(coordForHorizon);
+            Point2D circlePoint = planeToCanvas.transform(circleCenter.x(), circleCenter.y());
+            put(horizon, 0,
+                    circlePoint.getX() - circleRadius / 2, circlePoint.getY() - circleRadius / 2, circleRadius, circleRadius);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            HorizontalCoordinates coordOfCardinal = HorizontalCoordinates.ofDeg(i * 45, -0.5);
+            CartesianCoordinates coordOnProjection = projection.apply(coordOfCardinal);
+            Point2D cardinalPoint = planeToCanvas.transform(coordOnProjection.x(), coordOnProjection.y());
+            cardinalNames[i] = coordOfCardinal.azOctantName("N", "E", "S", "O");
+            cardinalPositions[2 * i] = cardinalPoint.getX();
+            cardinalPositions[2 * i + 1] = cardinalPoint.getY();
+        }
+    }
+
+    private static int put(double[] array, int index, double a, double b, double c, double d) {
+        array[index] = a;
+        array[index + 1] = b;
+        array[index + 2] = c;
+        array[index + 3] = d;
+        return index + 4;
+    }
+
+    /**
+     * Checks whether this geometry was computed for the given projection, transform and size of the canvas
+     * (the projection and the transform being the same objects)
+     *
+     * @param projection    the projection used
+     * @param planeToCanvas the affine transformation to transform from
+     *                      cartesian coordinates to the coordinates of the screen
+     * @param width         the width of the canvas
+     * @param height        the height of the canvas
+     * @return true if this geometry can be used for them
+     */
+    boolean isFor(StereographicProjection projection, Transform planeToCanvas, double width, double height) {
+        return this.projection == projection && this.planeToCanvas == planeToCanvas
+                && this.width == width && this.height == height;
+    }
+
+    /**
+     * Gets the ovals of the grid (the array must not be modified)
+     *
+     * @return the x, y, width and height of each oval
+     */
+    double[] gridOvals() {
+        return gridOvals;
+    }
+
+    /**
+     * Gets the lines of the grid, for the circles of infinite radius (the array must not be modified)
+     *
+     * @return the x1, y1, x2 and y2 of each line
+     */
+    double[] gridLines() {
+        return gridLines;
+    }
+
+    /**
+     * Gets whether the horizon is a line (its circle having an infinite radius) or an oval
+     *
+     * @return true if the horizon is a line
+     */
+    boolean horizonIsLine() {
+        return horizonIsLine;
+    }
+
+    /**
+     * Gets the horizon (the array must not be modified)
+     *
+     * @return the x1, y1, x2 and y2 of the line, or the x, y, width and height of the oval
+     */
+    double[] horizon() {
+        return horizon;
+    }
+
+    /**
+     * Gets the names of the cardinal and intercardinal points, from the north clockwise
+     * (the array must not be modified)
+     *
+     * @return the names of the points
+     */
+    String[] cardinalNames() {
+        return cardinalNames;
+    }
+
+    /**
+     * Gets the positions of the names of the cardinal and intercardinal points, in the order of
+     * cardinalNames (the array must not be modified)
+     *
+     * @return the x and y of each point
+     */
+    double[] cardinalPositions() {
+        return cardinalPositions;
+    }
+}
@@ -0,0 +1,76 @@
+package ch.epfl.rigel.gui;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Scheduler coalescing the repaint requests of a canvas: a request only marks the canvas
+ * as dirty, and the canvas is repainted at most once per JavaFX pulse, whatever the number
+ * of requests made in between.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class RepaintScheduler {
+
+    private final Runnable repaint;
+    private final Runnable pulseRequest;
+    private boolean dirty;
+
+    /**
+     * Creates a scheduler repainting at the next pulse of an animation timer, which only runs while
+     * a repaint is pending
+     *
+     * @param repaint the action painting the canvas
+     */
+    RepaintScheduler(Runnable repaint) {
+        this.repaint = repaint;
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                repaintIfDirty();
+            }
+        };
+        this.pulseRequest = timer::start;
+    }
+
+    /**
+     * Creates a scheduler calling the given action to be notified at the next pulse
+     *
+     * @param repaint      the action painting the canvas
+     * @param pulseRequest the action making sure that {@link #repaintIfDirty()} is called at the next pulse
+     */
+    RepaintScheduler(Runnable repaint, Runnable pulseRequest) {
+        this.repaint = repaint;
+        this.pulseRequest = pulseRequest;
+    }
+
+    /**
+     * Marks the canvas as dirty, it is repainted at the next pulse
+     */
+    void requestRepaint() {
+        if (!dirty) {
+            dirty = true;
+            pulseRequest.run();
+        }
+    }
+
+    /**
+     * Repaints the canvas if it is dirty (called once per pulse)
+     */
+    void repaintIfDirty() {
+        if (dirty) {
+            dirty = false; //Before painting, so that a request made while painting is done at the next pulse
+            repaint.run();
+        }
+    }
+
+    /**
+     * Gets whether a repaint is pending
+     *
+     * @return true if the canvas is dirty
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+}
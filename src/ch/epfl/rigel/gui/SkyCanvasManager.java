@@ -9,16 +9,19 @@ import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
 import ch.epfl.rigel.math.RightOpenInterval;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Point2D;
 import javafx.scene.Cursor;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.paint.Color;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
@@ -51,16 +54,24 @@ public final class SkyCanvasManager {
     private static final RightOpenInterval AZ_DEG_BOUNDS = RightOpenInterval.of(0, 360);
     private static final ClosedInterval ALT_DEG_BOUNDS = ClosedInterval.of(-90, 90);
 
+    private static final ObservedSky.Parameters SKY_PARAMETERS = ObservedSky.Parameters.DEFAULT.withSiderealRotation(true);
+
+    private static final double WIDEST_FIELD_LIMITING_MAGNITUDE = 6.5; //Naked eye limit, for the widest field of view
+    private static final double LIMITING_MAGNITUDE_STEP = 0.5; //The sky is only projected again when the limit changes
+    private static final double VIEW_RADIUS_MARGIN = Angle.ofDeg(1); //For the stars whose disc is partly in the canvas
+    private static final double VIEW_RADIUS_STEP = Angle.ofDeg(5); //The sky is only projected again when the radius changes
+
     private static final int MOVE_NORTH_SOUTH = 5;
     private static final int MOVE_EAST_WEST = 10;
 
     private final BooleanProperty drawAsterisms = new SimpleBooleanProperty(true);
     private final BooleanProperty allowDayNightCycle = new SimpleBooleanProperty(false);
     private final BooleanProperty drawHorizontalGrid = new SimpleBooleanProperty(false);
+    private final BooleanProperty rasterizeStars = new SimpleBooleanProperty(false);
 
     private final ObjectBinding<StereographicProjection> projection;
     private final ObjectBinding<Transform> planeToCanvas;
-    private final ObjectBinding<ObservedSky> observedSky;
+    private final ReadOnlyObjectProperty<ObservedSky> observedSky;
     private final ObjectProperty<Point2D> mousePosition = new SimpleObjectProperty<>(new Point2D(0, 0));
     private final ObjectBinding<HorizontalCoordinates> mouseHorizontalPosition;
 
@@ -68,8 +79,15 @@ public final class SkyCanvasManager {
     private final ObjectBinding<HorizontalCoordinates> moonCoordinates;
     private final ObjectBinding<List<HorizontalCoordinates>> planetsCoordinates;
 
-    private final Canvas skyCanvas;
+    private final Canvas skyCanvas; //Top layer, receiving the events, with the grid, the horizon and the cardinal points
+    private final Canvas backgroundCanvas;
+    private final Canvas starsCanvas;
+    private final Canvas solarSystemCanvas;
 
+    //Values of the sky with which the layers depending on them were drawn
+    private Color drawnSkyColor;
+    private double drawnOpacity;
+    private StereographicProjection drawnProjection;
 
     private final ObjectProperty<Point2D> firstDrag = new SimpleObjectProperty<>(new Point2D(0, 0));
     private final ObjectProperty<HorizontalCoordinates> firstCenter = new SimpleObjectProperty<>(HorizontalCoordinates.of(0, 0));
@@ -87,14 +105,16 @@ public final class SkyCanvasManager {
                             ObserverLocationBean observerLocationBean,
                             ViewingParametersBean viewingParametersBean) {
         skyCanvas = initiateSkyCanvas(viewingParametersBean);
-        SkyCanvasPainter painter = new SkyCanvasPainter(skyCanvas);
+        backgroundCanvas = initiateLayerCanvas();
+        starsCanvas = initiateLayerCanvas();
+        solarSystemCanvas = initiateLayerCanvas();
 
         projection = Bindings.createObjectBinding(() -> new StereographicProjection(viewingParametersBean.getCenter()),
                 viewingParametersBean.centerProperty());
 
-        observedSky = initiateObservedSky(dateTimeBean, observerLocationBean, catalogue, painter);
+        observedSky = initiateObservedSky(dateTimeBean, observerLocationBean, viewingParametersBean, catalogue);
 
-        planeToCanvas = initiatePlaneToCanvas(viewingParametersBean, painter);
+        planeToCanvas = initiatePlaneToCanvas(viewingParametersBean);
 
         objectUnderMouse = initiateObjectUnderMouse();
 
@@ -116,9 +136,7 @@ public final class SkyCanvasManager {
             }
         }, mouseHorizontalPosition);
 
-        drawAsterisms.addListener((o, oV, nV) -> painter.drawAll(observedSky.get(), projection.get(), planeToCanvas.get(), nV, allowDayNightCycle.get(), drawHorizontalGrid.get()));
-        allowDayNightCycle.addListener((o, oV, nV) -> painter.drawAll(observedSky.get(), projection.get(), planeToCanvas.get(), drawAsterisms.get(), nV, drawHorizontalGrid.get()));
-        drawHorizontalGrid.addListener((o, oV, nV) -> painter.drawAll(observedSky.get(), projection.get(), planeToCanvas.get(), drawAsterisms.get(), allowDayNightCycle.get(), nV));
+        initiateLayers();
 
         sunCoordinates = Bindings.createObjectBinding(() -> observedSky.get().sunHorizontalCoordinates(), observedSky);
         moonCoordinates = Bindings.createObjectBinding(() -> observedSky.get().moonHorizontalCoordinates(), observedSky);
@@ -134,6 +152,18 @@ public final class SkyCanvasManager {
         return skyCanvas;
     }
 
+    /**
+     * Gets the canvases on which the sky is drawn, to be stacked in this order (from the bottom to the top):
+     * the background, the stars and asterisms, the solar system, and the canvas with the grid, the horizon
+     * and the cardinal points (see canvas()), which receives the events. The other canvases have the size
+     * of this one.
+     *
+     * @return the layers of the sky
+     */
+    public List<Canvas> layers() {
+        return List.of(backgroundCanvas, starsCanvas, solarSystemCanvas, skyCanvas);
+    }
+
     /**
      * Getter fot the azimuth of the mouse
      *
@@ -215,6 +245,25 @@ public final class SkyCanvasManager {
         return drawHorizontalGrid;
     }
 
+    /**
+     * Getter for the rasterize stars boolean
+     *
+     * @return the rasterize stars boolean
+     */
+    public boolean isRasterizeStars() {
+        return rasterizeStars.get();
+    }
+
+    /**
+     * Getter for the rasterize stars property (the stars are drawn into a buffer of pixels
+     * instead of being drawn one by one on the canvas)
+     *
+     * @return the rasterize stars property
+     */
+    public BooleanProperty rasterizeStarsProperty() {
+        return rasterizeStars;
+    }
+
     /**
      * Getter for the day/night cycle property
      *
@@ -320,28 +369,149 @@ public final class SkyCanvasManager {
         return skyCanvas;
     }
 
-    private ObjectBinding<ObservedSky> initiateObservedSky(DateTimeBean dateTimeBean, ObserverLocationBean observerLocationBean, StarCatalogue catalogue, SkyCanvasPainter painter) {
-        ObjectBinding<ObservedSky> observedSky = Bindings.createObjectBinding(() ->
-                        new ObservedSky(dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(),
-                                projection.get(), catalogue),
-                dateTimeBean.dateProperty(), dateTimeBean.timeProperty(), dateTimeBean.zoneProperty(),
-                observerLocationBean.coordinatesProperty(), projection);
+    private Canvas initiateLayerCanvas() {
+        Canvas layer = new Canvas();
+        layer.widthProperty().bind(skyCanvas.widthProperty());
+        layer.heightProperty().bind(skyCanvas.heightProperty());
+        layer.setMouseTransparent(true);
+        return layer;
+    }
+
+    /**
+     * Paints the layers of the sky, each of them being repainted (at most once per pulse) only when
+     * the inputs it depends on change: when the time flows, the background is only repainted when the
+     * color of the sky changes, and the grid and horizon when the opacity of the colors or the projection
+     * changes. The painting reads every value, so each of them is valid again and notifies its next
+     * invalidation. The sky is drawn with its own projection, which is the current one once its
+     * computation is completed.
+     */
+    private void initiateLayers() {
+        SkyCanvasPainter backgroundPainter = new SkyCanvasPainter(backgroundCanvas);
+        RepaintScheduler background = new RepaintScheduler(() -> {
+            ObservedSky sky = observedSky.get();
+            backgroundPainter.clear(sky, allowDayNightCycle.get());
+            drawnSkyColor = new SkyColorManager(sky, allowDayNightCycle.get()).setSkyColor();
+        });
+
+        SkyCanvasPainter starsPainter = new SkyCanvasPainter(starsCanvas);
+        RepaintScheduler stars = new RepaintScheduler(() -> {
+            ObservedSky sky = observedSky.get();
+            starsPainter.clearTransparent(sky, allowDayNightCycle.get());
+            starsPainter.drawStars(sky, sky.projection(), planeToCanvas.get(), drawAsterisms.get(), rasterizeStars.get());
+        });
+
+        SkyCanvasPainter solarSystemPainter = new SkyCanvasPainter(solarSystemCanvas);
+        RepaintScheduler solarSystem = new RepaintScheduler(() -> {
+            ObservedSky sky = observedSky.get();
+            solarSystemPainter.clearTransparent(sky, allowDayNightCycle.get());
+            solarSystemPainter.drawPlanets(sky, sky.projection(), planeToCanvas.get());
+            solarSystemPainter.drawSun(sky, sky.projection(), planeToCanvas.get());
+            solarSystemPainter.drawMoon(sky, sky.projection(), planeToCanvas.get());
+        });
+
+        SkyCanvasPainter overlaysPainter = new SkyCanvasPainter(skyCanvas);
+        RepaintScheduler overlays = new RepaintScheduler(() -> {
+            ObservedSky sky = observedSky.get();
+            overlaysPainter.clearTransparent(sky, allowDayNightCycle.get());
+            if (drawHorizontalGrid.get())
+                overlaysPainter.drawGrid(sky.projection(), planeToCanvas.get());
+            overlaysPainter.drawHorizon(sky.projection(), planeToCanvas.get());
+            drawnOpacity = new SkyColorManager(sky, allowDayNightCycle.get()).opacity();
+            drawnProjection = sky.projection();
+        });
+
+        observedSky.addListener(o -> {
+            ObservedSky sky = observedSky.get();
+            SkyColorManager skyColorManager = new SkyColorManager(sky, allowDayNightCycle.get());
+            if (!skyColorManager.setSkyColor().equals(drawnSkyColor))
+                background.requestRepaint();
+            stars.requestRepaint();
+            solarSystem.requestRepaint();
+            if (skyColorManager.opacity() != drawnOpacity || sky.projection() != drawnProjection)
+                overlays.requestRepaint();
+        });
+        requestRepaintOn(background, allowDayNightCycle, skyCanvas.widthProperty(), skyCanvas.heightProperty());
+        requestRepaintOn(stars, planeToCanvas, allowDayNightCycle, drawAsterisms, rasterizeStars);
+        requestRepaintOn(solarSystem, planeToCanvas, allowDayNightCycle);
+        requestRepaintOn(overlays, planeToCanvas, allowDayNightCycle, drawHorizontalGrid);
+    }
+
+    private static void requestRepaintOn(RepaintScheduler layer, Observable... drawingInputs) {
+        for (Observable drawingInput : drawingInputs) {
+            drawingInput.addListener(o -> layer.requestRepaint());
+        }
+        layer.requestRepaint();
+    }
+
+    private ReadOnlyObjectProperty<ObservedSky> initiateObservedSky(DateTimeBean dateTimeBean, ObserverLocationBean observerLocationBean,
+                                                                    ViewingParametersBean viewingParametersBean, StarCatalogue catalogue) {
+        ObservedSkyComputer computer = new ObservedSkyComputer(dateTimeBean.getZonedDateTime(),
+                observerLocationBean.getCoordinates(), projection.get(), catalogue,
+                skyParameters(viewingParametersBean.getFieldOfViewDeg()));
+
+        //Requesting the sky reads every value, so each of them is valid again and notifies its next invalidation
+        for (Observable skyInput : List.of(dateTimeBean.zonedDateTimeProperty(), observerLocationBean.coordinatesProperty(),
+                projection, viewingParametersBean.fieldOfViewDegProperty(), skyCanvas.widthProperty(), skyCanvas.heightProperty())) {
+            skyInput.addListener(o -> computer.request(dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(),
+                    projection.get(), skyParameters(viewingParametersBean.getFieldOfViewDeg())));
+        }
+
+        return computer.observedSkyProperty();
+    }
+
+    /**
+     * Gets the parameters of the sky for the given field of view, whose limiting magnitude
+     * grows as the field of view narrows (see limitingMagnitude), and whose cone of view
+     * contains the canvas (see viewRadius)
+     *
+     * @param fieldOfViewDeg the field of view (in degrees)
+     * @return the parameters of the sky
+     */
+    private ObservedSky.Parameters skyParameters(double fieldOfViewDeg) {
+        return SKY_PARAMETERS
+                .withLimitingMagnitude(limitingMagnitude(fieldOfViewDeg))
+                .withViewRadius(viewRadius(skyCanvas.getWidth(), skyCanvas.getHeight(), fieldOfViewDeg));
+    }
 
-        observedSky.addListener((o, oV, nV) -> painter.drawAll(nV, projection.get(), planeToCanvas.get(), drawAsterisms.get(), allowDayNightCycle.get(), drawHorizontalGrid.get()));
+    /**
+     * Gets the angular radius of the cone of view containing a canvas of the given size: the angle between
+     * the center of the projection and a corner of the canvas, plus VIEW_RADIUS_MARGIN, rounded up to a
+     * multiple of VIEW_RADIUS_STEP (PI, i.e. all the sky, if the canvas has no width yet)
+     *
+     * @param width          the width of the canvas
+     * @param height         the height of the canvas
+     * @param fieldOfViewDeg the field of view (in degrees), which is the width of the canvas
+     * @return the view radius (in radians)
+     */
+    static double viewRadius(double width, double height, double fieldOfViewDeg) {
+        if (width <= 0)
+            return Math.PI;
+        //Distance from the center to a corner on the plane of the projection (half the width being at tan(fov / 4)),
+        //a point at the distance rho being at the angle 2 atan(rho) from the center
+        double cornerDistance = Math.hypot(width, height) / width * Math.tan(Angle.ofDeg(fieldOfViewDeg) / 4);
+        double radius = 2 * Math.atan(cornerDistance) + VIEW_RADIUS_MARGIN;
+        return Math.min(Math.PI, Math.ceil(radius / VIEW_RADIUS_STEP) * VIEW_RADIUS_STEP);
+    }
 
-        return observedSky;
+    /**
+     * Gets the magnitude of the faintest stars drawn for the given field of view: the naked eye limit
+     * for the widest field, increased by the gain of a magnification from the widest field to the given one
+     * (5 log10 of their ratio), rounded up to a multiple of LIMITING_MAGNITUDE_STEP
+     *
+     * @param fieldOfViewDeg the field of view (in degrees)
+     * @return the limiting magnitude
+     */
+    static double limitingMagnitude(double fieldOfViewDeg) {
+        double magnitude = WIDEST_FIELD_LIMITING_MAGNITUDE + 5 * Math.log10(FIELD_OF_VIEW_BOUNDS.high() / fieldOfViewDeg);
+        return Math.ceil(magnitude / LIMITING_MAGNITUDE_STEP) * LIMITING_MAGNITUDE_STEP;
     }
 
-    private ObjectBinding<Transform> initiatePlaneToCanvas(ViewingParametersBean viewingParametersBean, SkyCanvasPainter painter) {
-        ObjectBinding<Transform> planeToCanvas = Bindings.createObjectBinding(() -> {
+    private ObjectBinding<Transform> initiatePlaneToCanvas(ViewingParametersBean viewingParametersBean) {
+        return Bindings.createObjectBinding(() -> {
                     double dilatation = dilatation(skyCanvas, projection.get(), viewingParametersBean.getFieldOfViewDeg());
                     return Transform.affine(dilatation, 0, 0, -dilatation, skyCanvas.getWidth() / 2, skyCanvas.getHeight() / 2);
                 },
                 skyCanvas.widthProperty(), skyCanvas.heightProperty(), projection, viewingParametersBean.fieldOfViewDegProperty());
-
-        planeToCanvas.addListener((o, oV, nV) -> painter.drawAll(observedSky.get(), projection.get(), nV, drawAsterisms.get(), allowDayNightCycle.get(), drawHorizontalGrid.get()));
-
-        return planeToCanvas;
     }
 
     private ObjectBinding<CelestialObject> initiateObjectUnderMouse() {
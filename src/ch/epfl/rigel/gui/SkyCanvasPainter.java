@@ -1,8 +1,6 @@
 package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.astronomy.*;
-import ch.epfl.rigel.coordinates.CartesianCoordinates;
-import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
@@ -14,8 +12,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
 import javafx.scene.transform.Transform;
 
-import java.util.List;
-import java.util.function.Function;
+import java.util.Arrays;
 
 /**
  * Class used to draw the sky on the screen
@@ -27,12 +24,14 @@ public final class SkyCanvasPainter {
 
     private static final double SUN_HALO_OPACITY_FACTOR = 0.25;
     private static final ClosedInterval INTERVAL_FOR_DIAMETER = ClosedInterval.of(-2, 5);
-    private static final double TOLERANCE_CONSTANT = 1E12;
 
     private final Canvas canvas;
     private final GraphicsContext ctx;
 
     private SkyColorManager skyColorManager; //Initialized in clear as it's the first method called
+    private StarPalette starPalette; //Classification of the stars of the last drawn catalogue
+    private final StarRasterizer starRasterizer = new StarRasterizer();
+    private OverlayGeometry overlayGeometry; //Geometry of the grid and of the horizon of the last projection
 
     /**
      * Initializes the sky painter
@@ -57,6 +56,18 @@ public final class SkyCanvasPainter {
         ctx.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
     }
 
+    /**
+     * Clears the canvas, leaving it transparent, so that it can be drawn as a layer over other canvases,
+     * and sets the color of the sky used to derive the colors
+     *
+     * @param sky                the current observed sky
+     * @param allowDayNightCycle if the day night cycle is wanted
+     */
+    public void clearTransparent(ObservedSky sky, boolean allowDayNightCycle) {
+        ctx.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        skyColorManager = new SkyColorManager(sky, allowDayNightCycle);
+    }
+
     /**
      * Draws the grid of horizontal coordinates
      *
@@ -67,56 +78,60 @@ public final class SkyCanvasPainter {
     public void drawGrid(StereographicProjection projection, Transform planeToCanvas) {
         ctx.setStroke(skyColorManager.deriveColor(Color.LIGHTGRAY));
         ctx.setLineWidth(0.15);
-        // latitudes
-        for (int i = -9; i < 10; i++) {
-            HorizontalCoordinates coordForHorizon = HorizontalCoordinates.ofDeg(0, 10 * i);
-            drawGridLines(projection::circleRadiusForParallel, projection::circleCenterForParallel, coordForHorizon, planeToCanvas);
-        }
-        // longitudes
-        for (int j = 0; j < 36; j++) {
-            HorizontalCoordinates coordForHorizon = HorizontalCoordinates.ofDeg(10 * j, 0);
-            drawGridLines(projection::circleRadiusForMeridian, projection::circleCenterForMeridian, coordForHorizon, planeToCanvas);
+        OverlayGeometry geometry = overlayGeometry(projection, planeToCanvas);
+        double[] ovals = geometry.gridOvals();
+        for (int i = 0; i < ovals.length; i += 4) {
+            ctx.strokeOval(ovals[i], ovals[i + 1], ovals[i + 2], ovals[i + 3]);
         }
-    }
-
-    private void drawGridLines(Function<HorizontalCoordinates, Double> circleRadius, Function<HorizontalCoordinates, CartesianCoordinates> circleCenter, HorizontalCoordinates coordForHorizon, Transform planeToCanvas) {
-        double diameter = planeToCanvas.deltaTransform(circleRadius.apply(coordForHorizon) * 2, 0).getX();
-        if (diameter < TOLERANCE_CONSTANT) {
-            CartesianCoordinates center = circleCenter.apply(coordForHorizon);
-            Point2D circlePoint = planeToCanvas.transform(center.x(), center.y());
-            ctx.strokeOval(circlePoint.getX() - diameter / 2, circlePoint.getY() - diameter / 2, diameter, diameter);
-        } else {
-            ctx.strokeLine(canvas.getWidth() / 2, 0, canvas.getWidth() / 2, canvas.getHeight());
+        double[] lines = geometry.gridLines();
+        for (int i = 0; i < lines.length; i += 4) {
+            ctx.strokeLine(lines[i], lines[i + 1], lines[i + 2], lines[i + 3]);
         }
-
     }
 
     /**
-     * Method that draws the asterisms onto the canvas
+     * Method that draws the asterisms onto the canvas, all their segments in one path
      *
-     * @param sky         the observed sky containing the asterisms
-     * @param transformed the transformed coordinates of all
+     * @param sky          the observed sky containing the asterisms
+     * @param visibleStars the indexes of the projected stars, in increasing order
+     * @param transformed  the transformed coordinates of the projected stars, in the order of visibleStars
      */
-    private void drawAsterisms(ObservedSky sky, double[] transformed) {
+    private void drawAsterisms(ObservedSky sky, int[] visibleStars, double[] transformed) {
+        int[] segments = sky.catalogue().asterismSegments();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
         ctx.setLineWidth(1);
         ctx.setStroke(skyColorManager.deriveColor(Color.BLUE));
-        List<Integer> asterismIndices;
+        //All the segments are stroked in one path
+        ctx.beginPath();
         int currentStar, nextStar;
-        for (Asterism asterism : sky.asterisms()) {
-            asterismIndices = sky.asterismIndices(asterism);
-            ctx.beginPath();
-            for (int i = 0; i < asterismIndices.size() - 1; i++) {
-                currentStar = 2 * asterismIndices.get(i);
-                nextStar = 2 * asterismIndices.get(i + 1);
-                if (canvas.getBoundsInLocal().contains(transformed[currentStar], transformed[currentStar + 1])
-                        || canvas.getBoundsInLocal().contains(transformed[nextStar], transformed[nextStar + 1])) { //Checks if there is a path outside the canvas
-                    ctx.moveTo(transformed[currentStar], transformed[currentStar + 1]);
-                    ctx.lineTo(transformed[nextStar], transformed[nextStar + 1]);
-                }
+        for (int i = 0; i < segments.length; i += 2) {
+            //The stars of the asterisms are always projected
+            currentStar = 2 * positionOf(visibleStars, segments[i]);
+            nextStar = 2 * positionOf(visibleStars, segments[i + 1]);
+            if (isOnCanvas(transformed[currentStar], transformed[currentStar + 1], width, height)
+                    || isOnCanvas(transformed[nextStar], transformed[nextStar + 1], width, height)) { //Checks if there is a path outside the canvas
+                ctx.moveTo(transformed[currentStar], transformed[currentStar + 1]);
+                ctx.lineTo(transformed[nextStar], transformed[nextStar + 1]);
             }
-            ctx.closePath();
-            ctx.stroke();
         }
+        ctx.stroke();
+    }
+
+    /**
+     * Gets the position of a star among the projected stars
+     *
+     * @param visibleStars the indexes of the projected stars, in increasing order
+     * @param star         the index of a projected star
+     * @return the position of the star in visibleStars
+     */
+    private static int positionOf(int[] visibleStars, int star) {
+        //When all the first stars of the catalogue are projected, the index of a star is its position
+        return star < visibleStars.length && visibleStars[star] == star ? star : Arrays.binarySearch(visibleStars, star);
+    }
+
+    private static boolean isOnCanvas(double x, double y, double width, double height) {
+        return x >= 0 && x <= width && y >= 0 && y <= height;
     }
 
     /**
@@ -128,18 +143,49 @@ public final class SkyCanvasPainter {
      * @param drawAsterisms if asterisms have to be drawn
      */
     public void drawStars(ObservedSky sky, StereographicProjection projection, Transform planeToCanvas, boolean drawAsterisms) {
-        double[] transformed = new double[sky.starPositions().length];
-        planeToCanvas.transform2DPoints(sky.starPositions(), 0, transformed, 0, sky.starPositions().length / 2);
+        drawStars(sky, projection, planeToCanvas, drawAsterisms, false);
+    }
+
+    /**
+     * Draws the asterisms and the stars onto the canvas, the stars being drawn either as ovals of the canvas
+     * or into a buffer of pixels drawn over the canvas at once (faster for large catalogues)
+     *
+     * @param sky            the observed sky
+     * @param projection     the projection used
+     * @param planeToCanvas  the affine transformation to transform from
+     * @param drawAsterisms  if asterisms have to be drawn
+     * @param rasterizeStars if the stars have to be drawn into a buffer of pixels
+     */
+    public void drawStars(ObservedSky sky, StereographicProjection projection, Transform planeToCanvas,
+                          boolean drawAsterisms, boolean rasterizeStars) {
+        //Only the projected stars (including the stars of the asterisms) are transformed and drawn
+        int[] visibleStars = sky.visibleStarIndices();
+        double[] transformed = new double[sky.visibleStarPositions().length];
+        planeToCanvas.transform2DPoints(sky.visibleStarPositions(), 0, transformed, 0, visibleStars.length);
 
         if (drawAsterisms)
-            drawAsterisms(sky, transformed);
+            drawAsterisms(sky, visibleStars, transformed);
+
+        StarCatalogue catalogue = sky.catalogue();
+        if (starPalette == null || starPalette.catalogue() != catalogue)
+            starPalette = new StarPalette(catalogue, INTERVAL_FOR_DIAMETER);
+        double halfDegreeDiameter = halfDegreeDiameter(projection, planeToCanvas);
+        starPalette.prepare(skyColorManager, magnitude -> diameterFromMagnitude(magnitude, halfDegreeDiameter));
 
         int i = 0;
-        double starDiameter;
-        for (Star star : sky.stars()) {
-            starDiameter = planeToCanvas.deltaTransform(diameterFromMagnitude(star.magnitude(), projection), 0).getX();
-            ctx.setFill(skyColorManager.deriveColor(BlackBodyColor.colorForTemperature(star.colorTemperature())));
-            ctx.fillOval(transformed[i++] - starDiameter / 2, transformed[i++] - starDiameter / 2, starDiameter, starDiameter);
+        if (rasterizeStars) {
+            starRasterizer.begin((int) Math.ceil(canvas.getWidth()), (int) Math.ceil(canvas.getHeight()));
+            for (int s : visibleStars) {
+                starRasterizer.drawStar(transformed[i++], transformed[i++], starPalette.diameter(s), starPalette.argb(s));
+            }
+            starRasterizer.end(ctx);
+        } else {
+            double starDiameter;
+            for (int s : visibleStars) {
+                starDiameter = starPalette.diameter(s);
+                ctx.setFill(starPalette.color(s));
+                ctx.fillOval(transformed[i++] - starDiameter / 2, transformed[i++] - starDiameter / 2, starDiameter, starDiameter);
+            }
         }
     }
 
@@ -154,11 +200,12 @@ public final class SkyCanvasPainter {
         double[] planetCoordinates = new double[sky.planetPositions().length];
         planeToCanvas.transform2DPoints(sky.planetPositions(), 0, planetCoordinates, 0, sky.planetPositions().length / 2);
 
+        double halfDegreeDiameter = halfDegreeDiameter(projection, planeToCanvas);
         int i = 0;
         double diameter;
         for (Planet planet : sky.planets()) {
             ctx.setFill(skyColorManager.deriveColor(Color.web(planet.color())));
-            diameter = planeToCanvas.deltaTransform(diameterFromMagnitude(planet.magnitude(), projection), 0).getX();
+            diameter = diameterFromMagnitude(planet.magnitude(), halfDegreeDiameter);
             ctx.fillOval(planetCoordinates[i++] - diameter / 2, planetCoordinates[i++] - diameter / 2, diameter, diameter);
         }
     }
@@ -220,20 +267,16 @@ public final class SkyCanvasPainter {
      *                      cartesian coordinates to the coordinates of the screen
      */
     public void drawHorizon(StereographicProjection projection, Transform planeToCanvas) {
+        OverlayGeometry geometry = overlayGeometry(projection, planeToCanvas);
+
         //Draws the horizon
         ctx.setStroke(Color.RED);
         ctx.setLineWidth(2);
-        HorizontalCoordinates coordForHorizon = HorizontalCoordinates.of(0, 0);
-
-        double circleRadiusForParallel = projection.circleRadiusForParallel(coordForHorizon);
-        if (circleRadiusForParallel > TOLERANCE_CONSTANT) {
-            ctx.strokeLine(0, canvas.getHeight() / 2d, canvas.getWidth(), canvas.getHeight() / 2d);
+        double[] horizon = geometry.horizon();
+        if (geometry.horizonIsLine()) {
+            ctx.strokeLine(horizon[0], horizon[1], horizon[2], horizon[3]);
         } else {
-            double circleRadius = planeToCanvas.deltaTransform(circleRadiusForParallel * 2, 0).getX();
-            CartesianCoordinates circleCenter = projection.circleCenterForParallel(coordForHorizon);
-            Point2D circlePoint = planeToCanvas.transform(circleCenter.x(), circleCenter.y());
-
-            ctx.strokeOval(circlePoint.getX() - circleRadius / 2, circlePoint.getY() - circleRadius / 2, circleRadius, circleRadius);
+            ctx.strokeOval(horizon[0], horizon[1], horizon[2], horizon[3]);
         }
 
         //Draws the cardinal points
@@ -241,17 +284,28 @@ public final class SkyCanvasPainter {
         ctx.setTextAlign(TextAlignment.CENTER);
         ctx.setTextBaseline(VPos.TOP);
 
-        HorizontalCoordinates coordOfCardinal;
-        CartesianCoordinates coordOnProjection;
-        Point2D cardinalPoint;
-        for (int i = 0; i < 8; i++) {
-            coordOfCardinal = HorizontalCoordinates.ofDeg(i * 45, -0.5);
-            coordOnProjection = projection.apply(coordOfCardinal);
-            cardinalPoint = planeToCanvas.transform(coordOnProjection.x(), coordOnProjection.y());
-            ctx.fillText(coordOfCardinal.azOctantName("N", "E", "S", "O"), cardinalPoint.getX(), cardinalPoint.getY());
+        String[] names = geometry.cardinalNames();
+        double[] positions = geometry.cardinalPositions();
+        for (int i = 0; i < names.length; i++) {
+            ctx.fillText(names[i], positions[2 * i], positions[2 * i + 1]);
         }
     }
 
+    /**
+     * Gets the geometry of the grid and of the horizon for the given projection and transform,
+     * computed again only when they or the size of the canvas change
+     *
+     * @param projection    the projection used
+     * @param planeToCanvas the affine transformation to transform from
+     *                      cartesian coordinates to the coordinates of the screen
+     * @return the geometry of the overlays
+     */
+    private OverlayGeometry overlayGeometry(StereographicProjection projection, Transform planeToCanvas) {
+        if (overlayGeometry == null || !overlayGeometry.isFor(projection, planeToCanvas, canvas.getWidth(), canvas.getHeight()))
+            overlayGeometry = new OverlayGeometry(projection, planeToCanvas, canvas.getWidth(), canvas.getHeight());
+        return overlayGeometry;
+    }
+
     /**
      * Draws all of the sky (drawStar, drawPlanets, drawSun, drawMoon, drawHorizon)
      *
@@ -263,9 +317,24 @@ public final class SkyCanvasPainter {
      * @param drawHorizontalGrid if the horizontal coordinates grid has to be shown
      */
     public void drawAll(ObservedSky observedSky, StereographicProjection projection, Transform planeToCanvas, boolean drawAsterisms, boolean allowDayNightCycle, boolean drawHorizontalGrid) {
+        drawAll(observedSky, projection, planeToCanvas, drawAsterisms, allowDayNightCycle, drawHorizontalGrid, false);
+    }
+
+    /**
+     * Draws all of the sky (drawStar, drawPlanets, drawSun, drawMoon, drawHorizon)
+     *
+     * @param observedSky        the observed sky
+     * @param projection         the projection used
+     * @param planeToCanvas      the plane to canvas transform used
+     * @param drawAsterisms      if asterisms have to be drawn
+     * @param allowDayNightCycle if day/night cycle is wanted
+     * @param drawHorizontalGrid if the horizontal coordinates grid has to be shown
+     * @param rasterizeStars     if the stars have to be drawn into a buffer of pixels
+     */
+    public void drawAll(ObservedSky observedSky, StereographicProjection projection, Transform planeToCanvas, boolean drawAsterisms, boolean allowDayNightCycle, boolean drawHorizontalGrid, boolean rasterizeStars) {
         clear(observedSky, allowDayNightCycle);
         if (drawHorizontalGrid) drawGrid(projection, planeToCanvas); //Draws a grid for horizontal coordinates if wanted
-        drawStars(observedSky, projection, planeToCanvas, drawAsterisms); //Draws the stars and draws the asterisms if wanted
+        drawStars(observedSky, projection, planeToCanvas, drawAsterisms, rasterizeStars); //Draws the stars and draws the asterisms if wanted
         drawPlanets(observedSky, projection, planeToCanvas); //Draws the planets
         drawSun(observedSky, projection, planeToCanvas); //Draws the sun
         drawMoon(observedSky, projection, planeToCanvas);//Draws the moon
@@ -276,13 +345,26 @@ public final class SkyCanvasPainter {
      * Method to compute the diameter of a celestial object given it's magnitude.<br>
      * (scale to an object with angular size equal to 0.5°)
      *
-     * @param magnitude  the magnitude of the object
-     * @param projection the projection to be used
+     * @param magnitude          the magnitude of the object
+     * @param halfDegreeDiameter the diameter on the canvas of an object with angular size equal to 0.5°
      * @return the diameter from the magnitude
      */
-    private double diameterFromMagnitude(double magnitude, StereographicProjection projection) {
+    private static double diameterFromMagnitude(double magnitude, double halfDegreeDiameter) {
         double clippedMagnitude = INTERVAL_FOR_DIAMETER.clip(magnitude);
         double factor = (99 - 17 * clippedMagnitude) / 140.0;
-        return factor * projection.applyToAngle(Angle.ofDeg(0.5));
+        return factor * halfDegreeDiameter;
+    }
+
+    /**
+     * Computes the diameter on the canvas of an object with angular size equal to 0.5°
+     * (once per frame, the diameters of the stars and planets being proportional to it)
+     *
+     * @param projection    the projection used
+     * @param planeToCanvas the affine transformation to transform from
+     *                      cartesian coordinates to the coordinates of the screen
+     * @return the diameter of the object
+     */
+    private static double halfDegreeDiameter(StereographicProjection projection, Transform planeToCanvas) {
+        return planeToCanvas.deltaTransform(projection.applyToAngle(Angle.ofDeg(0.5)), 0).getX();
     }
 }
@@ -55,7 +55,15 @@ public final class SkyColorManager {
      * @return the derived color
      */
     public Color deriveColor(Color color) {
-        return color.deriveColor(0, 1, 1,
-                allowDayNightCycle ? INTERVAL_FOR_OPACITY.clip(1 - sunAltDegBlue / 255d) : 1);
+        return color.deriveColor(0, 1, 1, opacity());
+    }
+
+    /**
+     * Gets the factor of the opacity of the derived colors, with respect to the altitude of the sun
+     *
+     * @return the opacity factor, in [0, 1]
+     */
+    public double opacity() {
+        return allowDayNightCycle ? INTERVAL_FOR_OPACITY.clip(1 - sunAltDegBlue / 255d) : 1;
     }
 }
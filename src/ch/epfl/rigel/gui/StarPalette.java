@@ -0,0 +1,110 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.math.ClosedInterval;
+import javafx.scene.paint.Color;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Colors and diameters of the stars of a catalogue, used to draw the stars without computing
+ * the color and the diameter of each star at each frame.<br>
+ * The stars are classified once per catalogue by black body color index and by magnitude (rounded
+ * to the closest hundredth, the precision of the catalogue, within the interval of the magnitudes
+ * having different diameters).
+ * The color and the diameter of each class are then computed once per frame by {@link #prepare}.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class StarPalette {
+
+    private static final int MAGNITUDE_BUCKETS_PER_UNIT = 100;
+
+    private final StarCatalogue catalogue;
+    private final ClosedInterval magnitudeInterval;
+    private final short[] colorIndices;
+    private final short[] magnitudeBuckets;
+
+    private final Color[] colors = new Color[BlackBodyColor.colorCount()];
+    private final int[] argbs = new int[BlackBodyColor.colorCount()];
+    private final double[] diameters;
+
+    /**
+     * Classifies the stars of the given catalogue
+     *
+     * @param catalogue         the catalogue of the stars
+     * @param magnitudeInterval the interval of the magnitudes having different diameters
+     *                          (the magnitudes are clipped to it)
+     */
+    StarPalette(StarCatalogue catalogue, ClosedInterval magnitudeInterval) {
+        this.catalogue = catalogue;
+        this.magnitudeInterval = magnitudeInterval;
+
+        int starCount = catalogue.starCount();
+        colorIndices = new short[starCount];
+        magnitudeBuckets = new short[starCount];
+        for (int i = 0; i < starCount; i++) {
+            colorIndices[i] = (short) BlackBodyColor.colorIndex(catalogue.colorTemperature(i));
+            magnitudeBuckets[i] = (short) Math.round((magnitudeInterval.clip(catalogue.magnitude(i)) - magnitudeInterval.low())
+                    * MAGNITUDE_BUCKETS_PER_UNIT);
+        }
+        diameters = new double[(int) Math.round(magnitudeInterval.size() * MAGNITUDE_BUCKETS_PER_UNIT) + 1];
+    }
+
+    /**
+     * Gets the catalogue whose stars are classified
+     *
+     * @return the catalogue
+     */
+    StarCatalogue catalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Computes the colors and the diameters of the stars for the next frame
+     *
+     * @param skyColorManager     the manager deriving the colors with respect to the color of the sky
+     * @param diameterOfMagnitude the function giving the diameter of a star (on the canvas) from its magnitude
+     */
+    void prepare(SkyColorManager skyColorManager, DoubleUnaryOperator diameterOfMagnitude) {
+        for (int c = 0; c < colors.length; c++) {
+            colors[c] = skyColorManager.deriveColor(BlackBodyColor.color(c));
+            argbs[c] = (int) Math.round(colors[c].getOpacity() * 255) << 24 | (BlackBodyColor.argb(c) & 0xFFFFFF);
+        }
+        for (int b = 0; b < diameters.length; b++) {
+            diameters[b] = diameterOfMagnitude.applyAsDouble(magnitudeInterval.low() + b / (double) MAGNITUDE_BUCKETS_PER_UNIT);
+        }
+    }
+
+    /**
+     * Gets the color of the star of the given index for the current frame
+     *
+     * @param index the index of the star in the catalogue
+     * @return the color of the star
+     */
+    Color color(int index) {
+        return colors[colorIndices[index]];
+    }
+
+    /**
+     * Gets the color of the star of the given index for the current frame, as a packed ARGB integer
+     * (not premultiplied)
+     *
+     * @param index the index of the star in the catalogue
+     * @return the color of the star, 0xAARRGGBB
+     */
+    int argb(int index) {
+        return argbs[colorIndices[index]];
+    }
+
+    /**
+     * Gets the diameter of the star of the given index for the current frame
+     *
+     * @param index the index of the star in the catalogue
+     * @return the diameter of the star (on the canvas)
+     */
+    double diameter(int index) {
+        return diameters[magnitudeBuckets[index]];
+    }
+}
@@ -0,0 +1,224 @@
+package ch.epfl.rigel.gui;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+
+/**
+ * Renderer drawing the stars into a buffer of pixels, uploaded once per frame to the canvas,
+ * instead of recording one command of the canvas per star.<br>
+ * The stars are anti-aliased discs, whose coverage of the pixels is precomputed (lazily) in sprites
+ * for each diameter (by steps of 1/8 pixel) and each position of the center inside a pixel
+ * (by steps of 1/4 pixel, the centers being rounded to them). The sprites are blended over the buffer, which is transparent
+ * at the beginning of each frame, so that the buffer can be drawn over the sky.
+ *
+ * @author Robin Goumaz (301420)
+ * @author Ozan Güven (297076)
+ */
+final class StarRasterizer {
+
+    private static final int DIAMETER_STEPS = 8; //Sprite diameters per pixel
+    private static final int SUBPIXEL_BITS = 2;
+    private static final int SUBPIXELS = 1 << SUBPIXEL_BITS; //Positions of the center per pixel (in each dimension)
+    private static final int SAMPLES = 8; //Samples of the coverage per pixel (in each dimension)
+
+    private int width;
+    private int height;
+    private int[] pixels = new int[0]; //Premultiplied ARGB, row by row
+    private WritableImage image;
+
+    private Sprite[][] sprites = new Sprite[0][]; //By diameter step and position of the center
+
+    /**
+     * Starts a new frame: the buffer gets the given size and is cleared
+     *
+     * @param width  the width of the canvas (in pixels)
+     * @param height the height of the canvas (in pixels)
+     */
+    void begin(int width, int height) {
+        if (width * height != pixels.length)
+            pixels = new int[width * height];
+        else
+            Arrays.fill(pixels, 0);
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Draws a star (an anti-aliased disc) into the buffer
+     *
+     * @param x        the abscissa of the center of the star on the canvas
+     * @param y        the ordinate of the center of the star on the canvas
+     * @param diameter the diameter of the star (in pixels)
+     * @param argb     the color of the star (not premultiplied), 0xAARRGGBB
+     */
+    void drawStar(double x, double y, double diameter, int argb) {
+        int step = (int) Math.round(diameter * DIAMETER_STEPS);
+        int alpha = argb >>> 24;
+        if (step == 0 || alpha == 0 || !(x > -diameter && x < width + diameter && y > -diameter && y < height + diameter))
+            return;
+
+        //The center is rounded to the closest position of the grid of the subpixels (with shifts rather than divisions)
+        int subpixelX = (int) Math.floor(x * SUBPIXELS + 0.5);
+        int subpixelY = (int) Math.floor(y * SUBPIXELS + 0.5);
+        Sprite sprite = sprite(step, subpixelX & (SUBPIXELS - 1), subpixelY & (SUBPIXELS - 1));
+        int left = (subpixelX >> SUBPIXEL_BITS) + sprite.left;
+        int top = (subpixelY >> SUBPIXEL_BITS) + sprite.top;
+
+        int red = (argb >> 16) & 0xFF;
+        int green = (argb >> 8) & 0xFF;
+        int blue = argb & 0xFF;
+        for (int row = Math.max(0, -top); row < Math.min(sprite.height, height - top); row++) {
+            int pixel = (top + row) * width + left;
+            for (int column = Math.max(0, -left); column < Math.min(sprite.width, width - left); column++) {
+                int coverage = sprite.coverages[row * sprite.width + column] & 0xFF;
+                if (coverage != 0)
+                    pixels[pixel + column] = over(pixels[pixel + column], red, green, blue, divideBy255(coverage * alpha));
+            }
+        }
+    }
+
+    /**
+     * Ends the frame: uploads the buffer to an image, drawn over the canvas
+     *
+     * @param ctx the graphics context of the canvas
+     */
+    void end(GraphicsContext ctx) {
+        if (width == 0 || height == 0)
+            return;
+        if (image == null || image.getWidth() != width || image.getHeight() != height)
+            image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        ctx.drawImage(image, 0, 0);
+    }
+
+    /**
+     * Gets the buffer of the current frame (the array must not be modified)
+     *
+     * @return the premultiplied ARGB pixels, row by row
+     */
+    int[] pixels() {
+        return pixels;
+    }
+
+    //Blends the color of given opacity (0 to 255) over the premultiplied destination
+    private static int over(int destination, int red, int green, int blue, int alpha) {
+        int transparency = 255 - alpha;
+        int a = alpha + divideBy255((destination >>> 24) * transparency);
+        int r = divideBy255(red * alpha + ((destination >> 16) & 0xFF) * transparency);
+        int g = divideBy255(green * alpha + ((destination >> 8) & 0xFF) * transparency);
+        int b = divideBy255(blue * alpha + (destination & 0xFF) * transparency);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    //Rounded division by 255 of a number in [0, 65025]
+    private static int divideBy255(int value) {
+        value += 128;
+        return (value + (value >> 8)) >> 8;
+    }
+
+    private Sprite sprite(int step, int subX, int subY) {
+        if (step >= sprites.length)
+            sprites = Arrays.copyOf(sprites, Math.max(step + 1, 2 * sprites.length));
+        if (sprites[step] == null)
+            sprites[step] = new Sprite[SUBPIXELS * SUBPIXELS];
+        Sprite[] positions = sprites[step];
+        if (positions[subY * SUBPIXELS + subX] == null)
+            positions[subY * SUBPIXELS + subX] = Sprite.disc(step / (double) DIAMETER_STEPS,
+                    subX / (double) SUBPIXELS, subY / (double) SUBPIXELS);
+        return positions[subY * SUBPIXELS + subX];
+    }
+
+    /**
+     * Coverage of the pixels by a disc, in the smallest rectangle of pixels containing its covered pixels
+     */
+    private static final class Sprite {
+        private final int left; //Position of the rectangle relative to the pixel containing the center
+        private final int top;
+        private final int width;
+        private final int height;
+        private final byte[] coverages; //Coverages (0 to 255) of the pixels of the rectangle, row by row
+
+        private Sprite(int left, int top, int width, int height, byte[] coverages) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.coverages = coverages;
+        }
+
+        /**
+         * Computes the coverage of the pixels by a disc, the coverage of the pixels on the border
+         * of the disc being scaled so that the total coverage is the area of the disc (so that the
+         * brightness of the stars does not depend on the sampling, which matters for the smallest ones)
+         *
+         * @param diameter the diameter of the disc (in pixels)
+         * @param centerX  the abscissa of the center of the disc in its pixel (in [0, 1[)
+         * @param centerY  the ordinate of the center of the disc in its pixel (in [0, 1[)
+         * @return the sprite of the disc
+         */
+        private static Sprite disc(double diameter, double centerX, double centerY) {
+            int half = (int) Math.ceil(diameter / 2); //Pixels on each side of the pixel containing the center
+            int size = 2 * half + 1;
+            double radius2 = diameter * diameter / 4;
+            int[] inside = new int[size * size];
+            int fullPixels = 0;
+            int borderInside = 0;
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    for (int sy = 0; sy < SAMPLES; sy++) {
+                        double dy = row + (sy + 0.5) / SAMPLES - half - centerY;
+                        for (int sx = 0; sx < SAMPLES; sx++) {
+                            double dx = column + (sx + 0.5) / SAMPLES - half - centerX;
+                            if (dx * dx + dy * dy <= radius2)
+                                inside[row * size + column]++;
+                        }
+                    }
+                    if (inside[row * size + column] == SAMPLES * SAMPLES)
+                        fullPixels++;
+                    else
+                        borderInside += inside[row * size + column];
+                }
+            }
+
+            double borderArea = Math.PI * radius2 - fullPixels;
+            byte[] coverages = new byte[size * size];
+            if (fullPixels == 0 && borderInside == 0) {
+                //Disc smaller than the samples, its area is put in the pixel containing the center
+                coverages[half * size + half] = (byte) Math.round(255 * borderArea);
+            } else {
+                double scale = borderInside == 0 ? 0 : 255 * Math.max(0, borderArea) / borderInside;
+                for (int i = 0; i < coverages.length; i++) {
+                    coverages[i] = (byte) (inside[i] == SAMPLES * SAMPLES ? 255 : Math.min(255, Math.round(inside[i] * scale)));
+                }
+            }
+            return trimmed(coverages, size, half);
+        }
+
+        private static Sprite trimmed(byte[] coverages, int size, int half) {
+            int minRow = size, maxRow = -1, minColumn = size, maxColumn = -1;
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    if (coverages[row * size + column] != 0) {
+                        minRow = Math.min(minRow, row);
+                        maxRow = Math.max(maxRow, row);
+                        minColumn = Math.min(minColumn, column);
+                        maxColumn = Math.max(maxColumn, column);
+                    }
+                }
+            }
+            if (maxRow < 0)
+                return new Sprite(0, 0, 0, 0, new byte[0]);
+
+            int width = maxColumn - minColumn + 1;
+            int height = maxRow - minRow + 1;
+            byte[] trimmed = new byte[width * height];
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(coverages, (minRow + row) * size + minColumn, trimmed, row * width, width);
+            }
+            return new Sprite(minColumn - half, minRow - half, width, height, trimmed);
+        }
+    }
+}
@@ -84,7 +84,11 @@ public final class TopMenuBar {
         canvasManager.allowDayNightCycleProperty().bind(dayNightMenu.selectedProperty());
         DAY_NIGHT_SELECTED.bind(dayNightMenu.selectedProperty());
 
-        graphicsMenu.getItems().addAll(asterismsOption, horizontalGridOption, dayNightMenu);
+        CheckMenuItem rasterizeStarsOption = new CheckMenuItem("Dessiner les étoiles _pixel par pixel");
+        rasterizeStarsOption.setSelected(canvasManager.isRasterizeStars());
+        canvasManager.rasterizeStarsProperty().bind(rasterizeStarsOption.selectedProperty());
+
+        graphicsMenu.getItems().addAll(asterismsOption, horizontalGridOption, dayNightMenu, rasterizeStarsOption);
         return graphicsMenu;
     }
 
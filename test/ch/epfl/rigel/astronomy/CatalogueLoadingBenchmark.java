@@ -0,0 +1,72 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Measures the time needed to load the bundled catalogue from the CSV files
+ * and from a binary catalogue (read from a stream and mapped from a file).
+ */
+public final class CatalogueLoadingBenchmark {
+
+    private static final int WARM_UP = 20;
+    private static final int LOADS = 50;
+
+    private interface Load {
+        StarCatalogue load() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        byte[] hyg;
+        byte[] asterisms;
+        try (InputStream hygStream = CatalogueLoadingBenchmark.class.getResourceAsStream("/hygdata_v3.csv");
+             InputStream astStream = CatalogueLoadingBenchmark.class.getResourceAsStream("/asterisms.txt")) {
+            hyg = hygStream.readAllBytes();
+            asterisms = astStream.readAllBytes();
+        }
+
+        Load csv = () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.INSTANCE)
+                .loadFrom(new ByteArrayInputStream(asterisms), AsterismLoader.INSTANCE)
+                .build();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.INSTANCE.write(csv.load(), output);
+        byte[] binary = output.toByteArray();
+        Path file = Files.createTempFile("catalogue", ".bin");
+        Files.write(file, binary);
+
+        try {
+            measure("CSV", csv);
+            measure("binary (stream)", () -> new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(binary), BinaryCatalogueLoader.INSTANCE)
+                    .build());
+            measure("binary (mapped file)", () -> {
+                StarCatalogue.Builder builder = new StarCatalogue.Builder();
+                BinaryCatalogueLoader.INSTANCE.load(file, builder);
+                return builder.build();
+            });
+        } finally {
+            Files.delete(file);
+        }
+        System.out.printf(Locale.ROOT, "CSV : %d bytes, binary : %d bytes%n", hyg.length + asterisms.length, binary.length);
+    }
+
+    private static void measure(String label, Load load) throws IOException {
+        for (int i = 0; i < WARM_UP; i++) {
+            load.load();
+        }
+        int starCount = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOADS; i++) {
+            starCount = load.load().starCount();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%s : %d stars in %.3f ms%n", label, starCount, elapsed / 1e6 / LOADS);
+    }
+}
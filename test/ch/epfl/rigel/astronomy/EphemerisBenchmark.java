@@ -0,0 +1,68 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the number of evaluations per second of the sun, the moon and Mars over a year
+ * sampled every 10 minutes, when an object is created per instant (from a ZonedDateTime,
+ * as before the ephemerides) and when the ephemerides are written in a primitive array,
+ * sequentially and in parallel.
+ */
+public final class EphemerisBenchmark {
+
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 20;
+    private static final int INSTANTS = 365 * 24 * 6; //A year every 10 minutes
+    private static final long STEP_MILLIS = 10 * 60 * 1000;
+
+    public static void main(String[] args) {
+        ZonedDateTime start = ZonedDateTime.parse("2020-01-01T00:00:00+01:00");
+        long startEpochMillis = Epoch.epochMillis(start);
+        double[] ephemerides = new double[CelestialObjectModel.EPHEMERIS_LENGTH * INSTANTS];
+
+        System.out.printf(Locale.ROOT, "%d available processors%n", Runtime.getRuntime().availableProcessors());
+        for (CelestialObjectModel<?> model : List.of(SunModel.SUN, MoonModel.MOON, PlanetModel.MARS)) {
+            measure(model + " (objects)", () -> {
+                double sum = 0;
+                for (int i = 0; i < INSTANTS; i++) {
+                    ZonedDateTime when = start.plusMinutes(10L * i);
+                    CelestialObject object = (CelestialObject) model.at(Epoch.J2010.daysUntil(when),
+                            new EclipticToEquatorialConversion(when));
+                    sum += object.equatorialPos().ra();
+                }
+                return sum;
+            });
+            measure(model + " (ephemerides, sequential)", () -> {
+                model.at(startEpochMillis, STEP_MILLIS, ephemerides, 0, INSTANTS);
+                return ephemerides[0];
+            });
+            measure(model + " (ephemerides, parallel)", () -> {
+                model.parallelAt(startEpochMillis, STEP_MILLIS, ephemerides);
+                return ephemerides[0];
+            });
+        }
+    }
+
+    private static void measure(String label, Run run) {
+        double sum = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            sum += run.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sum += run.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%s : %.2f million evaluations per second (%.3f ms per year, %s)%n",
+                label, (double) INSTANTS * RUNS / elapsed * 1e3, elapsed / 1e6 / RUNS, Double.isNaN(sum) ? "NaN" : "ok");
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        double run();
+    }
+}
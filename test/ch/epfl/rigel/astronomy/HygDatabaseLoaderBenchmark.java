@@ -0,0 +1,66 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Measures the load throughput of the HYG database loader on a file of about 120 000 rows
+ * (the full HYG database given as argument, or else the bundled rows repeated).
+ */
+public final class HygDatabaseLoaderBenchmark {
+
+    private static final int TARGET_ROWS = 120_000;
+    private static final int WARM_UP = 5;
+    private static final int LOADS = 10;
+
+    public static void main(String[] args) throws IOException {
+        byte[] csv = args.length > 0 ? Files.readAllBytes(Path.of(args[0])) : repeatedBundledDatabase();
+
+        int rows = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            rows = load(csv);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOADS; i++) {
+            load(csv);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / LOADS;
+        System.out.printf(Locale.ROOT, "%d rows (%.1f MB) : %.1f ms, %.0f rows/s, %.1f MB/s%n",
+                rows, csv.length / 1e6, seconds * 1e3, rows / seconds, csv.length / 1e6 / seconds);
+    }
+
+    private static int load(byte[] csv) throws IOException {
+        return new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(csv), HygDatabaseLoader.INSTANCE)
+                .build()
+                .starCount();
+    }
+
+    private static byte[] repeatedBundledDatabase() throws IOException {
+        byte[] bundled;
+        try (InputStream hygStream = HygDatabaseLoaderBenchmark.class.getResourceAsStream("/hygdata_v3.csv")) {
+            bundled = hygStream.readAllBytes();
+        }
+        int headerEnd = 0;
+        while (bundled[headerEnd] != '\n')
+            headerEnd++;
+        int rows = 0;
+        for (byte b : bundled) {
+            if (b == '\n')
+                rows++;
+        }
+        rows--; //The header
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(bundled, 0, bundled.length);
+        for (int copies = 1; copies < (TARGET_ROWS + rows - 1) / rows; copies++) {
+            output.write(bundled, headerEnd + 1, bundled.length - headerEnd - 1);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,160 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyBinaryCatalogueLoaderTest {
+
+    private static final String HYG_CATALOGUE_NAME =
+            "/hygdata_v3.csv";
+
+    private static final String ASTERISM_CATALOGUE_NAME =
+            "/asterisms.txt";
+
+    private static StarCatalogue loadCatalogue() throws IOException {
+        try (InputStream hygStream = MyBinaryCatalogueLoaderTest.class.getResourceAsStream(HYG_CATALOGUE_NAME);
+             InputStream asterismStream = MyBinaryCatalogueLoaderTest.class.getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            return new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+    }
+
+    private static byte[] binaryCatalogue(StarCatalogue catalogue) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryCatalogueLoader.INSTANCE.write(catalogue, output);
+        return output.toByteArray();
+    }
+
+    private static Set<List<Integer>> asterismIndices(StarCatalogue catalogue) {
+        Set<List<Integer>> indices = new HashSet<>();
+        for (Asterism asterism : catalogue.asterisms()) {
+            indices.add(catalogue.asterismIndices(asterism));
+        }
+        return indices;
+    }
+
+    private static void assertSameCatalogue(StarCatalogue expected, StarCatalogue actual) {
+        assertEquals(expected.starCount(), actual.starCount());
+        for (int i = 0; i < expected.starCount(); i++) {
+            Star expectedStar = expected.star(i);
+            Star actualStar = actual.star(i);
+            assertEquals(expectedStar.hipparcosId(), actualStar.hipparcosId());
+            assertEquals(expectedStar.name(), actualStar.name());
+            assertEquals(expectedStar.equatorialPos().ra(), actualStar.equatorialPos().ra());
+            assertEquals(expectedStar.equatorialPos().dec(), actualStar.equatorialPos().dec());
+            assertEquals(expectedStar.magnitude(), actualStar.magnitude());
+            assertEquals(expectedStar.colorTemperature(), actualStar.colorTemperature());
+        }
+        assertEquals(asterismIndices(expected), asterismIndices(actual));
+    }
+
+    @Test
+    void binaryCatalogueContainsTheSameStarsAndAsterisms() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        StarCatalogue loaded = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(binaryCatalogue(catalogue)), BinaryCatalogueLoader.INSTANCE)
+                .build();
+
+        assertSameCatalogue(catalogue, loaded);
+    }
+
+    @Test
+    void mappedBinaryCatalogueContainsTheSameStarsAndAsterisms() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        Path file = Files.createTempFile("catalogue", ".bin");
+        try {
+            Files.write(file, binaryCatalogue(catalogue));
+            StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            BinaryCatalogueLoader.INSTANCE.load(file, builder);
+
+            assertSameCatalogue(catalogue, builder.build());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void binaryCatalogueCanBeAddedAfterOtherStars() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        Star first = catalogue.star(0);
+        StarCatalogue loaded = new StarCatalogue.Builder()
+                .addStar(first)
+                .loadFrom(new ByteArrayInputStream(binaryCatalogue(catalogue)), BinaryCatalogueLoader.INSTANCE)
+                .build();
+
+        assertEquals(catalogue.starCount() + 1, loaded.starCount());
+        assertSame(first, loaded.star(0));
+        for (Asterism asterism : loaded.asterisms()) {
+            for (int index : loaded.asterismIndices(asterism)) {
+                assertTrue(index >= 1);
+            }
+        }
+        assertEquals(catalogue.asterisms().size(), loaded.asterisms().size());
+    }
+
+    @Test
+    void invalidBinaryCataloguesAreRejected() throws IOException {
+        byte[] valid = binaryCatalogue(loadCatalogue());
+
+        byte[] wrongMagic = valid.clone();
+        wrongMagic[0]++;
+        byte[] truncated = Arrays.copyOf(valid, valid.length / 2);
+
+        for (byte[] invalid : List.of(wrongMagic, truncated, new byte[0])) {
+            assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(invalid), BinaryCatalogueLoader.INSTANCE));
+        }
+    }
+
+    private static byte[] withInt(byte[] catalogue, int index, int value) {
+        byte[] modified = catalogue.clone();
+        ByteBuffer.wrap(modified).putInt(index, value);
+        return modified;
+    }
+
+    @Test
+    void corruptedCountsAreRejectedBeforeAllocatingArrays() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        byte[] valid = binaryCatalogue(catalogue);
+        int starCount = catalogue.starCount();
+        int asterismStarCount = ByteBuffer.wrap(valid).getInt(20);
+        //The offsets of the names follow the header (24 bytes) and the other columns of the stars (28 bytes per star)
+        int lastNameOffsetIndex = 24 + 28 * starCount + 4 * (starCount - 1);
+
+        List<byte[]> invalids = List.of(
+                withInt(valid, 8, Integer.MAX_VALUE), //Number of stars
+                withInt(valid, 12, Integer.MAX_VALUE), //Number of bytes of the names
+                withInt(valid, 16, Integer.MAX_VALUE), //Number of asterisms
+                withInt(valid, 20, Integer.MAX_VALUE), //Number of stars of the asterisms
+                withInt(valid, 20, asterismStarCount + 1),
+                withInt(valid, lastNameOffsetIndex, Integer.MAX_VALUE), //Offset of a name after the end of the names
+                withInt(valid, lastNameOffsetIndex, 0)); //Decreasing offsets
+        for (byte[] invalid : invalids) {
+            assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(invalid), BinaryCatalogueLoader.INSTANCE));
+        }
+
+        //The size of an asterism greater than the number of stars of the asterisms left
+        byte[] wrongAsterismSize = valid.clone();
+        ByteBuffer buffer = ByteBuffer.wrap(wrongAsterismSize);
+        int firstAsterism = valid.length - 4 * (buffer.getInt(16) + asterismStarCount);
+        buffer.putInt(firstAsterism, asterismStarCount + 1);
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(wrongAsterismSize), BinaryCatalogueLoader.INSTANCE));
+    }
+}
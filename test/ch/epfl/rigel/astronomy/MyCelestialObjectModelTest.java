@@ -0,0 +1,147 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static ch.epfl.rigel.astronomy.CelestialObjectModel.EPHEMERIS_LENGTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyCelestialObjectModelTest {
+
+    private static final long J2010 = Epoch.epochMillis(ZonedDateTime.parse("2010-01-01T00:00:00Z").minusDays(1));
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static List<CelestialObjectModel<?>> models() {
+        List<CelestialObjectModel<?>> models = new ArrayList<>(List.of(SunModel.SUN, MoonModel.MOON));
+        for (PlanetModel planet : PlanetModel.ALL) {
+            if (planet != PlanetModel.EARTH)
+                models.add(planet);
+        }
+        return models;
+    }
+
+    private static long[] randomInstants(SplittableRandom rng, int count) {
+        long[] epochMillis = new long[count];
+        for (int i = 0; i < count; i++) {
+            epochMillis[i] = J2010 + rng.nextLong(-40_000 * MILLIS_PER_DAY, 40_000 * MILLIS_PER_DAY);
+        }
+        return epochMillis;
+    }
+
+    //Values of the models at(daysSinceJ2010, conversion) before the ephemerides: instant, model, right ascension,
+    //declination, angular size, magnitude and phase of the moon (-1.0 for the other objects)
+    private static final Object[][] BASELINE = {
+            {"1985-03-10T06:30Z", SunModel.SUN, 6.116677548975167, -0.07174012832609937, 0.009369416162371635, -26.700000762939453, -1.0},
+            {"1985-03-10T06:30Z", MoonModel.MOON, 3.705850007146957, -0.19936199172532054, 0.009556427597999573, 0.0, 0.8574517965316772},
+            {"1985-03-10T06:30Z", PlanetModel.MERCURY, 0.08585791546026209, 0.0504118922636567, 2.9933280529803596E-5, -2.434385061264038, -1.0},
+            {"1985-03-10T06:30Z", PlanetModel.SATURN, 4.108498201503493, -0.3017343310333657, 8.465649443678558E-5, 0.9865975379943848, -1.0},
+            {"1985-03-10T06:30Z", PlanetModel.NEPTUNE, 4.783017423467327, -0.3885443147109715, 9.874924217001535E-6, 7.962356090545654, -1.0},
+            {"2003-09-01T00:00Z", SunModel.SUN, 2.789161697226376, 0.14854821612685007, 0.009218352846801281, -26.700000762939453, -1.0},
+            {"2003-09-01T00:00Z", MoonModel.MOON, 3.7205506003957067, -0.2011417134601494, 0.009543821215629578, 0.0, 0.2250060737133026},
+            {"2003-09-01T00:00Z", PlanetModel.MERCURY, 3.0598120055562186, -0.046385372913722696, 4.7927333071129397E-5, -1.1982438564300537, -1.0},
+            {"2003-09-01T00:00Z", PlanetModel.SATURN, 1.7710188789028232, 0.3886230078165238, 8.449011511402205E-5, 0.7831301093101501, -1.0},
+            {"2003-09-01T00:00Z", PlanetModel.NEPTUNE, 5.473438307649409, -0.30427242591675113, 1.0330762052035425E-5, 7.848536014556885, -1.0},
+            {"2040-08-20T15:45Z", SunModel.SUN, 2.624528706073239, 0.2110727128935286, 0.009197681210935116, -26.700000762939453, -1.0},
+            {"2040-08-20T15:45Z", MoonModel.MOON, 5.363186963541114, -0.4156920617086666, 0.00956327747553587, 0.0, 0.9555702805519104},
+            {"2040-08-20T15:45Z", PlanetModel.MERCURY, 2.753924184663321, 0.19201495086963244, 2.3997303287615068E-5, -1.8191605806350708, -1.0},
+            {"2040-08-20T15:45Z", PlanetModel.SATURN, 3.329270268579518, -0.03735833954692227, 7.76364395278506E-5, 1.1100876331329346, -1.0},
+            {"2040-08-20T15:45Z", PlanetModel.NEPTUNE, 0.5883862638081419, 0.20328945555263384, 1.0229118743154686E-5, 7.855322360992432, -1.0}
+    };
+
+    @Test
+    void ephemeridesAndObjectsHaveTheValuesOfTheBaseline() {
+        String[] instants = {"1985-03-10T06:30Z", "2003-09-01T00:00Z", "2040-08-20T15:45Z"};
+        long[] epochMillis = new long[instants.length];
+        for (int i = 0; i < instants.length; i++) {
+            epochMillis[i] = Epoch.epochMillis(ZonedDateTime.parse(instants[i]));
+        }
+        double[] ephemerides = new double[EPHEMERIS_LENGTH * epochMillis.length];
+
+        for (Object[] expected : BASELINE) {
+            CelestialObjectModel<?> model = (CelestialObjectModel<?>) expected[1];
+            int i = Arrays.asList(instants).indexOf(expected[0]);
+            int offset = EPHEMERIS_LENGTH * i;
+            model.at(epochMillis, ephemerides, 0, epochMillis.length);
+
+            assertEquals((double) expected[2], ephemerides[offset], 1e-12);
+            assertEquals((double) expected[3], ephemerides[offset + 1], 1e-12);
+            assertEquals((float) (double) expected[4], (float) ephemerides[offset + 2]);
+            assertEquals((float) (double) expected[5], (float) ephemerides[offset + 3]);
+            if ((double) expected[6] >= 0)
+                assertEquals((float) (double) expected[6], (float) ephemerides[offset + 4]);
+            assertTrue(0 <= ephemerides[offset + 4] && ephemerides[offset + 4] <= 1);
+
+            CelestialObject object = (CelestialObject) model.at(new SolarSystemState(epochMillis[i]));
+            assertEquals((double) expected[2], object.equatorialPos().ra(), 1e-12);
+            assertEquals((double) expected[3], object.equatorialPos().dec(), 1e-12);
+            assertEquals((float) (double) expected[4], object.angularSize());
+            assertEquals((float) (double) expected[5], object.magnitude());
+        }
+    }
+
+    @Test
+    void ephemeridesOnlyFillTheGivenRange() {
+        long[] epochMillis = randomInstants(new SplittableRandom(2026), 20);
+        double[] ephemerides = new double[EPHEMERIS_LENGTH * epochMillis.length];
+        Arrays.fill(ephemerides, -1);
+
+        PlanetModel.MARS.at(epochMillis, ephemerides, 5, 15);
+        for (int i = 0; i < ephemerides.length; i++) {
+            int instant = i / EPHEMERIS_LENGTH;
+            assertEquals(5 <= instant && instant < 15, ephemerides[i] != -1);
+        }
+    }
+
+    @Test
+    void ephemeridesWithAStepAreTheOnesAtTheInstants() {
+        int count = 10_000;
+        long start = J2010 - 1_000 * MILLIS_PER_DAY;
+        long step = 10 * 60 * 1000; //Every 10 minutes
+        long[] epochMillis = new long[count];
+        for (int i = 0; i < count; i++) {
+            epochMillis[i] = start + i * step;
+        }
+
+        for (CelestialObjectModel<?> model : models()) {
+            double[] atInstants = new double[EPHEMERIS_LENGTH * count];
+            double[] withStep = new double[EPHEMERIS_LENGTH * count];
+            model.at(epochMillis, atInstants, 0, count);
+            model.at(start, step, withStep, 0, count);
+            assertArrayEquals(atInstants, withStep);
+        }
+    }
+
+    @Test
+    void parallelEphemeridesAreTheSameAsSequentialOnes() {
+        long[] epochMillis = randomInstants(new SplittableRandom(2027), 10_000);
+        long start = J2010 + 3_000 * MILLIS_PER_DAY;
+        long step = -60 * 60 * 1000;
+
+        for (CelestialObjectModel<?> model : models()) {
+            double[] sequential = new double[EPHEMERIS_LENGTH * epochMillis.length];
+            double[] parallel = new double[EPHEMERIS_LENGTH * epochMillis.length];
+            model.at(epochMillis, sequential, 0, epochMillis.length);
+            model.parallelAt(epochMillis, parallel);
+            assertArrayEquals(sequential, parallel);
+
+            model.at(start, step, sequential, 0, epochMillis.length);
+            model.parallelAt(start, step, parallel);
+            assertArrayEquals(sequential, parallel);
+        }
+    }
+
+    @Test
+    void parallelEphemeridesFailOnArraysOfWrongLength() {
+        assertThrows(IllegalArgumentException.class, () ->
+                SunModel.SUN.parallelAt(new long[10], new double[EPHEMERIS_LENGTH * 10 - 1]));
+        assertThrows(IllegalArgumentException.class, () ->
+                MoonModel.MOON.parallelAt(new long[10], new double[EPHEMERIS_LENGTH * 11]));
+        assertThrows(IllegalArgumentException.class, () ->
+                PlanetModel.VENUS.parallelAt(J2010, 1, new double[EPHEMERIS_LENGTH * 10 + 2]));
+    }
+}
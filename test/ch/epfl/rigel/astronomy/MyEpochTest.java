@@ -3,6 +3,8 @@ package ch.epfl.rigel.astronomy;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -53,4 +55,23 @@ class MyEpochTest {
 
         assertEquals(0, Epoch.J2000.julianCenturiesUntil(d));
     }
-}
\ No newline at end of file
+
+    @Test
+    void epochMillisOverloadsGiveTheSameResultsAsTheDates() {
+        ZonedDateTime j2000 = ZonedDateTime.of(LocalDate.of(2000, Month.JANUARY, 1), LocalTime.of(12, 0), ZoneOffset.UTC);
+        SplittableRandom rng = new SplittableRandom(2024);
+        for (int i = 0; i < 10_000; i++) {
+            ZonedDateTime when = j2000.plusSeconds(rng.nextLong(-10_000_000_000L, 10_000_000_000L))
+                    .plusNanos(rng.nextLong(1_000_000_000))
+                    .withZoneSameInstant(ZoneOffset.ofHours(rng.nextInt(-12, 13)));
+            long epochMillis = Epoch.epochMillis(when);
+            //The fractions of milliseconds are dropped towards the past, and not towards the epoch
+            assertEquals(j2000.toInstant().toEpochMilli() + j2000.until(when, ChronoUnit.MILLIS), epochMillis, 1);
+
+            for (Epoch epoch : Epoch.values()) {
+                assertEquals(epoch.daysUntil(when), epoch.daysUntil(epochMillis));
+                assertEquals(epoch.julianCenturiesUntil(when), epoch.julianCenturiesUntil(epochMillis));
+            }
+        }
+    }
+}
@@ -2,10 +2,17 @@ package ch.epfl.rigel.astronomy;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
 
 class MyHygDatabaseLoaderTest {
 
@@ -61,4 +68,119 @@ class MyHygDatabaseLoaderTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void starsAreTheSameAsWithStringParsing() throws IOException {
+        StarCatalogue catalogue;
+        try (InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            catalogue = new StarCatalogue.Builder().loadFrom(hygStream, HygDatabaseLoader.INSTANCE).build();
+        }
+
+        //Parsing with split and the parse methods of the JDK
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), US_ASCII))) {
+            reader.readLine();
+            String line;
+            int i = 0;
+            while ((line = reader.readLine()) != null) {
+                String[] tab = line.split(",");
+                Star star = catalogue.star(i++);
+                assertEquals(tab[1].isBlank() ? 0 : Integer.parseInt(tab[1]), star.hipparcosId());
+                assertEquals(!tab[6].isBlank() ? tab[6] : (tab[27].isBlank() ? "?" : tab[27]) + " " + tab[29], star.name());
+                assertEquals(Double.parseDouble(tab[23]), star.equatorialPos().ra());
+                assertEquals(Double.parseDouble(tab[24]), star.equatorialPos().dec());
+                assertEquals(tab[13].isBlank() ? 0 : Float.parseFloat(tab[13]), star.magnitude());
+                assertEquals(new Star(0, "", star.equatorialPos(), 0, tab[16].isBlank() ? 0 : Float.parseFloat(tab[16]))
+                        .colorTemperature(), star.colorTemperature());
+            }
+            assertEquals(i, catalogue.starCount());
+        }
+    }
+
+    private static double parseDouble(String s) {
+        byte[] bytes = (" " + s + ",").getBytes(US_ASCII);
+        return HygDatabaseLoader.parseDouble(bytes, 1, bytes.length - 1);
+    }
+
+    private static float parseFloat(String s) {
+        byte[] bytes = s.getBytes(US_ASCII);
+        return HygDatabaseLoader.parseFloat(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void parseDoubleGivesTheSameResultsAsTheJdk() {
+        for (String s : List.of("0", "-0", "-0.0", "1", "+2.5", "1e22", "1e23", "9007199254740993", "123456789012345678",
+                "0.004696959812148889", "-0.8518930353430763", "1.5E-3", "6.677325e-05", " 3.25 ", ".5", "5.",
+                "1e-400", "1e400", "NaN", "-Infinity", "0x1p3", "2d", "0.1000000000000000055511151231257827")) {
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(parseDouble(s)), s);
+        }
+
+        SplittableRandom rng = new SplittableRandom(2020);
+        for (int i = 0; i < 100_000; i++) {
+            double value = rng.nextDouble(-4, 4) * Math.pow(10, rng.nextInt(-10, 10));
+            String s = i % 2 == 0
+                    ? Double.toString(value)
+                    : String.format(Locale.ROOT, "%." + rng.nextInt(0, 19) + "f", value);
+            assertEquals(Double.parseDouble(s), parseDouble(s), s);
+        }
+
+        //Long mantissas (17 digits), whose quotient by the power of ten has to be corrected
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder digits = new StringBuilder();
+            for (int d = 0; d < 17; d++) {
+                digits.append((char) ('0' + rng.nextInt(d == 0 ? 1 : 0, 10)));
+            }
+            int point = rng.nextInt(0, 18);
+            String s = (rng.nextBoolean() ? "-" : "") + (point == 0 ? "0" : digits.substring(0, point)) + "."
+                    + "0".repeat(rng.nextInt(0, 8)) + digits.substring(point);
+            assertEquals(Double.parseDouble(s), parseDouble(s), s);
+        }
+    }
+
+    @Test
+    void parseFloatGivesTheSameResultsAsTheJdk() {
+        for (String s : List.of("0", "-0.000", "5.710", "-1.440", "16777216", "16777217", "1e10", "1e11", "0.1",
+                "3.4028235e38", "1e-50")) {
+            assertEquals(Float.floatToRawIntBits(Float.parseFloat(s)), Float.floatToRawIntBits(parseFloat(s)), s);
+        }
+
+        SplittableRandom rng = new SplittableRandom(2020);
+        for (int i = 0; i < 100_000; i++) {
+            String s = String.format(Locale.ROOT, "%." + rng.nextInt(0, 9) + "f", rng.nextDouble(-30, 30));
+            assertEquals(Float.parseFloat(s), parseFloat(s), s);
+        }
+    }
+
+    @Test
+    void invalidNumbersAreRejected() {
+        for (String s : List.of("", "-", "1.2.3", "abc", "1e", "--1")) {
+            assertThrows(NumberFormatException.class, () -> parseDouble(s), s);
+            assertThrows(NumberFormatException.class, () -> parseFloat(s), s);
+        }
+        byte[] bytes = "12a".getBytes(US_ASCII);
+        assertThrows(NumberFormatException.class, () -> HygDatabaseLoader.parseInt(bytes, 0, bytes.length));
+    }
+
+    @Test
+    void linesOfAnyLengthAndEndAreRead() throws IOException {
+        String header = "id,hip,hd,hr,gl,bf,proper,ra,dec,dist,pmra,pmdec,rv,mag,absmag,spect,ci,x,y,z,vx,vy,vz,"
+                + "rarad,decrad,pmrarad,pmdecrad,bayer,flam,con,comp,comp_primary,base,lum,var,var_min,var_max";
+        String longValue = "1".repeat(200_000);
+        String csv = header + "\r\n"
+                + "1,42,,,,,Long," + longValue + ",,,,,,1.5,,,0.5,,,,,,,1.0,0.5,,,,,Ori,1,1,,,,,\r\n"
+                + "2,,,,,,,,,,,,,,,,,,,,,,,2.0,-0.5,,,Alp,,Cyg\n"
+                + "3,,,,,,,,,,,,,,,,,,,,,,,3.0,0.25,,,,,And";
+
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(csv.getBytes(US_ASCII)), HygDatabaseLoader.INSTANCE)
+                .build();
+
+        assertEquals(3, catalogue.starCount());
+        assertEquals("Long", catalogue.star(0).name());
+        assertEquals(42, catalogue.hipparcosId(0));
+        assertEquals(1.5, catalogue.magnitude(0));
+        assertEquals("Alp Cyg", catalogue.star(1).name());
+        assertEquals(-0.5, catalogue.declination(1));
+        assertEquals("? And", catalogue.star(2).name());
+        assertEquals(0.25, catalogue.declination(2));
+    }
+}
@@ -0,0 +1,353 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyObservedSkyTest {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.parse("2020-02-17T20:15:00+01:00");
+    private static final GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private static final StereographicProjection PROJECTION =
+            new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+    private static StarCatalogue syntheticCatalogue(int starCount) {
+        List<Star> stars = StarCatalogueBenchmark.syntheticStars(new SplittableRandom(2020), starCount);
+        return new StarCatalogue(stars, List.of());
+    }
+
+    @Test
+    void parallelProjectionGivesTheSameResultsAsSequentialProjection() {
+        StarCatalogue catalogue = syntheticCatalogue(100_003);
+        ObservedSky sequential = new ObservedSky(TIME, WHERE, PROJECTION, catalogue,
+                ObservedSky.Parameters.DEFAULT.withParallelThreshold(Integer.MAX_VALUE));
+        ObservedSky parallel = new ObservedSky(TIME, WHERE, PROJECTION, catalogue,
+                ObservedSky.Parameters.DEFAULT.withParallelThreshold(0));
+
+        assertArrayEquals(sequential.starPositions(), parallel.starPositions());
+    }
+
+    @Test
+    void parametersAreChecked() {
+        assertThrows(IllegalArgumentException.class, () -> ObservedSky.Parameters.DEFAULT.withParallelThreshold(-1));
+        assertEquals(ObservedSky.Parameters.DEFAULT_PARALLEL_THRESHOLD,
+                ObservedSky.Parameters.DEFAULT.parallelThreshold());
+        assertEquals(12, ObservedSky.Parameters.DEFAULT.withParallelThreshold(12).parallelThreshold());
+    }
+
+    /**
+     * Closest object computed by scanning all the objects of the sky
+     */
+    private static Optional<CelestialObject> bruteForceClosestTo(ObservedSky sky, double x, double y, double maxDistance) {
+        List<CelestialObject> objects = new ArrayList<>();
+        List<CartesianCoordinates> positions = new ArrayList<>();
+        objects.add(sky.sun());
+        positions.add(sky.sunPosition());
+        objects.add(sky.moon());
+        positions.add(sky.moonPosition());
+        for (int i = 0; i < sky.planets().size(); i++) {
+            objects.add(sky.planets().get(i));
+            positions.add(CartesianCoordinates.of(sky.planetPositions()[2 * i], sky.planetPositions()[2 * i + 1]));
+        }
+        for (int i = 0; i < sky.stars().size(); i++) {
+            objects.add(sky.stars().get(i));
+            positions.add(CartesianCoordinates.of(sky.starPositions()[2 * i], sky.starPositions()[2 * i + 1]));
+        }
+
+        CelestialObject closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < objects.size(); i++) {
+            CartesianCoordinates p = positions.get(i);
+            double distance = (p.x() - x) * (p.x() - x) + (p.y() - y) * (p.y() - y);
+            if (p.x() >= x - maxDistance && p.x() <= x + maxDistance
+                    && p.y() >= y - maxDistance && p.y() <= y + maxDistance
+                    && distance <= maxDistance * maxDistance && distance <= closestDistance) {
+                closestDistance = distance;
+                closest = objects.get(i);
+            }
+        }
+        return Optional.ofNullable(closest);
+    }
+
+    @Test
+    void objectClosestToGivesTheSameResultsAsBruteForce() {
+        StarCatalogue catalogue = syntheticCatalogue(20_000);
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue);
+        SplittableRandom rng = new SplittableRandom(42);
+
+        for (int i = 0; i < 2_000; i++) {
+            double x = rng.nextDouble(-3, 3);
+            double y = rng.nextDouble(-3, 3);
+            double maxDistance = rng.nextDouble(1e-4, i % 100 == 0 ? 10 : 0.05);
+            assertEquals(bruteForceClosestTo(sky, x, y, maxDistance),
+                    sky.objectClosestTo(CartesianCoordinates.of(x, y), maxDistance));
+        }
+        //Objects far away from the center of the projection
+        assertEquals(bruteForceClosestTo(sky, 100, -50, 60),
+                sky.objectClosestTo(CartesianCoordinates.of(100, -50), 60));
+    }
+
+    @Test
+    void objectClosestToGivesTheSameResultsOnRepeatedCalls() {
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, syntheticCatalogue(1_000));
+        CartesianCoordinates mouse = CartesianCoordinates.of(sky.starPositions()[10], sky.starPositions()[11]);
+
+        Optional<CelestialObject> first = sky.objectClosestTo(mouse, 0.1);
+        assertEquals(first, sky.objectClosestTo(mouse, 0.1));
+        assertEquals(bruteForceClosestTo(sky, mouse.x(), mouse.y(), 0.1), first);
+    }
+
+    @Test
+    void objectClosestToChoosesTheLastStarInCaseOfEquality() {
+        EquatorialCoordinates position = EquatorialCoordinates.of(1, 0.7);
+        StarCatalogue catalogue = new StarCatalogue(List.of(
+                new Star(1, "First", position, 1, 0),
+                new Star(2, "Second", position, 2, 0)), List.of());
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue);
+        CartesianCoordinates starPosition = CartesianCoordinates.of(sky.starPositions()[0], sky.starPositions()[1]);
+
+        assertEquals("Second", sky.objectClosestTo(starPosition, 1e-3).orElseThrow().name());
+        assertThrows(IllegalArgumentException.class, () -> sky.objectClosestTo(starPosition, 0));
+    }
+
+    @Test
+    void advanceToGivesTheSameSkyAsANewOne() {
+        StarCatalogue catalogue = syntheticCatalogue(1_000);
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue);
+        ZonedDateTime later = TIME.plusHours(5);
+        ObservedSky advanced = sky.advanceTo(later);
+        ObservedSky expected = new ObservedSky(later, WHERE, PROJECTION, catalogue);
+
+        assertSame(later, advanced.time());
+        assertSame(WHERE, advanced.observerCoordinates());
+        assertSame(PROJECTION, advanced.projection());
+        assertSame(catalogue, advanced.catalogue());
+        assertArrayEquals(expected.starPositions(), advanced.starPositions());
+        assertArrayEquals(expected.planetPositions(), advanced.planetPositions());
+        assertEquals(expected.sunPosition().x(), advanced.sunPosition().x());
+        assertEquals(expected.moonPosition().y(), advanced.moonPosition().y());
+        assertEquals(expected.moon().info(), advanced.moon().info());
+    }
+
+    @Test
+    void advanceToReusesTheVisibleStarsWhileTheConeCoversTheSameCells() {
+        StarCatalogue catalogue = syntheticCatalogue(20_000);
+        for (boolean rotation : new boolean[]{false, true}) {
+            ObservedSky.Parameters parameters = ObservedSky.Parameters.DEFAULT
+                    .withSiderealRotation(rotation).withViewRadius(0.5);
+            ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue, parameters);
+            int reused = 0;
+            int found = 0;
+            //50 seconds per frame, as at 60 frames per second with the 3000x accelerator, during 6 hours
+            for (int i = 1; i <= 432; i++) {
+                ZonedDateTime later = TIME.plusSeconds(50L * i);
+                ObservedSky advanced = sky.advanceTo(later);
+                ObservedSky expected = new ObservedSky(later, WHERE, PROJECTION, catalogue, parameters);
+
+                assertArrayEquals(expected.visibleStarIndices(), advanced.visibleStarIndices());
+                assertArrayEquals(expected.visibleStarPositions(), advanced.visibleStarPositions());
+                if (advanced.visibleStarIndices() == sky.visibleStarIndices())
+                    reused++;
+                else
+                    found++;
+                sky = advanced;
+            }
+            assertTrue(reused > 0);
+            assertTrue(found > 0);
+        }
+    }
+
+    @Test
+    void limitingMagnitudeProjectsOnlyTheBrightStarsAndTheAsterisms() {
+        SplittableRandom rng = new SplittableRandom(7);
+        List<Star> stars = StarCatalogueBenchmark.syntheticStars(rng, 20_000);
+        List<Asterism> asterisms = StarCatalogueBenchmark.syntheticAsterisms(rng, stars.subList(0, 100));
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        stars.forEach(builder::addStar);
+        asterisms.forEach(builder::addAsterism);
+        StarCatalogue catalogue = builder.sortByMagnitude().build();
+
+        ObservedSky all = new ObservedSky(TIME, WHERE, PROJECTION, catalogue);
+        ObservedSky limited = new ObservedSky(TIME, WHERE, PROJECTION, catalogue,
+                ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(4));
+
+        int projected = limited.starPositions().length / 2;
+        int asterismStarsEnd = 0;
+        for (Asterism asterism : catalogue.asterisms()) {
+            for (int index : catalogue.asterismIndices(asterism)) {
+                asterismStarsEnd = Math.max(asterismStarsEnd, index + 1);
+            }
+        }
+        assertEquals(Math.max(catalogue.starCountUpToMagnitude(4), asterismStarsEnd), projected);
+        assertTrue(projected < catalogue.starCount());
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            assertEquals(catalogue.magnitude(i) <= 4 || i < asterismStarsEnd, i < projected);
+        }
+        for (int i = 0; i < 2 * projected; i++) {
+            assertEquals(all.starPositions()[i], limited.starPositions()[i]);
+        }
+
+        //Only the projected stars can be found
+        CartesianCoordinates faintStar = CartesianCoordinates.of(all.starPositions()[2 * projected], all.starPositions()[2 * projected + 1]);
+        assertSame(catalogue.star(projected), all.objectClosestTo(faintStar, 1e-9).orElseThrow());
+        assertNotEquals(Optional.of(catalogue.star(projected)), limited.objectClosestTo(faintStar, 1e-9));
+    }
+
+    @Test
+    void limitingMagnitudeIsIgnoredForAnUnsortedCatalogue() {
+        StarCatalogue catalogue = syntheticCatalogue(1_000);
+        assertFalse(catalogue.isSortedByMagnitude());
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue,
+                ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(0));
+        assertEquals(2 * catalogue.starCount(), sky.starPositions().length);
+    }
+
+    @Test
+    void parametersWithTheSameValuesAreEqual() {
+        ObservedSky.Parameters parameters = ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(7.5);
+        assertEquals(Double.POSITIVE_INFINITY, ObservedSky.Parameters.DEFAULT.limitingMagnitude());
+        assertEquals(7.5, parameters.limitingMagnitude());
+        assertEquals(parameters, ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(7.5));
+        assertEquals(parameters.hashCode(), ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(7.5).hashCode());
+        assertNotEquals(parameters, parameters.withSiderealRotation(true));
+        assertNotEquals(parameters, parameters.withParallelThreshold(3));
+        assertNotEquals(parameters, ObservedSky.Parameters.DEFAULT);
+        assertThrows(IllegalArgumentException.class, () -> ObservedSky.Parameters.DEFAULT.withLimitingMagnitude(Double.NaN));
+    }
+
+    //Angle between the two given horizontal coordinates
+    private static double angularDistance(HorizontalCoordinates a, HorizontalCoordinates b) {
+        double cos = Math.sin(a.alt()) * Math.sin(b.alt()) + Math.cos(a.alt()) * Math.cos(b.alt()) * Math.cos(a.az() - b.az());
+        return Math.acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    @Test
+    void viewRadiusProjectsAllTheStarsOfTheConeOfView() {
+        SplittableRandom rng = new SplittableRandom(3);
+        List<Star> stars = StarCatalogueBenchmark.syntheticStars(rng, 20_000);
+        List<Asterism> asterisms = StarCatalogueBenchmark.syntheticAsterisms(rng, stars.subList(0, 1_000));
+        StarCatalogue catalogue = new StarCatalogue(stars, asterisms);
+        Set<Integer> asterismStars = new HashSet<>();
+        for (Asterism asterism : catalogue.asterisms()) {
+            asterismStars.addAll(catalogue.asterismIndices(asterism));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            //Some centers close to the zenith and the nadir, so that the cone contains a celestial pole
+            HorizontalCoordinates center = HorizontalCoordinates.of(rng.nextDouble(0, 2 * Math.PI),
+                    i % 10 == 0 ? Math.copySign(1.55, rng.nextDouble(-1, 1)) : rng.nextDouble(-1.5, 1.5));
+            StereographicProjection projection = new StereographicProjection(center);
+            double viewRadius = rng.nextDouble(0.05, 2.5);
+            boolean rotation = i % 2 == 0;
+            ZonedDateTime when = TIME.plusMinutes(rng.nextInt(1_000_000));
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(rng.nextDouble(-180, 180), rng.nextDouble(-90, 90));
+
+            ObservedSky all = new ObservedSky(when, where, projection, catalogue,
+                    ObservedSky.Parameters.DEFAULT.withSiderealRotation(rotation));
+            ObservedSky culled = new ObservedSky(when, where, projection, catalogue,
+                    ObservedSky.Parameters.DEFAULT.withSiderealRotation(rotation).withViewRadius(viewRadius));
+
+            int[] visible = culled.visibleStarIndices();
+            assertEquals(2 * visible.length, culled.visibleStarPositions().length);
+            for (int v = 0; v < visible.length; v++) {
+                assertTrue(v == 0 || visible[v - 1] < visible[v]);
+                assertEquals(culled.starPositions()[2 * visible[v]], culled.visibleStarPositions()[2 * v]);
+                assertEquals(culled.starPositions()[2 * visible[v] + 1], culled.visibleStarPositions()[2 * v + 1]);
+            }
+            Set<Integer> visibleSet = new HashSet<>();
+            for (int index : visible) {
+                visibleSet.add(index);
+            }
+            assertTrue(visibleSet.containsAll(asterismStars));
+            assertTrue(visible.length < catalogue.starCount() || viewRadius > 1.5);
+
+            EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(when, where);
+            for (int s = 0; s < catalogue.starCount(); s++) {
+                double distance = angularDistance(center, conversion.apply(catalogue.star(s).equatorialPos()));
+                if (distance < viewRadius - 1e-9)
+                    assertTrue(visibleSet.contains(s));
+                if (visibleSet.contains(s)) {
+                    assertEquals(all.starPositions()[2 * s], culled.starPositions()[2 * s]);
+                    assertEquals(all.starPositions()[2 * s + 1], culled.starPositions()[2 * s + 1]);
+                } else {
+                    assertTrue(Double.isNaN(culled.starPositions()[2 * s]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void culledStarsAreNotFound() {
+        StarCatalogue catalogue = syntheticCatalogue(5_000);
+        ObservedSky all = new ObservedSky(TIME, WHERE, PROJECTION, catalogue);
+        ObservedSky culled = new ObservedSky(TIME, WHERE, PROJECTION, catalogue, ObservedSky.Parameters.DEFAULT.withViewRadius(0.3));
+        assertEquals(catalogue.starCount(), all.visibleStarIndices().length);
+
+        SplittableRandom rng = new SplittableRandom(9);
+        for (int i = 0; i < 1_000; i++) {
+            double x = rng.nextDouble(-3, 3);
+            double y = rng.nextDouble(-3, 3);
+            Optional<CelestialObject> expected = bruteForceClosestTo(culled, x, y, 0.05);
+            assertEquals(expected, culled.objectClosestTo(CartesianCoordinates.of(x, y), 0.05));
+            if (Math.hypot(x, y) < 0.1)
+                assertEquals(all.objectClosestTo(CartesianCoordinates.of(x, y), 0.05), expected);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ObservedSky.Parameters.DEFAULT.withViewRadius(0));
+    }
+
+    @Test
+    void advanceToTheSameInstantGivesTheSameSky() {
+        ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, syntheticCatalogue(10));
+        assertSame(sky, sky.advanceTo(TIME));
+        assertSame(sky, sky.advanceTo(TIME.withZoneSameInstant(ZoneOffset.UTC)));
+    }
+
+    @Test
+    void withProjectionGivesTheSameSkyAsANewOne() {
+        StarCatalogue catalogue = syntheticCatalogue(5_000);
+        StereographicProjection first = new StereographicProjection(HorizontalCoordinates.ofDeg(30, 10));
+        StereographicProjection second = new StereographicProjection(HorizontalCoordinates.ofDeg(300, 60));
+
+        for (ObservedSky.Parameters parameters : List.of(ObservedSky.Parameters.DEFAULT,
+                ObservedSky.Parameters.DEFAULT.withSiderealRotation(true),
+                ObservedSky.Parameters.DEFAULT.withViewRadius(0.5),
+                ObservedSky.Parameters.DEFAULT.withSiderealRotation(true).withViewRadius(0.5))) {
+            ObservedSky sky = new ObservedSky(TIME, WHERE, PROJECTION, catalogue, parameters);
+            assertSame(sky, sky.withProjection(PROJECTION));
+
+            //Projected again twice, the second time from the horizontal coordinates kept by the first one
+            ObservedSky panned = sky;
+            for (StereographicProjection projection : List.of(first, second, PROJECTION)) {
+                panned = panned.withProjection(projection);
+                ObservedSky expected = new ObservedSky(TIME, WHERE, projection, catalogue, parameters);
+
+                assertSame(projection, panned.projection());
+                assertSame(sky.sun(), panned.sun());
+                assertSame(sky.moon(), panned.moon());
+                assertEquals(sky.planets(), panned.planets());
+                assertSame(sky.parameters(), panned.parameters());
+                assertArrayEquals(expected.visibleStarIndices(), panned.visibleStarIndices());
+                assertArrayEquals(expected.visibleStarPositions(), panned.visibleStarPositions());
+                assertArrayEquals(expected.starPositions(), panned.starPositions());
+                assertArrayEquals(expected.planetPositions(), panned.planetPositions());
+                assertEquals(expected.sunPosition().x(), panned.sunPosition().x());
+                assertEquals(expected.moonPosition().y(), panned.moonPosition().y());
+            }
+        }
+    }
+}
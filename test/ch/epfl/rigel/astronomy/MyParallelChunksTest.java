@@ -0,0 +1,41 @@
+package ch.epfl.rigel.astronomy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyParallelChunksTest {
+
+    @Test
+    void fewElementsAreRunAtOnceOnTheCallingThread() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger calls = new AtomicInteger();
+        ParallelChunks.run(100, 10, 1_000, (from, to) -> {
+            assertSame(caller, Thread.currentThread());
+            assertEquals(0, from);
+            assertEquals(100, to);
+            calls.incrementAndGet();
+        });
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void chunksCoverEachElementOnce() {
+        for (int count : new int[]{0, 1, 999, 1_000, 1_001, 12_345}) {
+            AtomicIntegerArray runs = new AtomicIntegerArray(count);
+            ParallelChunks.run(count, 1_000, 0, (from, to) -> {
+                assertEquals(0, from % 1_000);
+                assertTrue(to - from <= 1_000);
+                for (int i = from; i < to; i++) {
+                    runs.incrementAndGet(i);
+                }
+            });
+            for (int i = 0; i < count; i++) {
+                assertEquals(1, runs.get(i));
+            }
+        }
+    }
+}
@@ -2,9 +2,12 @@ package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.Polynomial;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
 
 import static java.time.ZonedDateTime.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -66,4 +69,27 @@ class MySiderealTimeTest {
                 ), GeographicCoordinates.ofDeg(30, 45)), 1e-7);
     }
 
-}
\ No newline at end of file
+    @Test
+    void epochMillisOverloadsGiveTheSameSiderealTimesAsTheDates() {
+        ZonedDateTime j2000 = of(LocalDate.of(2000, Month.JANUARY, 1), LocalTime.of(12, 0), ZoneOffset.UTC);
+        SplittableRandom rng = new SplittableRandom(2024);
+        for (int i = 0; i < 10_000; i++) {
+            ZonedDateTime when = j2000.plusSeconds(rng.nextLong(-10_000_000_000L, 10_000_000_000L))
+                    .plusNanos(rng.nextLong(1_000_000_000))
+                    .withZoneSameInstant(ZoneOffset.ofHours(rng.nextInt(-12, 13)));
+            GeographicCoordinates where = GeographicCoordinates.ofDeg(rng.nextDouble(-180, 180), rng.nextDouble(-90, 90));
+            long epochMillis = Epoch.epochMillis(when);
+
+            //The computation on the dates truncated at 00:00 UTC
+            ZonedDateTime whenInGreenwich = when.withZoneSameInstant(ZoneOffset.UTC);
+            ZonedDateTime whenInGreenwichAtZero = whenInGreenwich.truncatedTo(ChronoUnit.DAYS);
+            double sidereal = Angle.normalizePositive(Angle.ofHr(
+                    Polynomial.of(0.000025862, 2400.051336, 6.697374558).at(Epoch.J2000.julianCenturiesUntil(whenInGreenwichAtZero))
+                            + 1.002737909 * (whenInGreenwichAtZero.until(whenInGreenwich, ChronoUnit.MILLIS) / (1000.0 * 60.0 * 60.0))));
+
+            assertEquals(sidereal, SiderealTime.greenwich(epochMillis));
+            assertEquals(sidereal, SiderealTime.greenwich(when));
+            assertEquals(SiderealTime.local(when, where), SiderealTime.local(epochMillis, where));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySolarSystemStateTest {
+
+    private static final ZonedDateTime J2010 = ZonedDateTime.parse("2010-01-01T00:00:00Z").minusDays(1);
+
+    @Test
+    void stateHasTheValuesOfTheSunAndTheEarth() {
+        SplittableRandom rng = new SplittableRandom(2020);
+        for (int i = 0; i < 1_000; i++) {
+            ZonedDateTime when = J2010.plusMinutes(rng.nextLong(-40_000_000, 40_000_000));
+            SolarSystemState state = new SolarSystemState(when);
+            Sun sun = SunModel.SUN.at(Epoch.J2010.daysUntil(when), new EclipticToEquatorialConversion(when));
+
+            assertEquals(Epoch.J2010.daysUntil(when), state.daysSinceJ2010());
+            assertEquals(sun.eclipticPos().lon(), state.sunEclipticLongitude());
+            assertEquals(sun.meanAnomaly(), (float) state.sunMeanAnomaly());
+            assertEquals(state.sunMeanAnomaly() + 2 * 0.016705 * Math.sin(state.sunMeanAnomaly()), state.sunTrueAnomaly());
+
+            //The Earth is at the opposite of the Sun, close to 1 AU
+            double earthLongitude = state.earthHeliocentricLongitude() - state.sunEclipticLongitude() - Math.PI;
+            assertEquals(0, Math.sin(earthLongitude), 5e-3);
+            assertEquals(1, state.earthRadius(), 0.02);
+        }
+    }
+
+    //Values of the models at(daysSinceJ2010, conversion) before the state of the solar system was shared:
+    //instant, model, right ascension, declination, angular size, magnitude and info of the moon
+    private static final Object[][] BASELINE = {
+            {"1950-06-15T12:00Z", SunModel.SUN, 1.4540248248575534, 0.4067167149682457, 0.009160652756690979, -26.700000762939453, null},
+            {"1950-06-15T12:00Z", MoonModel.MOON, 1.4120447528596287, 0.4928433971878738, 0.008659248240292072, 0.0, "Lune (0.0%)"},
+            {"1950-06-15T12:00Z", PlanetModel.VENUS, 0.774392565540147, 0.2565470997881884, 6.921407475601882E-5, -4.4262309074401855, null},
+            {"1950-06-15T12:00Z", PlanetModel.MARS, 3.1647173328981157, -0.0023760331312370534, 4.218325193505734E-5, -0.24435430765151978, null},
+            {"1950-06-15T12:00Z", PlanetModel.JUPITER, 5.924865730197343, -0.1699007245358022, 2.0531954942271113E-4, -2.5478336811065674, null},
+            {"2003-07-27T00:00Z", SunModel.SUN, 2.1971992212048117, 0.3377715408611325, 0.009161771275103092, -26.700000762939453, null},
+            {"2003-07-27T00:00Z", MoonModel.MOON, 1.695695021560261, 0.4644573134519042, 0.0087400758638978, 0.0, "Lune (5.5%)"},
+            {"2003-07-27T00:00Z", PlanetModel.VENUS, 2.086859132653025, 0.3738985720399874, 4.7698718844912946E-5, -3.933283567428589, null},
+            {"2003-07-27T00:00Z", PlanetModel.MARS, 6.021640141928378, -0.2215676145212733, 1.028362094075419E-4, -2.522933006286621, null},
+            {"2003-07-27T00:00Z", PlanetModel.JUPITER, 2.5481436040624907, 0.25271908059589465, 1.511218142695725E-4, -1.7493540048599243, null},
+            {"2020-02-17T20:15+01:00", SunModel.SUN, 5.772259556241012, -0.20888244975156112, 0.009416485205292702, -26.700000762939453, null},
+            {"2020-02-17T20:15+01:00", MoonModel.MOON, 4.553538817472324, -0.3825588130267607, 0.009163353592157364, 0.0, "Lune (30.5%)"},
+            {"2020-02-17T20:15+01:00", PlanetModel.VENUS, 0.18451976450766444, 0.08278708612720732, 8.395800250582397E-5, -4.738903999328613, null},
+            {"2020-02-17T20:15+01:00", PlanetModel.MARS, 4.729897112890764, -0.412903101381246, 2.5043013010872528E-5, 0.7874430418014526, null},
+            {"2020-02-17T20:15+01:00", PlanetModel.JUPITER, 5.036623906911945, -0.3896422938538699, 1.6136803606059402E-4, -1.9526898860931396, null},
+            {"2077-12-31T23:59Z", SunModel.SUN, 4.9210959671526675, -0.40097170086742484, 0.009462811052799225, -26.700000762939453, null},
+            {"2077-12-31T23:59Z", MoonModel.MOON, 2.382467983665089, 0.3809371241181089, 0.008859830908477306, 0.0, "Lune (92.6%)"},
+            {"2077-12-31T23:59Z", PlanetModel.VENUS, 4.6847920660076205, -0.33322820029933053, 2.9855460161343217E-4, -3.8208229541778564, null},
+            {"2077-12-31T23:59Z", PlanetModel.MARS, 3.473700425892554, -0.10517964246413233, 3.024602119694464E-5, 0.5745701789855957, null},
+            {"2077-12-31T23:59Z", PlanetModel.JUPITER, 4.2371882254583255, -0.354158965639081, 1.5537159924861044E-4, -1.8021053075790405, null}
+    };
+
+    @Test
+    void modelsGiveTheObjectsOfTheBaselineWithASharedState() {
+        for (Object[] expected : BASELINE) {
+            ZonedDateTime when = ZonedDateTime.parse((String) expected[0]);
+            EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(when);
+            SolarSystemState state = new SolarSystemState(Epoch.J2010.daysUntil(when), conversion);
+            assertSame(conversion, state.eclipticToEquatorialConversion());
+
+            CelestialObject object = (CelestialObject) ((CelestialObjectModel<?>) expected[1]).at(state);
+            assertEquals((double) expected[2], object.equatorialPos().ra(), 1e-12);
+            assertEquals((double) expected[3], object.equatorialPos().dec(), 1e-12);
+            assertEquals((double) expected[4], object.angularSize(), 1e-12);
+            assertEquals((double) expected[5], object.magnitude(), 1e-12);
+            if (expected[6] != null)
+                assertEquals(expected[6], object.info());
+        }
+    }
+}
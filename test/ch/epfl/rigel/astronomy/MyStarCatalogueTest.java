@@ -0,0 +1,192 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyStarCatalogueTest {
+
+    private static final String HYG_CATALOGUE_NAME =
+            "/hygdata_v3.csv";
+
+    private static final String ASTERISM_CATALOGUE_NAME =
+            "/asterisms.txt";
+
+    private static StarCatalogue loadCatalogue() throws IOException {
+        try (InputStream hygStream = MyStarCatalogueTest.class.getResourceAsStream(HYG_CATALOGUE_NAME);
+             InputStream asterismStream = MyStarCatalogueTest.class.getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            return new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+    }
+
+    @Test
+    void columnsAndStarsHaveTheSameValues() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        List<Star> stars = catalogue.stars();
+
+        assertEquals(stars.size(), catalogue.starCount());
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            Star star = stars.get(i);
+            assertSame(star, catalogue.star(i));
+            assertEquals(star.hipparcosId(), catalogue.hipparcosId(i));
+            assertEquals(star.equatorialPos().ra(), catalogue.rightAscension(i));
+            assertEquals(star.equatorialPos().dec(), catalogue.declination(i));
+            assertEquals(star.magnitude(), catalogue.magnitude(i));
+            assertEquals(star.colorTemperature(), catalogue.colorTemperature(i));
+        }
+    }
+
+    @Test
+    void asterismStarsAreTheStarsOfTheCatalogue() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        for (Asterism asterism : catalogue.asterisms()) {
+            List<Integer> indices = catalogue.asterismIndices(asterism);
+            for (int i = 0; i < indices.size(); i++) {
+                assertSame(asterism.stars().get(i), catalogue.star(indices.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void asterismSegmentsJoinTheConsecutiveStarsOfEachAsterism() throws IOException {
+        StarCatalogue catalogue = loadCatalogue();
+        Set<List<Integer>> expected = new HashSet<>();
+        for (Asterism asterism : catalogue.asterisms()) {
+            List<Integer> indices = catalogue.asterismIndices(asterism);
+            for (int i = 0; i < indices.size() - 1; i++) {
+                expected.add(List.of(indices.get(i), indices.get(i + 1)));
+            }
+        }
+
+        int[] segments = catalogue.asterismSegments();
+        Set<List<Integer>> actual = new HashSet<>();
+        for (int i = 0; i < segments.length; i += 2) {
+            actual.add(List.of(segments[i], segments[i + 1]));
+        }
+        assertEquals(expected, actual);
+        assertSame(segments, catalogue.asterismSegments());
+        assertSame(catalogue.asterisms(), catalogue.asterisms());
+    }
+
+    @Test
+    void columnarBuilderCreatesStarsOnDemand() {
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .addStar(27989, "Betelgeuse", 1.5497291183713854, 0.12927763089447843, 0.45f, 1.5f)
+                .addStar(new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724303693276385, -0.143145630755865), 0.18f, -0.03f))
+                .build();
+
+        assertEquals(2, catalogue.starCount());
+        Star betelgeuse = catalogue.star(0);
+        assertEquals("Betelgeuse", betelgeuse.name());
+        assertEquals(27989, betelgeuse.hipparcosId());
+        assertEquals(1.5497291183713854, betelgeuse.equatorialPos().ra());
+        assertEquals(new Star(0, "", EquatorialCoordinates.of(0, 0), 0, 1.5f).colorTemperature(), betelgeuse.colorTemperature());
+        assertSame(betelgeuse, catalogue.star(0));
+        assertSame(betelgeuse, catalogue.stars().get(0));
+        assertEquals("Rigel", catalogue.stars().get(1).name());
+    }
+
+    @Test
+    void columnarBuilderChecksTheStars() {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(-1, "A", 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(1, "A", 0, 0, 0, 6));
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(1, "A", -1, 0, 0, 0));
+        assertThrows(NullPointerException.class, () -> builder.addStar(1, null, 0, 0, 0, 0));
+        assertEquals(0, builder.build().starCount());
+    }
+
+    @Test
+    void sortByMagnitudeSortsTheStarsAndKeepsTheAsterisms() throws IOException {
+        StarCatalogue catalogue;
+        try (InputStream hygStream = MyStarCatalogueTest.class.getResourceAsStream(HYG_CATALOGUE_NAME);
+             InputStream asterismStream = MyStarCatalogueTest.class.getResourceAsStream(ASTERISM_CATALOGUE_NAME)) {
+            catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .sortByMagnitude()
+                    .loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+        StarCatalogue unsorted = loadCatalogue();
+
+        assertTrue(catalogue.isSortedByMagnitude());
+        assertFalse(unsorted.isSortedByMagnitude());
+        assertEquals(unsorted.starCount(), catalogue.starCount());
+        for (int i = 1; i < catalogue.starCount(); i++) {
+            assertTrue(catalogue.magnitude(i - 1) <= catalogue.magnitude(i));
+        }
+        assertEquals(unsorted.asterisms().size(), catalogue.asterisms().size());
+        for (Asterism asterism : catalogue.asterisms()) {
+            List<Integer> indices = catalogue.asterismIndices(asterism);
+            for (int i = 0; i < indices.size(); i++) {
+                assertSame(asterism.stars().get(i), catalogue.star(indices.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void sortByMagnitudeKeepsTheOrderOfStarsOfEqualMagnitude() {
+        Star first = new Star(1, "First", EquatorialCoordinates.of(0, 0), 2, 0);
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .addStar(first)
+                .addStar(2, "Second", 1, 0.5, 2, 1)
+                .addStar(3, "Bright", 2, -0.5, -1.5f, 0.5f)
+                .addStar(4, "Faint", 3, 0, 6, 0)
+                .addStar(5, "Third", 4, 0, 2, 0)
+                .addAsterism(new Asterism(List.of(first)))
+                .sortByMagnitude()
+                .build();
+
+        assertEquals(List.of(3, 1, 2, 5, 4), List.of(catalogue.hipparcosId(0), catalogue.hipparcosId(1),
+                catalogue.hipparcosId(2), catalogue.hipparcosId(3), catalogue.hipparcosId(4)));
+        assertEquals("Second", catalogue.star(2).name());
+        assertEquals(0.5, catalogue.declination(2));
+        assertSame(first, catalogue.star(1));
+        assertEquals(List.of(1), catalogue.asterismIndices(catalogue.asterisms().iterator().next()));
+    }
+
+    @Test
+    void starCountUpToMagnitudeCountsTheStarsNotFainterThanTheLimit() {
+        SplittableRandom rng = new SplittableRandom(11);
+        List<Star> stars = StarCatalogueBenchmark.syntheticStars(rng, 10_000);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        stars.forEach(builder::addStar);
+        StarCatalogue sorted = builder.sortByMagnitude().build();
+        StarCatalogue unsorted = new StarCatalogue(stars, List.of());
+
+        for (double limit : new double[]{Double.NEGATIVE_INFINITY, -3, -2, 0, 3.5, 6, 12, 13, Double.POSITIVE_INFINITY,
+                stars.get(0).magnitude(), stars.get(1).magnitude()}) {
+            long expected = stars.stream().filter(star -> star.magnitude() <= limit).count();
+            assertEquals(expected, sorted.starCountUpToMagnitude(limit));
+            assertEquals(expected, unsorted.starCountUpToMagnitude(limit));
+        }
+    }
+
+    @Test
+    void largeCatalogueHasTheIndicesOfItsAsterisms() {
+        //The linearity of the construction is measured by StarCatalogueBenchmark
+        SplittableRandom rng = new SplittableRandom(2020);
+        List<Star> stars = StarCatalogueBenchmark.syntheticStars(rng, 50_000);
+        List<Asterism> asterisms = StarCatalogueBenchmark.syntheticAsterisms(rng, stars);
+
+        StarCatalogue catalogue = new StarCatalogue(stars, asterisms);
+        assertEquals(stars.size(), catalogue.starCount());
+        for (Asterism asterism : asterisms) {
+            List<Integer> indices = catalogue.asterismIndices(asterism);
+            for (int i = 0; i < indices.size(); i++) {
+                assertSame(asterism.stars().get(i), stars.get(indices.get(i)));
+            }
+        }
+    }
+}
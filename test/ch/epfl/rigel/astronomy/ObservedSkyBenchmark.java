@@ -0,0 +1,171 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the time needed to build an observed sky (one animation frame)
+ * for the bundled catalogue, then sequentially and in parallel for large
+ * synthetic catalogues (with the exact conversion and with the sidereal rotation
+ * of the stars, up to limiting magnitudes once sorted by magnitude, and culled to
+ * cones of view), the time needed to project it again when it is panned, and the time
+ * needed to find the object under the mouse.
+ */
+public final class ObservedSkyBenchmark {
+
+    private static final int WARM_UP = 200;
+    private static final int FRAMES = 1_000;
+    private static final int HOVER_QUERIES = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        StarCatalogue catalogue;
+        try (InputStream hygStream = ObservedSkyBenchmark.class.getResourceAsStream("/hygdata_v3.csv");
+             InputStream astStream = ObservedSkyBenchmark.class.getResourceAsStream("/asterisms.txt")) {
+            catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(astStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+
+        ZonedDateTime when = ZonedDateTime.parse("2020-02-17T20:15:00+01:00");
+        GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+        measure(catalogue, "default", ObservedSky.Parameters.DEFAULT, when, where, projection, FRAMES);
+        measure(catalogue, "sidereal rotation", ObservedSky.Parameters.DEFAULT.withSiderealRotation(true),
+                when, where, projection, FRAMES);
+        measurePan(catalogue, "default", ObservedSky.Parameters.DEFAULT, when, where, FRAMES);
+        measurePan(catalogue, "sidereal rotation", ObservedSky.Parameters.DEFAULT.withSiderealRotation(true),
+                when, where, FRAMES);
+
+        System.out.printf(Locale.ROOT, "%d available processors%n", Runtime.getRuntime().availableProcessors());
+        for (int starCount : new int[]{100_000, 1_000_000}) {
+            List<Star> stars = StarCatalogueBenchmark.syntheticStars(new SplittableRandom(2020), starCount);
+            StarCatalogue synthetic = new StarCatalogue(stars, List.of());
+            int frames = FRAMES * 5_000 / starCount;
+            measure(synthetic, "sequential", ObservedSky.Parameters.DEFAULT.withParallelThreshold(Integer.MAX_VALUE),
+                    when, where, projection, frames);
+            measure(synthetic, "parallel", ObservedSky.Parameters.DEFAULT.withParallelThreshold(0),
+                    when, where, projection, frames);
+            measure(synthetic, "sequential, sidereal rotation", ObservedSky.Parameters.DEFAULT
+                    .withParallelThreshold(Integer.MAX_VALUE).withSiderealRotation(true), when, where, projection, frames);
+            measurePan(synthetic, "sequential", ObservedSky.Parameters.DEFAULT.withParallelThreshold(Integer.MAX_VALUE),
+                    when, where, frames);
+            measurePan(synthetic, "sequential, sidereal rotation", ObservedSky.Parameters.DEFAULT
+                    .withParallelThreshold(Integer.MAX_VALUE).withSiderealRotation(true), when, where, frames);
+            measureHover(new ObservedSky(when, where, projection, synthetic));
+
+            //Catalogue sorted by magnitude, projected up to the limits of the widest and narrowest fields of view
+            StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            SplittableRandom rng = new SplittableRandom(2020);
+            for (int i = 0; i < starCount; i++) {
+                //The number of stars brighter than m is proportional to 10^(m / 2), up to magnitude 12
+                builder.addStar(i, "Star " + i, rng.nextDouble(0, 2 * Math.PI), rng.nextDouble(-Math.PI / 2, Math.PI / 2),
+                        (float) (12 + 2 * Math.log10(1 - rng.nextDouble())), (float) rng.nextDouble(-0.5, 5.5));
+            }
+            StarCatalogue sorted = builder.sortByMagnitude().build();
+            measure(sorted, "sidereal rotation, all the stars", ObservedSky.Parameters.DEFAULT.withSiderealRotation(true),
+                    when, where, projection, frames);
+            for (double limitingMagnitude : new double[]{6.5, 10}) {
+                measure(sorted, "sidereal rotation, up to magnitude " + limitingMagnitude, ObservedSky.Parameters.DEFAULT
+                        .withSiderealRotation(true).withLimitingMagnitude(limitingMagnitude), when, where, projection, FRAMES);
+            }
+
+            //Cones of view (cheap skies, measured on as many frames as the bundled catalogue) of a 800x600 canvas
+            //for the narrowest (30 degrees) and widest (150 degrees) fields of view
+            sorted.equatorialGrid();
+            measure(synthetic, "sidereal rotation, cone of 20 degrees", ObservedSky.Parameters.DEFAULT.withSiderealRotation(true)
+                    .withViewRadius(Math.toRadians(20)), when, where, projection, FRAMES);
+            measure(sorted, "sidereal rotation, cone of 20 degrees, up to magnitude 10", ObservedSky.Parameters.DEFAULT
+                    .withSiderealRotation(true).withLimitingMagnitude(10).withViewRadius(Math.toRadians(20)),
+                    when, where, projection, FRAMES);
+            measure(sorted, "sidereal rotation, cone of 105 degrees, up to magnitude 6.5", ObservedSky.Parameters.DEFAULT
+                    .withSiderealRotation(true).withLimitingMagnitude(6.5).withViewRadius(Math.toRadians(105)),
+                    when, where, projection, FRAMES);
+            measureAdvance(synthetic, "sidereal rotation, cone of 20 degrees", ObservedSky.Parameters.DEFAULT
+                    .withSiderealRotation(true).withViewRadius(Math.toRadians(20)), when, where, projection, FRAMES);
+            measureAdvance(sorted, "sidereal rotation, cone of 105 degrees, up to magnitude 6.5", ObservedSky.Parameters.DEFAULT
+                    .withSiderealRotation(true).withLimitingMagnitude(6.5).withViewRadius(Math.toRadians(105)),
+                    when, where, projection, FRAMES);
+        }
+    }
+
+    private static void measureHover(ObservedSky sky) {
+        SplittableRandom rng = new SplittableRandom(1);
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < HOVER_QUERIES; i++) {
+            CartesianCoordinates mouse = CartesianCoordinates.of(rng.nextDouble(-1.5, 1.5), rng.nextDouble(-1.5, 1.5));
+            if (sky.objectClosestTo(mouse, 0.01).isPresent())
+                found++;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%d stars : %.3f us per hover lookup (%d found)%n",
+                sky.catalogue().starCount(), elapsed / 1e3 / HOVER_QUERIES, found);
+    }
+
+    //Pans the sky by steps of a tenth of a degree in azimuth, at the same time and place
+    private static void measurePan(StarCatalogue catalogue, String label, ObservedSky.Parameters parameters,
+                                   ZonedDateTime when, GeographicCoordinates where, int frames) {
+        StereographicProjection[] projections = new StereographicProjection[3600];
+        for (int i = 0; i < projections.length; i++) {
+            projections[i] = new StereographicProjection(HorizontalCoordinates.ofDeg(i / 10d, 45));
+        }
+        ObservedSky sky = new ObservedSky(when, where, projections[0], catalogue, parameters);
+        for (int i = 1; i <= Math.min(WARM_UP, frames); i++) {
+            sky = sky.withProjection(projections[i % projections.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 1; i <= frames; i++) {
+            sky = sky.withProjection(projections[(WARM_UP + i) % projections.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%d stars (%s) : %.3f ms per panned sky%n",
+                catalogue.starCount(), label, elapsed / 1e6 / frames);
+    }
+
+    private static void measure(StarCatalogue catalogue, String label, ObservedSky.Parameters parameters,
+                                ZonedDateTime when, GeographicCoordinates where,
+                                StereographicProjection projection, int frames) {
+        for (int i = 0; i < Math.min(WARM_UP, frames); i++) {
+            new ObservedSky(when.plusMinutes(i), where, projection, catalogue, parameters);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            new ObservedSky(when.plusMinutes(i), where, projection, catalogue, parameters);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%d stars (%s) : %.3f ms per observed sky%n",
+                catalogue.starCount(), label, elapsed / 1e6 / frames);
+    }
+
+    //Advances the sky by 50 seconds per frame (60 frames per second with the 3000x accelerator)
+    private static void measureAdvance(StarCatalogue catalogue, String label, ObservedSky.Parameters parameters,
+                                       ZonedDateTime when, GeographicCoordinates where,
+                                       StereographicProjection projection, int frames) {
+        ObservedSky sky = new ObservedSky(when, where, projection, catalogue, parameters);
+        for (int i = 1; i <= Math.min(WARM_UP, frames); i++) {
+            sky = sky.advanceTo(when.plusSeconds(50L * i));
+        }
+        int reused = 0;
+        long start = System.nanoTime();
+        for (int i = 1; i <= frames; i++) {
+            ObservedSky advanced = sky.advanceTo(when.plusSeconds(50L * (WARM_UP + i)));
+            if (advanced.visibleStarIndices() == sky.visibleStarIndices())
+                reused++;
+            sky = advanced;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%d stars (%s) : %.3f ms per advanced sky (visible stars reused %d times out of %d)%n",
+                catalogue.starCount(), label, elapsed / 1e6 / frames, reused, frames);
+    }
+}
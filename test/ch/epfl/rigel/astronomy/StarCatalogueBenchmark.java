@@ -0,0 +1,66 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the time needed to build catalogues of synthetic stars, from 5 000
+ * to 1 000 000 stars. The time per star must stay roughly constant: the ratio
+ * of the times per star of the largest and of the smallest catalogues is at
+ * most about 1 for a linear construction (the smallest one is built before the
+ * code is compiled), while it is about 200 for a quadratic one.
+ */
+public final class StarCatalogueBenchmark {
+
+    private static final int[] STAR_COUNTS = {5_000, 50_000, 100_000, 500_000, 1_000_000};
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) {
+        SplittableRandom rng = new SplittableRandom(2020);
+        double[] nanosPerStar = new double[STAR_COUNTS.length];
+        for (int c = 0; c < STAR_COUNTS.length; c++) {
+            int starCount = STAR_COUNTS[c];
+            List<Star> stars = syntheticStars(rng, starCount);
+            List<Asterism> asterisms = syntheticAsterisms(rng, stars);
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < REPETITIONS; i++) {
+                long start = System.nanoTime();
+                new StarCatalogue(stars, asterisms);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf(Locale.ROOT, "%9d stars : %9.2f ms (%6.1f ns/star)%n",
+                    starCount, best / 1e6, (double) best / starCount);
+            nanosPerStar[c] = (double) best / starCount;
+        }
+        System.out.printf(Locale.ROOT, "Ratio of the times per star (%d / %d stars) : %.2f%n",
+                STAR_COUNTS[STAR_COUNTS.length - 1], STAR_COUNTS[0], nanosPerStar[STAR_COUNTS.length - 1] / nanosPerStar[0]);
+    }
+
+    static List<Star> syntheticStars(SplittableRandom rng, int count) {
+        List<Star> stars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stars.add(new Star(i, "Star " + i,
+                    EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), rng.nextDouble(-Math.PI / 2, Math.PI / 2)),
+                    (float) rng.nextDouble(-2, 12), (float) rng.nextDouble(-0.5, 5.5)));
+        }
+        return stars;
+    }
+
+    static List<Asterism> syntheticAsterisms(SplittableRandom rng, List<Star> stars) {
+        //About one star out of ten belongs to an asterism of 10 stars
+        List<Asterism> asterisms = new ArrayList<>();
+        for (int i = 0; i < stars.size() / 100; i++) {
+            List<Star> asterismStars = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                asterismStars.add(stars.get(rng.nextInt(stars.size())));
+            }
+            asterisms.add(new Asterism(asterismStars));
+        }
+        return asterisms;
+    }
+}
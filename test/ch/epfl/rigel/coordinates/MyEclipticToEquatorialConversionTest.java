@@ -4,6 +4,7 @@ import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -25,4 +26,21 @@ class MyEclipticToEquatorialConversionTest {
         assertEquals(Angle.ofHr(9.5814777777778), newCoord.ra(), 1e-6);
         assertEquals(Angle.ofDMS(19, 32, 6.01), newCoord.dec(), 1e-7);
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyToArrayGivesTheSameCoordinatesAsApply() {
+        SplittableRandom rng = new SplittableRandom(2025);
+        double[] equatorial = new double[4];
+        for (int i = 0; i < 10_000; i++) {
+            EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(
+                    rng.nextLong(-5_000_000_000_000L, 5_000_000_000_000L));
+            EclipticCoordinates ecl = EclipticCoordinates.of(rng.nextDouble(0, Angle.TAU),
+                    rng.nextDouble(-Math.PI / 2, Math.PI / 2));
+
+            EquatorialCoordinates equ = conversion.apply(ecl);
+            conversion.apply(ecl.lon(), ecl.lat(), equatorial, 2);
+            assertEquals(equ.ra(), equatorial[2]);
+            assertEquals(equ.dec(), equatorial[3]);
+        }
+    }
+}
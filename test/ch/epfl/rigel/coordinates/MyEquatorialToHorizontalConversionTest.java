@@ -7,6 +7,9 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class MyEquatorialToHorizontalConversionTest {
 
@@ -42,5 +45,18 @@ class MyEquatorialToHorizontalConversionTest {
 
     }
 
-
+    @Test
+    void inverseApplyIsTheInverseOfApply() {
+        SplittableRandom rng = new SplittableRandom(5);
+        for (int i = 0; i < 1_000; i++) {
+            EquatorialToHorizontalConversion conv = new EquatorialToHorizontalConversion(
+                    ZonedDateTime.of(LocalDate.of(2020, 1, 1), LocalTime.of(0, 0), ZoneOffset.UTC).plusMinutes(rng.nextInt(1_000_000)),
+                    GeographicCoordinates.ofDeg(rng.nextDouble(-180, 180), rng.nextDouble(-89, 89)));
+            EquatorialCoordinates equ = EquatorialCoordinates.of(rng.nextDouble(0, Angle.TAU), rng.nextDouble(-1.5, 1.5));
+
+            EquatorialCoordinates back = conv.inverseApply(conv.apply(equ));
+            assertEquals(0, Angle.normalizePositive(back.ra() - equ.ra() + 1) - 1, 1e-9);
+            assertEquals(equ.dec(), back.dec(), 1e-9);
+        }
+    }
 }
\ No newline at end of file
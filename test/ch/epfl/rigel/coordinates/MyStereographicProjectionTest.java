@@ -1,8 +1,12 @@
 package ch.epfl.rigel.coordinates;
 
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -102,4 +106,107 @@ class MyStereographicProjectionTest {
         assertEquals(-0.2691084761522857, coord1.alt());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyToEquatorialGivesTheSameResultsAsApply() {
+        var rng = TestRandomizer.newRandom();
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                ZonedDateTime.parse("2020-02-17T20:15:00+01:00"), GeographicCoordinates.ofDeg(6.57, 46.52));
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(277, -23));
+
+        int count = TestRandomizer.RANDOM_ITERATIONS;
+        double[] ra = new double[count];
+        double[] dec = new double[count];
+        for (int i = 0; i < count; i++) {
+            ra[i] = rng.nextDouble(0, Angle.TAU);
+            dec[i] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+        }
+
+        double[] xy = new double[2 * count];
+        projection.applyToEquatorial(conversion, ra, dec, xy, 1, count);
+        assertEquals(0, xy[0]);
+        assertEquals(0, xy[1]);
+        for (int i = 1; i < count; i++) {
+            CartesianCoordinates expected = projection.apply(conversion.apply(EquatorialCoordinates.of(ra[i], dec[i])));
+            assertEquals(expected.x(), xy[2 * i]);
+            assertEquals(expected.y(), xy[2 * i + 1]);
+        }
+    }
+
+    @Test
+    void applyToEquatorialVectorsGivesTheSameResultsAsApplyToEquatorial() {
+        var rng = TestRandomizer.newRandom();
+        for (int test = 0; test < 20; test++) {
+            EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                    ZonedDateTime.parse("2020-02-17T20:15:00+01:00").plusMinutes(rng.nextInt(1_000_000)),
+                    GeographicCoordinates.ofDeg(rng.nextDouble(-180, 180), rng.nextDouble(-90, 90)));
+            StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(rng.nextDouble(0, 360), rng.nextDouble(-90, 90)));
+
+            int count = TestRandomizer.RANDOM_ITERATIONS;
+            double[] ra = new double[count];
+            double[] dec = new double[count];
+            double[] unitVectors = new double[3 * count];
+            for (int i = 0; i < count; i++) {
+                ra[i] = rng.nextDouble(0, Angle.TAU);
+                dec[i] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+                unitVectors[3 * i] = Math.cos(dec[i]) * Math.cos(ra[i]);
+                unitVectors[3 * i + 1] = Math.cos(dec[i]) * Math.sin(ra[i]);
+                unitVectors[3 * i + 2] = Math.sin(dec[i]);
+            }
+
+            double[] expected = new double[2 * count];
+            double[] actual = new double[2 * count];
+            projection.applyToEquatorial(conversion, ra, dec, expected, 0, count);
+            projection.applyToEquatorialVectors(conversion, unitVectors, actual, 0, count);
+            for (int i = 0; i < 2 * count; i++) {
+                //The rounding errors grow with the distance to the center of the projection
+                assertEquals(expected[i], actual[i], 1e-9 * Math.max(1, expected[i] * expected[i]));
+            }
+        }
+    }
+
+    @Test
+    void applyToHorizontalGivesTheSameResultsAsTheConversionInOnePass() {
+        var rng = TestRandomizer.newRandom();
+        EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                ZonedDateTime.parse("2020-02-17T20:15:00+01:00"), GeographicCoordinates.ofDeg(6.57, 46.52));
+
+        int count = TestRandomizer.RANDOM_ITERATIONS;
+        double[] ra = new double[count];
+        double[] dec = new double[count];
+        double[] unitVectors = new double[3 * count];
+        for (int i = 0; i < count; i++) {
+            ra[i] = rng.nextDouble(0, Angle.TAU);
+            dec[i] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+            unitVectors[3 * i] = Math.cos(dec[i]) * Math.cos(ra[i]);
+            unitVectors[3 * i + 1] = Math.cos(dec[i]) * Math.sin(ra[i]);
+            unitVectors[3 * i + 2] = Math.sin(dec[i]);
+        }
+        double[] horizontal = new double[3 * count];
+        double[] horizontalVectors = new double[3 * count];
+        conversion.applyToArrays(ra, dec, horizontal, 0, count);
+        conversion.applyToVectors(unitVectors, horizontalVectors, 0, count);
+        int[] indices = {count - 1, 0, count / 2};
+
+        for (int test = 0; test < 20; test++) {
+            StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(rng.nextDouble(0, 360), rng.nextDouble(-90, 90)));
+            double[] expected = new double[2 * count];
+            double[] actual = new double[2 * count];
+
+            projection.applyToEquatorial(conversion, ra, dec, expected, 0, count);
+            projection.applyToHorizontal(horizontal, null, actual, 0, count);
+            assertArrayEquals(expected, actual);
+            projection.applyToHorizontal(horizontal, indices, actual, 0, indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                assertEquals(expected[2 * indices[i]], actual[2 * i]);
+                assertEquals(expected[2 * indices[i] + 1], actual[2 * i + 1]);
+            }
+
+            projection.applyToEquatorialVectors(conversion, unitVectors, expected, 0, count);
+            projection.applyToHorizontalVectors(horizontalVectors, null, actual, 0, count);
+            assertArrayEquals(expected, actual);
+        }
+    }
+}
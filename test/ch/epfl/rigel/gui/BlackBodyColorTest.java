@@ -32,4 +32,27 @@ class BlackBodyColorTest {
         assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.colorForTemperature(999));
         assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.colorForTemperature(40001));
     }
-}
\ No newline at end of file
+
+    @Test
+    void colorIndexesGiveTheColorsOfTheTemperatures() {
+        assertEquals(391, BlackBodyColor.colorCount());
+        assertEquals(0, BlackBodyColor.colorIndex(1000));
+        assertEquals(0, BlackBodyColor.colorIndex(1049.9));
+        assertEquals(1, BlackBodyColor.colorIndex(1050));
+        assertEquals(28, BlackBodyColor.colorIndex(3798.1409));
+        assertEquals(390, BlackBodyColor.colorIndex(40000));
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.colorIndex(999.9));
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.colorIndex(40_000.00001d));
+
+        assertEquals(Color.web("#ffcc99"), BlackBodyColor.color(28));
+        assertEquals(0xFFFFCC99, BlackBodyColor.argb(28));
+        assertEquals(0xFF9BBCFF, BlackBodyColor.argb(390));
+        for (double temperature = 1000; temperature <= 40000; temperature += 7.3) {
+            int index = BlackBodyColor.colorIndex(temperature);
+            Color color = BlackBodyColor.color(index);
+            assertEquals(color, BlackBodyColor.colorForTemperature(temperature));
+            assertEquals(color, Color.rgb((BlackBodyColor.argb(index) >> 16) & 0xFF,
+                    (BlackBodyColor.argb(index) >> 8) & 0xFF, BlackBodyColor.argb(index) & 0xFF));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ch.epfl.rigel.gui;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.ObjectBinding;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateTimeBeanTest {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.parse("2020-02-17T20:15:00+01:00[Europe/Zurich]");
+
+    @Test
+    void setZonedDateTimeRebuildsOnceADependentBinding() {
+        DateTimeBean bean = new DateTimeBean(TIME);
+        int[] rebuilds = {0};
+        //Like the observed sky of the sky canvas manager, computed again by a listener at each change
+        ObjectBinding<ZonedDateTime> sky = Bindings.createObjectBinding(() -> {
+            rebuilds[0]++;
+            return bean.getZonedDateTime();
+        }, bean.zonedDateTimeProperty());
+        sky.addListener((o, oV, nV) -> {
+        });
+        rebuilds[0] = 0;
+
+        for (int tick = 1; tick <= 10; tick++) {
+            //Changes the date, the time and the zone at once
+            ZonedDateTime next = TIME.plusDays(tick).plusMinutes(tick).withZoneSameInstant(ZoneId.of("UTC"));
+            bean.setZonedDateTime(next);
+            assertEquals(tick, rebuilds[0]);
+            assertEquals(next, sky.get());
+        }
+    }
+
+    @Test
+    void separateChangesUpdateTheZonedDateTime() {
+        DateTimeBean bean = new DateTimeBean(TIME);
+
+        bean.setDate(LocalDate.of(2021, 3, 4));
+        assertEquals(ZonedDateTime.parse("2021-03-04T20:15:00+01:00[Europe/Zurich]"), bean.getZonedDateTime());
+        bean.setTime(LocalTime.of(1, 2, 3));
+        assertEquals(ZonedDateTime.parse("2021-03-04T01:02:03+01:00[Europe/Zurich]"), bean.getZonedDateTime());
+        bean.setZone(ZoneId.of("UTC"));
+        assertEquals(ZonedDateTime.parse("2021-03-04T01:02:03Z[UTC]"), bean.zonedDateTimeProperty().get());
+    }
+
+    @Test
+    void setZonedDateTimeUpdatesAllTheProperties() {
+        DateTimeBean bean = new DateTimeBean();
+        assertNull(bean.getZonedDateTime());
+
+        bean.setZonedDateTime(TIME);
+        assertEquals(TIME.toLocalDate(), bean.getDate());
+        assertEquals(TIME.toLocalTime(), bean.getTime());
+        assertEquals(TIME.getZone(), bean.getZone());
+        assertEquals(TIME, bean.getZonedDateTime());
+    }
+}
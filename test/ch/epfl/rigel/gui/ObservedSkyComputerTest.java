@@ -0,0 +1,149 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservedSkyComputerTest {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.parse("2020-02-17T20:15:00+01:00");
+    private static final GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private static final StereographicProjection PROJECTION =
+            new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+    private static StarCatalogue catalogue() {
+        return new StarCatalogue.Builder()
+                .addStar(27989, "Betelgeuse", 1.5497291183713854, 0.12927763089447843, 0.45f, 1.5f)
+                .addStar(24436, "Rigel", 1.3724303693276385, -0.143145630755865, 0.18f, -0.03f)
+                .build();
+    }
+
+    //Runs the handoffs until the sky at the given time is published, and returns the times of the published skies
+    private static List<ZonedDateTime> publishUntil(ObservedSkyComputer computer, BlockingQueue<Runnable> handoffs,
+                                                    ZonedDateTime time) throws InterruptedException {
+        List<ZonedDateTime> published = new ArrayList<>();
+        computer.observedSkyProperty().addListener((o, oV, nV) -> published.add(nV.time()));
+        while (!computer.getObservedSky().time().equals(time)) {
+            Runnable handoff = handoffs.poll(10, TimeUnit.SECONDS);
+            assertNotNull(handoff);
+            handoff.run();
+        }
+        return published;
+    }
+
+    @Test
+    void firstSkyIsComputedSynchronously() {
+        ObservedSkyComputer computer = new ObservedSkyComputer(TIME, WHERE, PROJECTION, catalogue(),
+                ObservedSky.Parameters.DEFAULT, r -> fail());
+        ObservedSky sky = computer.getObservedSky();
+        assertEquals(TIME, sky.time());
+        assertSame(WHERE, sky.observerCoordinates());
+        assertSame(PROJECTION, sky.projection());
+    }
+
+    @Test
+    void skiesArePublishedInTheOrderOfTheRequests() throws InterruptedException {
+        BlockingQueue<Runnable> handoffs = new LinkedBlockingQueue<>();
+        StarCatalogue catalogue = catalogue();
+        ObservedSkyComputer computer = new ObservedSkyComputer(TIME, WHERE, PROJECTION, catalogue,
+                ObservedSky.Parameters.DEFAULT, handoffs::add);
+
+        ZonedDateTime last = TIME;
+        for (int i = 1; i <= 100; i++) {
+            last = TIME.plusMinutes(i);
+            computer.request(last, WHERE, PROJECTION, ObservedSky.Parameters.DEFAULT);
+        }
+        List<ZonedDateTime> published = publishUntil(computer, handoffs, last);
+
+        for (int i = 1; i < published.size(); i++) {
+            assertTrue(published.get(i).isAfter(published.get(i - 1)));
+        }
+        ObservedSky sky = computer.getObservedSky();
+        ObservedSky expected = new ObservedSky(last, WHERE, PROJECTION, catalogue);
+        assertArrayEquals(expected.starPositions(), sky.starPositions(), 1e-12);
+        assertEquals(expected.sunHorizontalCoordinates().az(), sky.sunHorizontalCoordinates().az(), 1e-12);
+    }
+
+    @Test
+    void supersededRequestsAreNotComputedAndOnlyTheLatestSkyIsHandedOff() throws InterruptedException {
+        BlockingQueue<Runnable> handoffs = new LinkedBlockingQueue<>();
+        CountDownLatch release = new CountDownLatch(1);
+        //The worker is blocked in the handoff of the first sky while the other requests are made
+        ObservedSkyComputer computer = new ObservedSkyComputer(TIME, WHERE, PROJECTION, catalogue(),
+                ObservedSky.Parameters.DEFAULT, handoff -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            handoffs.add(handoff);
+        });
+
+        computer.request(TIME.plusHours(1), WHERE, PROJECTION, ObservedSky.Parameters.DEFAULT);
+        for (int i = 2; i <= 10; i++) {
+            computer.request(TIME.plusHours(i), WHERE, PROJECTION, ObservedSky.Parameters.DEFAULT);
+        }
+        release.countDown();
+        List<ZonedDateTime> published = publishUntil(computer, handoffs, TIME.plusHours(10));
+
+        for (int i = 2; i < 10; i++) {
+            assertFalse(published.contains(TIME.plusHours(i)));
+        }
+        assertEquals(TIME.plusHours(10), published.get(published.size() - 1));
+    }
+
+    @Test
+    void changingOnlyTheProjectionOnlyProjectsTheSkyAgain() throws InterruptedException {
+        BlockingQueue<Runnable> handoffs = new LinkedBlockingQueue<>();
+        ObservedSkyComputer computer = new ObservedSkyComputer(TIME, WHERE, PROJECTION, catalogue(),
+                ObservedSky.Parameters.DEFAULT, handoffs::add);
+        ObservedSky first = computer.getObservedSky();
+
+        StereographicProjection panned = new StereographicProjection(HorizontalCoordinates.ofDeg(190, 40));
+        computer.request(TIME, WHERE, panned, ObservedSky.Parameters.DEFAULT);
+        Runnable handoff = handoffs.poll(10, TimeUnit.SECONDS);
+        assertNotNull(handoff);
+        handoff.run();
+
+        ObservedSky sky = computer.getObservedSky();
+        assertSame(panned, sky.projection());
+        assertSame(first.sun(), sky.sun());
+        assertSame(first.moon(), sky.moon());
+        assertArrayEquals(new ObservedSky(TIME, WHERE, panned, catalogue()).starPositions(), sky.starPositions());
+    }
+
+    @Test
+    void failingRequestIsReportedAndLaterRequestsArePublished() throws InterruptedException {
+        BlockingQueue<Runnable> handoffs = new LinkedBlockingQueue<>();
+        BlockingQueue<Throwable> reported = new LinkedBlockingQueue<>();
+        ObservedSkyComputer computer = new ObservedSkyComputer(TIME, WHERE, PROJECTION, catalogue(),
+                ObservedSky.Parameters.DEFAULT, handoffs::add);
+
+        Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> reported.add(e));
+        try {
+            computer.request(null, WHERE, PROJECTION, ObservedSky.Parameters.DEFAULT);
+            assertTrue(reported.poll(10, TimeUnit.SECONDS) instanceof NullPointerException);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+        }
+        assertTrue(handoffs.isEmpty());
+        assertEquals(TIME, computer.getObservedSky().time());
+
+        computer.request(TIME.plusHours(1), WHERE, PROJECTION, ObservedSky.Parameters.DEFAULT);
+        assertEquals(List.of(TIME.plusHours(1)), publishUntil(computer, handoffs, TIME.plusHours(1)));
+    }
+}
@@ -0,0 +1,58 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import javafx.geometry.Point2D;
+import javafx.scene.transform.Transform;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverlayGeometryTest {
+
+    private static final Transform PLANE_TO_CANVAS = Transform.affine(1300, 0, 0, -1300, 400, 300);
+
+    @Test
+    void geometryIsTheOneOfTheCirclesOfTheProjection() {
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+        OverlayGeometry geometry = new OverlayGeometry(projection, PLANE_TO_CANVAS, 800, 600);
+
+        //The meridians are all circles except the two halves of the one through the center of the projection
+        assertEquals(4 * (19 + 34), geometry.gridOvals().length);
+        assertArrayEquals(new double[]{400, 0, 400, 600, 400, 0, 400, 600}, geometry.gridLines());
+
+        HorizontalCoordinates parallel = HorizontalCoordinates.ofDeg(0, 30);
+        double diameter = 2 * 1300 * projection.circleRadiusForParallel(parallel);
+        CartesianCoordinates center = projection.circleCenterForParallel(parallel);
+        Point2D centerOnCanvas = PLANE_TO_CANVAS.transform(center.x(), center.y());
+        assertArrayEquals(new double[]{centerOnCanvas.getX() - diameter / 2, centerOnCanvas.getY() - diameter / 2, diameter, diameter},
+                Arrays.copyOfRange(geometry.gridOvals(), 4 * 12, 4 * 13), 1e-9);
+
+        assertFalse(geometry.horizonIsLine());
+        assertArrayEquals(new String[]{"N", "NE", "E", "SE", "S", "SO", "O", "NO"}, geometry.cardinalNames());
+        CartesianCoordinates south = projection.apply(HorizontalCoordinates.ofDeg(180, -0.5));
+        assertEquals(PLANE_TO_CANVAS.transform(south.x(), south.y()).getX(), geometry.cardinalPositions()[8], 1e-9);
+        assertEquals(PLANE_TO_CANVAS.transform(south.x(), south.y()).getY(), geometry.cardinalPositions()[9], 1e-9);
+    }
+
+    @Test
+    void horizonIsALineWhenTheCenterIsOnIt() {
+        OverlayGeometry geometry = new OverlayGeometry(new StereographicProjection(HorizontalCoordinates.ofDeg(90, 0)),
+                PLANE_TO_CANVAS, 800, 600);
+        assertTrue(geometry.horizonIsLine());
+        assertArrayEquals(new double[]{0, 300, 800, 300}, geometry.horizon());
+    }
+
+    @Test
+    void geometryIsOnlyForItsProjectionTransformAndSize() {
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+        OverlayGeometry geometry = new OverlayGeometry(projection, PLANE_TO_CANVAS, 800, 600);
+        assertTrue(geometry.isFor(projection, PLANE_TO_CANVAS, 800, 600));
+        assertFalse(geometry.isFor(new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45)), PLANE_TO_CANVAS, 800, 600));
+        assertFalse(geometry.isFor(projection, Transform.affine(1300, 0, 0, -1300, 400, 300), 800, 600));
+        assertFalse(geometry.isFor(projection, PLANE_TO_CANVAS, 800, 601));
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.Angle;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.transform.Transform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the time needed to paint one frame of the sky on a 800x600 canvas (the time
+ * needed to record the drawing commands of the canvas, which are rendered later by JavaFX),
+ * for the bundled catalogue and for a large synthetic catalogue, with the stars drawn as ovals
+ * of the canvas and rasterized into a buffer of pixels.
+ */
+public final class PaintBenchmark {
+
+    private static final int WARM_UP = 200;
+    private static final int FRAMES = 1_000;
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+
+    public static void main(String[] args) throws IOException {
+        StarCatalogue catalogue;
+        try (InputStream hygStream = PaintBenchmark.class.getResourceAsStream("/hygdata_v3.csv");
+             InputStream astStream = PaintBenchmark.class.getResourceAsStream("/asterisms.txt")) {
+            catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(astStream, AsterismLoader.INSTANCE)
+                    .build();
+        }
+
+        ZonedDateTime when = ZonedDateTime.parse("2020-02-17T20:15:00+01:00");
+        GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+
+        measure(new ObservedSky(when, where, projection, catalogue), "field of view of 100 degrees", 100, FRAMES);
+        measure(new ObservedSky(when, where, projection, catalogue), "field of view of 30 degrees", 30, FRAMES);
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        SplittableRandom rng = new SplittableRandom(2020);
+        for (int i = 0; i < 100_000; i++) {
+            builder.addStar(i, "?", rng.nextDouble(Angle.TAU), Math.asin(rng.nextDouble(-1, 1)),
+                    (float) rng.nextDouble(-1.5, 12), (float) rng.nextDouble(-0.5, 5.5));
+        }
+        measure(new ObservedSky(when, where, projection, builder.build()), "field of view of 100 degrees", 100, FRAMES / 10);
+    }
+
+    private static void measure(ObservedSky sky, String label, double fieldOfViewDeg, int frames) {
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        SkyCanvasPainter painter = new SkyCanvasPainter(canvas);
+        StereographicProjection projection = sky.projection();
+        double dilatation = WIDTH / projection.applyToAngle(Angle.ofDeg(fieldOfViewDeg));
+        Transform planeToCanvas = Transform.affine(dilatation, 0, 0, -dilatation, WIDTH / 2, HEIGHT / 2);
+
+        for (boolean rasterizeStars : new boolean[]{false, true}) {
+            for (int i = 0; i < Math.min(WARM_UP, frames); i++) {
+                painter.drawAll(sky, projection, planeToCanvas, true, true, true, rasterizeStars);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                painter.clear(sky, true);
+                painter.drawStars(sky, projection, planeToCanvas, true, rasterizeStars);
+            }
+            long stars = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                painter.drawAll(sky, projection, planeToCanvas, true, true, true, rasterizeStars);
+            }
+            long all = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%d stars (%s, %s) : %.3f ms per frame of stars, %.3f ms per whole frame%n",
+                    sky.catalogue().starCount(), label, rasterizeStars ? "rasterized stars" : "ovals",
+                    stars / 1e6 / frames, all / 1e6 / frames);
+        }
+    }
+}
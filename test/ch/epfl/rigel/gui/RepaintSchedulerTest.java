@@ -0,0 +1,90 @@
+package ch.epfl.rigel.gui;
+
+import javafx.beans.Observable;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.ObjectBinding;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepaintSchedulerTest {
+
+    @Test
+    void requestsBetweenTwoPulsesArePaintedOnce() {
+        int[] paints = {0};
+        int[] pulseRequests = {0};
+        RepaintScheduler scheduler = new RepaintScheduler(() -> paints[0]++, () -> pulseRequests[0]++);
+
+        scheduler.repaintIfDirty();
+        assertEquals(0, paints[0]);
+
+        for (int pulse = 1; pulse <= 5; pulse++) {
+            for (int request = 0; request < 10; request++) {
+                scheduler.requestRepaint();
+            }
+            assertTrue(scheduler.isDirty());
+            assertEquals(pulse, pulseRequests[0]);
+
+            scheduler.repaintIfDirty();
+            scheduler.repaintIfDirty();
+            assertFalse(scheduler.isDirty());
+            assertEquals(pulse, paints[0]);
+        }
+    }
+
+    @Test
+    void requestMadeWhilePaintingIsPaintedAtTheNextPulse() {
+        int[] paints = {0};
+        RepaintScheduler[] scheduler = new RepaintScheduler[1];
+        scheduler[0] = new RepaintScheduler(() -> {
+            if (paints[0]++ == 0)
+                scheduler[0].requestRepaint();
+        }, () -> {
+        });
+
+        scheduler[0].requestRepaint();
+        scheduler[0].repaintIfDirty();
+        assertEquals(1, paints[0]);
+        assertTrue(scheduler[0].isDirty());
+        scheduler[0].repaintIfDirty();
+        assertEquals(2, paints[0]);
+        assertFalse(scheduler[0].isDirty());
+    }
+
+    @Test
+    void severalChangesOfTheDrawingInputsArePaintedOnce() {
+        //Like a resize, changing the width and the height of the canvas, and thus the transform
+        DoubleProperty width = new SimpleDoubleProperty(800);
+        DoubleProperty height = new SimpleDoubleProperty(600);
+        BooleanProperty drawAsterisms = new SimpleBooleanProperty(true);
+        ObjectBinding<Double> planeToCanvas = Bindings.createObjectBinding(() -> width.get() / height.get(), width, height);
+
+        int[] paints = {0};
+        double[] paintedValue = {0};
+        RepaintScheduler scheduler = new RepaintScheduler(() -> {
+            paints[0]++;
+            paintedValue[0] = drawAsterisms.get() ? planeToCanvas.get() : 0;
+        }, () -> {
+        });
+        for (Observable drawingInput : List.of(planeToCanvas, drawAsterisms)) {
+            drawingInput.addListener(o -> scheduler.requestRepaint());
+        }
+        scheduler.requestRepaint();
+        scheduler.repaintIfDirty();
+
+        for (int pulse = 1; pulse <= 10; pulse++) {
+            width.set(800 + pulse);
+            height.set(600 + pulse);
+            drawAsterisms.set(pulse % 2 == 0);
+            scheduler.repaintIfDirty();
+            assertEquals(pulse + 1, paints[0]);
+            assertEquals(pulse % 2 == 0 ? (800.0 + pulse) / (600 + pulse) : 0, paintedValue[0]);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.ClosedInterval;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StarPaletteTest {
+
+    private static final ClosedInterval MAGNITUDES = ClosedInterval.of(-2, 5);
+
+    @Test
+    void colorsAndDiametersAreTheOnesOfEachStar() {
+        SplittableRandom rng = new SplittableRandom(2020);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.addStar(i, "?", rng.nextDouble(0, 6), rng.nextDouble(-1.5, 1.5),
+                    (float) rng.nextDouble(-3, 12), (float) rng.nextDouble(-0.5, 5.5));
+        }
+        StarCatalogue catalogue = builder.build();
+        //Daylight sky, so that the colors are derived
+        ObservedSky sky = new ObservedSky(ZonedDateTime.parse("2020-06-21T12:00:00+02:00"),
+                GeographicCoordinates.ofDeg(6.57, 46.52), new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45)),
+                catalogue);
+
+        for (boolean allowDayNightCycle : new boolean[]{false, true}) {
+            SkyColorManager skyColorManager = new SkyColorManager(sky, allowDayNightCycle);
+            StarPalette palette = new StarPalette(catalogue, MAGNITUDES);
+            palette.prepare(skyColorManager, magnitude -> 3 + magnitude);
+
+            assertSame(catalogue, palette.catalogue());
+            for (int i = 0; i < catalogue.starCount(); i++) {
+                assertEquals(skyColorManager.deriveColor(BlackBodyColor.colorForTemperature(catalogue.colorTemperature(i))),
+                        palette.color(i));
+                int argb = palette.argb(i);
+                Color color = palette.color(i);
+                assertEquals(BlackBodyColor.colorForTemperature(catalogue.colorTemperature(i)),
+                        Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF));
+                assertEquals(color.getOpacity(), (argb >>> 24) / 255.0, 0.5 / 255);
+                assertEquals(3 + MAGNITUDES.clip(catalogue.magnitude(i)), palette.diameter(i), 0.005 + 1e-9);
+            }
+        }
+    }
+}
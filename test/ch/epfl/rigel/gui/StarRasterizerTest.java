@@ -0,0 +1,75 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StarRasterizerTest {
+
+    private static double totalAlpha(int[] pixels) {
+        return Arrays.stream(pixels).mapToDouble(p -> (p >>> 24) / 255.0).sum();
+    }
+
+    @Test
+    void starsCoverTheAreaOfTheirDisc() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        for (double diameter = 0.25; diameter < 12; diameter += 0.375) {
+            for (double offset = 0; offset < 1; offset += 0.3) {
+                rasterizer.begin(40, 30);
+                rasterizer.drawStar(20 + offset, 15 + offset / 2, diameter, 0xFFFFFFFF);
+                double area = Math.PI * diameter * diameter / 4;
+                assertEquals(area, totalAlpha(rasterizer.pixels()), 0.02 * area + 0.05);
+            }
+        }
+    }
+
+    @Test
+    void starsArePremultipliedAndCentered() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        rasterizer.begin(20, 20);
+        rasterizer.drawStar(10.5, 5.5, 4, 0x80FF8000);
+        int[] pixels = rasterizer.pixels();
+
+        //The central pixel is fully covered, with half opacity
+        int center = pixels[5 * 20 + 10];
+        assertEquals(0x80, center >>> 24);
+        assertEquals(0x80, (center >> 16) & 0xFF);
+        assertEquals(0x40, (center >> 8) & 0xFF);
+        assertEquals(0, center & 0xFF);
+        //Symmetric around the center
+        assertEquals(pixels[5 * 20 + 8], pixels[5 * 20 + 12]);
+        assertEquals(pixels[3 * 20 + 10], pixels[7 * 20 + 10]);
+        //Nothing far from the star
+        assertEquals(0, pixels[15 * 20 + 10]);
+        assertEquals(0, pixels[5 * 20 + 16]);
+    }
+
+    @Test
+    void overlappingStarsAreBlendedAndTheBufferIsClearedAtEachFrame() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        rasterizer.begin(10, 10);
+        rasterizer.drawStar(5.5, 5.5, 3, 0xFF0000FF);
+        rasterizer.drawStar(5.5, 5.5, 3, 0x80FF0000);
+        int center = rasterizer.pixels()[5 * 10 + 5];
+        assertEquals(0xFF, center >>> 24);
+        assertEquals(0x80, (center >> 16) & 0xFF);
+        assertEquals(0x7F, center & 0xFF);
+
+        rasterizer.begin(10, 10);
+        assertEquals(0, totalAlpha(rasterizer.pixels()));
+    }
+
+    @Test
+    void starsOnTheBordersAreClipped() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        rasterizer.begin(16, 9);
+        double[][] centers = {{0, 0}, {16, 9}, {-2, 4}, {8, -2}, {17.5, 4}, {8, 10.5}, {-100, -100}, {Double.NaN, 3}};
+        for (double[] center : centers) {
+            rasterizer.drawStar(center[0], center[1], 6, 0xFFFFFFFF);
+        }
+        assertTrue(totalAlpha(rasterizer.pixels()) > 0);
+        assertEquals(16 * 9, rasterizer.pixels().length);
+    }
+}
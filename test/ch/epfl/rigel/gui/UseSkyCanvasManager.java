@@ -9,6 +9,7 @@ import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
@@ -60,7 +61,9 @@ public final class UseSkyCanvasManager extends Application {
                     });
 
             Canvas sky = canvasManager.canvas();
-            BorderPane root = new BorderPane(sky);
+            Pane layers = new Pane();
+            layers.getChildren().addAll(canvasManager.layers());
+            BorderPane root = new BorderPane(layers);
 
             sky.widthProperty().bind(root.widthProperty());
             sky.heightProperty().bind(root.heightProperty());